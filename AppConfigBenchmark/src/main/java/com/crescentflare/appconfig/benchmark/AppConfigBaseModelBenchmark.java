@@ -0,0 +1,84 @@
+package com.crescentflare.appconfig.benchmark;
+
+
+import com.crescentflare.appconfig.model.AppConfigBaseModel;
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark: model reflection helpers
+ * Measures applying a configuration to a model and listing its values, for synthetic models with an increasing amount of fields
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AppConfigBaseModelBenchmark
+{
+    // ---
+    // Parameters
+    // ---
+
+    @Param({ "10", "50", "100", "500" })
+    public int fieldCount;
+
+
+    // ---
+    // Members
+    // ---
+
+    private AppConfigBaseModel model;
+    private AppConfigStorageItem item;
+
+
+    // ---
+    // Setup
+    // ---
+
+    @Setup
+    public void setup()
+    {
+        model = AppConfigBenchmarkData.createModel(fieldCount);
+        item = AppConfigBenchmarkData.createModelItem(model);
+    }
+
+
+    // ---
+    // Benchmarks
+    // ---
+
+    @Benchmark
+    public AppConfigBaseModel applyCustomSettings()
+    {
+        model.applyCustomSettings("Benchmark", item);
+        return model;
+    }
+
+    @Benchmark
+    public ArrayList<String> configurationValueList()
+    {
+        return model.configurationValueList();
+    }
+
+    @Benchmark
+    public ArrayList<String> configurationCategories()
+    {
+        return model.getConfigurationCategories();
+    }
+}
@@ -0,0 +1,166 @@
+package com.crescentflare.appconfig.benchmark;
+
+
+import com.crescentflare.appconfig.model.AppConfigBaseModel;
+import com.crescentflare.appconfig.model.AppConfigPackedStorageItem;
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark: synthetic data generators
+ * Creates storage items, models and configuration sources of a given size, the same parameters always give the same data
+ */
+public class AppConfigBenchmarkData
+{
+    // ---
+    // Initialization
+    // ---
+
+    private AppConfigBenchmarkData()
+    {
+    }
+
+
+    // ---
+    // Storage items
+    // ---
+
+    public static AppConfigStorageItem createItem(int keyCount, boolean packed)
+    {
+        AppConfigStorageItem item = packed ? new AppConfigPackedStorageItem() : new AppConfigStorageItem();
+        for (int i = 0; i < keyCount; i++)
+        {
+            switch (i % 3)
+            {
+                case 0:
+                    item.putString("stringSetting" + i, "value" + i);
+                    break;
+                case 1:
+                    item.putLong("longSetting" + i, i * 31);
+                    break;
+                default:
+                    item.putBoolean("booleanSetting" + i, i % 2 == 0);
+                    break;
+            }
+        }
+        return item;
+    }
+
+
+    // ---
+    // Models
+    // ---
+
+    public static AppConfigBaseModel createModel(int fieldCount)
+    {
+        // The model classes are generated by the generateSyntheticModels task of the build file
+        try
+        {
+            return (AppConfigBaseModel)Class.forName("com.crescentflare.appconfig.benchmark.model.AppConfigSyntheticModel" + fieldCount).newInstance();
+        }
+        catch (ClassNotFoundException | InstantiationException | IllegalAccessException e)
+        {
+            throw new IllegalArgumentException("No synthetic model with " + fieldCount + " fields", e);
+        }
+    }
+
+    public static AppConfigStorageItem createModelItem(AppConfigBaseModel model)
+    {
+        // Contains a different value for every field of the model
+        AppConfigStorageItem item = new AppConfigStorageItem();
+        for (String value : model.configurationValueList())
+        {
+            Object setting = model.getCurrentValue(value);
+            if (setting instanceof Long)
+            {
+                item.putLong(value, (Long)setting + 1);
+            }
+            else if (setting instanceof Integer)
+            {
+                item.putInt(value, (Integer)setting + 1);
+            }
+            else if (setting instanceof Boolean)
+            {
+                item.putBoolean(value, !(Boolean)setting);
+            }
+            else
+            {
+                item.putString(value, "changed" + setting);
+            }
+        }
+        return item;
+    }
+
+
+    // ---
+    // Configuration sources
+    // ---
+
+    public static String createConfigJson(int depth, int width, int valuesPerConfig)
+    {
+        // A tree of configurations, every configuration has the given amount of sub configurations until the depth is reached
+        StringBuilder builder = new StringBuilder();
+        appendConfigArray(builder, "Config", depth, width, valuesPerConfig);
+        return builder.toString();
+    }
+
+    public static List<String> configNames(int depth, int width)
+    {
+        // The names of the configurations in the tree created with the same depth and width, in source order
+        List<String> names = new ArrayList<>();
+        addConfigNames(names, "Config", depth, width);
+        return names;
+    }
+
+    private static void appendConfigArray(StringBuilder builder, String namePrefix, int depth, int width, int valuesPerConfig)
+    {
+        builder.append('[');
+        for (int i = 0; i < width; i++)
+        {
+            String name = namePrefix + "." + i;
+            if (i > 0)
+            {
+                builder.append(", ");
+            }
+            builder.append("{\"name\": \"").append(name).append('"');
+            for (int v = 0; v < valuesPerConfig; v++)
+            {
+                builder.append(", ");
+                switch (v % 3)
+                {
+                    case 0:
+                        builder.append("\"stringSetting").append(v).append("\": \"").append(name).append(" value ").append(v).append('"');
+                        break;
+                    case 1:
+                        builder.append("\"longSetting").append(v).append("\": ").append(v * 1000L + depth);
+                        break;
+                    default:
+                        builder.append("\"booleanSetting").append(v).append("\": ").append((v + depth) % 2 == 0);
+                        break;
+                }
+            }
+            if (depth > 1)
+            {
+                builder.append(", \"subConfigs\": ");
+                appendConfigArray(builder, name, depth - 1, width, valuesPerConfig);
+            }
+            builder.append('}');
+        }
+        builder.append(']');
+    }
+
+    private static void addConfigNames(List<String> names, String namePrefix, int depth, int width)
+    {
+        for (int i = 0; i < width; i++)
+        {
+            String name = namePrefix + "." + i;
+            names.add(name);
+            if (depth > 1)
+            {
+                addConfigNames(names, name, depth - 1, width);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.crescentflare.appconfig.benchmark;
+
+
+import com.crescentflare.appconfig.manager.AppConfigBinaryFormat;
+import com.crescentflare.appconfig.manager.AppConfigJsonLoader;
+import com.crescentflare.appconfig.manager.AppConfigSourceLoader;
+import com.crescentflare.appconfig.manager.AppConfigStoredConfigs;
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark: configuration source loading
+ * Parses trees of configurations (nested with subConfigs) from JSON and from the binary format, for several depths and widths
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AppConfigSourceLoaderBenchmark
+{
+    // ---
+    // Parameters
+    // ---
+
+    @Param({ "1", "3", "5" })
+    public int depth;
+
+    @Param({ "2", "4" })
+    public int width;
+
+    @Param({ "20" })
+    public int valuesPerConfig;
+
+
+    // ---
+    // Members
+    // ---
+
+    private String json;
+    private ByteBuffer binary;
+    private AppConfigStorageItem defaultItem;
+
+
+    // ---
+    // Setup
+    // ---
+
+    @Setup
+    public void setup() throws IOException
+    {
+        json = AppConfigBenchmarkData.createConfigJson(depth, width, valuesPerConfig);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        AppConfigBinaryFormat.write(AppConfigJsonLoader.load(new StringReader(json), null), outputStream);
+        binary = ByteBuffer.wrap(outputStream.toByteArray());
+        defaultItem = AppConfigBenchmarkData.createItem(valuesPerConfig, false);
+    }
+
+
+    // ---
+    // Benchmarks
+    // ---
+
+    @Benchmark
+    public LinkedHashMap<String, AppConfigStorageItem> loadJson()
+    {
+        return AppConfigJsonLoader.load(new StringReader(json), defaultItem);
+    }
+
+    @Benchmark
+    public AppConfigStoredConfigs loadBinary()
+    {
+        return AppConfigSourceLoader.loadBinary(binary.duplicate(), defaultItem, 0);
+    }
+
+    @Benchmark
+    public AppConfigStoredConfigs openBinaryLazily()
+    {
+        return AppConfigSourceLoader.loadBinary(binary.duplicate(), defaultItem, 16);
+    }
+}
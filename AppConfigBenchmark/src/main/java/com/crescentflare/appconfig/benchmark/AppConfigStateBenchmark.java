@@ -0,0 +1,112 @@
+package com.crescentflare.appconfig.benchmark;
+
+
+import com.crescentflare.appconfig.manager.AppConfigBinaryFormat;
+import com.crescentflare.appconfig.manager.AppConfigJsonLoader;
+import com.crescentflare.appconfig.manager.AppConfigSourceLoader;
+import com.crescentflare.appconfig.manager.AppConfigState;
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark: configuration lookups
+ * Measures obtaining configurations from the storage state, with stored configurations loaded upfront or lazily (with a small cache)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AppConfigStateBenchmark
+{
+    // ---
+    // Parameters
+    // ---
+
+    @Param({ "10", "100", "1000" })
+    public int configCount;
+
+    @Param({ "0", "16" })
+    public int lazyLoadingCacheSize;
+
+
+    // ---
+    // Members
+    // ---
+
+    private AppConfigState state;
+    private String[] configNames;
+    private int lookupIndex = 0;
+
+
+    // ---
+    // Setup
+    // ---
+
+    @Setup
+    public void setup() throws IOException
+    {
+        // A flat list of stored configurations, every tenth one is overridden by a custom configuration
+        String json = AppConfigBenchmarkData.createConfigJson(1, configCount, 20);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        AppConfigBinaryFormat.write(AppConfigJsonLoader.load(new StringReader(json), null), outputStream);
+        AppConfigStorageItem defaultItem = AppConfigBenchmarkData.createItem(20, false);
+        List<String> names = AppConfigBenchmarkData.configNames(1, configCount);
+        LinkedHashMap<String, AppConfigStorageItem> customConfigs = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i += 10)
+        {
+            customConfigs.put(names.get(i), AppConfigBenchmarkData.createItem(20, false));
+        }
+        state = new AppConfigState()
+                .withStoredConfigs(AppConfigSourceLoader.loadBinary(ByteBuffer.wrap(outputStream.toByteArray()), defaultItem, lazyLoadingCacheSize))
+                .withCustomConfigs(customConfigs)
+                .withSelectedConfigName(names.get(names.size() / 2));
+        configNames = names.toArray(new String[names.size()]);
+    }
+
+
+    // ---
+    // Benchmarks
+    // ---
+
+    @Benchmark
+    public AppConfigStorageItem getConfig()
+    {
+        // Cycles through all configurations, which evicts lazily loaded ones once the cache is full
+        lookupIndex = (lookupIndex + 1) % configNames.length;
+        return state.getConfig(configNames[lookupIndex]);
+    }
+
+    @Benchmark
+    public AppConfigStorageItem getSelectedConfig()
+    {
+        return state.getSelectedConfig();
+    }
+
+    @Benchmark
+    public boolean containsConfig()
+    {
+        lookupIndex = (lookupIndex + 1) % configNames.length;
+        return state.containsConfig(configNames[lookupIndex]);
+    }
+}
@@ -0,0 +1,141 @@
+package com.crescentflare.appconfig.benchmark;
+
+
+import com.crescentflare.appconfig.model.AppConfigPackedStorageItem;
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark: storage item layouts
+ * Compares the hash map based storage item with the packed (array based) one for typed access, copying and comparing
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AppConfigStorageItemBenchmark
+{
+    // ---
+    // Parameters
+    // ---
+
+    @Param({ "10", "100", "1000" })
+    public int keyCount;
+
+    @Param({ "hash", "packed" })
+    public String layout;
+
+
+    // ---
+    // Members
+    // ---
+
+    private AppConfigStorageItem item;
+    private AppConfigStorageItem itemCopy;
+    private String[] longKeys;
+    private String[] booleanKeys;
+    private String[] stringKeys;
+
+
+    // ---
+    // Setup
+    // ---
+
+    @Setup
+    public void setup()
+    {
+        item = newItem();
+        longKeys = new String[keyCount / 3 + 1];
+        booleanKeys = new String[keyCount / 3 + 1];
+        stringKeys = new String[keyCount / 3 + 1];
+        for (int i = 0; i < longKeys.length; i++)
+        {
+            longKeys[i] = "longSetting" + i;
+            booleanKeys[i] = "booleanSetting" + i;
+            stringKeys[i] = "numberStringSetting" + i;
+            item.putLong(longKeys[i], i * 31);
+            item.putBoolean(booleanKeys[i], i % 2 == 0);
+            item.putString(stringKeys[i], "" + i);
+        }
+        itemCopy = newItem();
+        itemCopy.copyValues(item);
+    }
+
+    private AppConfigStorageItem newItem()
+    {
+        return layout.equals("packed") ? new AppConfigPackedStorageItem() : new AppConfigStorageItem();
+    }
+
+
+    // ---
+    // Benchmarks
+    // ---
+
+    @Benchmark
+    public void getLong(Blackhole blackhole)
+    {
+        for (String key : longKeys)
+        {
+            blackhole.consume(item.getLong(key));
+        }
+    }
+
+    @Benchmark
+    public void getBoolean(Blackhole blackhole)
+    {
+        for (String key : booleanKeys)
+        {
+            blackhole.consume(item.getBoolean(key));
+        }
+    }
+
+    @Benchmark
+    public void getIntFromString(Blackhole blackhole)
+    {
+        for (String key : stringKeys)
+        {
+            blackhole.consume(item.getInt(key));
+        }
+    }
+
+    @Benchmark
+    public AppConfigStorageItem putLong()
+    {
+        AppConfigStorageItem newItem = newItem();
+        for (int i = 0; i < longKeys.length; i++)
+        {
+            newItem.putLong(longKeys[i], i);
+        }
+        return newItem;
+    }
+
+    @Benchmark
+    public AppConfigStorageItem copyValues()
+    {
+        AppConfigStorageItem newItem = newItem();
+        newItem.copyValues(item);
+        return newItem;
+    }
+
+    @Benchmark
+    public boolean equalsCopy()
+    {
+        return item.equals(itemCopy);
+    }
+}
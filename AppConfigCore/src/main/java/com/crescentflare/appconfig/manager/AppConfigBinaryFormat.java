@@ -0,0 +1,303 @@
+package com.crescentflare.appconfig.manager;
+
+
+import com.crescentflare.appconfig.model.AppConfigLayeredStorageItem;
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Library manager: binary configuration format
+ * A compact, pre-compiled version of the configuration asset file which can be read without parsing
+ * Layout (big endian): header, string table, index (config name to offset), then the flattened configurations with typed values
+ */
+public class AppConfigBinaryFormat
+{
+    // ---
+    // Constants
+    // ---
+
+    public static final String FILE_EXTENSION = ".bin";
+    private static final int MAGIC = 0x41434647;
+    private static final short VERSION = 1;
+    private static final byte TYPE_BOOLEAN = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_STRING = 3;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+
+    // ---
+    // Members
+    // ---
+
+    private final ByteBuffer buffer;
+    private final String[] strings;
+    private final String[] configNames;
+    private final int[] configOffsets;
+
+
+    // ---
+    // Initialization
+    // ---
+
+    private AppConfigBinaryFormat(ByteBuffer buffer, String[] strings, String[] configNames, int[] configOffsets)
+    {
+        this.buffer = buffer;
+        this.strings = strings;
+        this.configNames = configNames;
+        this.configOffsets = configOffsets;
+    }
+
+    public static AppConfigBinaryFormat open(ByteBuffer buffer)
+    {
+        try
+        {
+            // Check header
+            ByteBuffer input = buffer.duplicate();
+            if (input.getInt() != MAGIC || input.getShort() != VERSION)
+            {
+                return null;
+            }
+
+            // Read string table, counts are checked against the remaining size before allocating
+            int stringCount = readCount(input, 4);
+            if (stringCount < 0)
+            {
+                return null;
+            }
+            String[] strings = new String[stringCount];
+            for (int i = 0; i < strings.length; i++)
+            {
+                int length = readCount(input, 1);
+                if (length < 0)
+                {
+                    return null;
+                }
+                byte[] bytes = new byte[length];
+                input.get(bytes);
+                strings[i] = new String(bytes, UTF_8);
+            }
+
+            // Read index
+            int configCount = readCount(input, 8);
+            if (configCount < 0)
+            {
+                return null;
+            }
+            String[] configNames = new String[configCount];
+            int[] configOffsets = new int[configCount];
+            for (int i = 0; i < configCount; i++)
+            {
+                configNames[i] = strings[input.getInt()];
+                configOffsets[i] = input.getInt();
+            }
+            return new AppConfigBinaryFormat(buffer.duplicate(), strings, configNames, configOffsets);
+        }
+        catch (BufferUnderflowException | IndexOutOfBoundsException ignored)
+        {
+        }
+        return null;
+    }
+
+
+    private static int readCount(ByteBuffer input, int entrySize)
+    {
+        // Returns -1 for a negative count or when the entries can't fit in the remaining data (the file is corrupt or truncated)
+        int count = input.getInt();
+        if (count < 0 || count > input.remaining() / entrySize)
+        {
+            return -1;
+        }
+        return count;
+    }
+
+
+    // ---
+    // Reading
+    // ---
+
+    public int getConfigCount()
+    {
+        return configNames.length;
+    }
+
+    public List<String> getConfigNames()
+    {
+        ArrayList<String> result = new ArrayList<>(configNames.length);
+        for (String name : configNames)
+        {
+            result.add(name);
+        }
+        return result;
+    }
+
+    public AppConfigStorageItem readConfig(String name, AppConfigStorageItem defaultItem)
+    {
+        for (int i = 0; i < configNames.length; i++)
+        {
+            if (configNames[i].equals(name))
+            {
+                return readConfig(i, defaultItem);
+            }
+        }
+        return null;
+    }
+
+    public LinkedHashMap<String, AppConfigStorageItem> readAll(AppConfigStorageItem defaultItem)
+    {
+        LinkedHashMap<String, AppConfigStorageItem> loadedConfigs = new LinkedHashMap<>();
+        for (int i = 0; i < configNames.length; i++)
+        {
+            AppConfigStorageItem item = readConfig(i, defaultItem);
+            if (item == null)
+            {
+                return null;
+            }
+            loadedConfigs.put(configNames[i], item);
+        }
+        return loadedConfigs;
+    }
+
+    public AppConfigStorageItem readConfig(int index, AppConfigStorageItem defaultItem)
+    {
+        // Inheritance is already flattened, only the defaults from the model are added here
+        AppConfigStorageItem item = new AppConfigLayeredStorageItem(defaultItem);
+        try
+        {
+            ByteBuffer input = buffer.duplicate();
+            input.position(configOffsets[index]);
+            int valueCount = input.getInt();
+            for (int i = 0; i < valueCount; i++)
+            {
+                String key = strings[input.getInt()];
+                byte type = input.get();
+                switch (type)
+                {
+                    case TYPE_BOOLEAN:
+                        item.putBoolean(key, input.get() != 0);
+                        break;
+                    case TYPE_LONG:
+                        item.putLong(key, input.getLong());
+                        break;
+                    case TYPE_STRING:
+                        item.putString(key, strings[input.getInt()]);
+                        break;
+                    default:
+                        return null;
+                }
+            }
+            return item;
+        }
+        catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException ignored)
+        {
+        }
+        return null;
+    }
+
+
+    // ---
+    // Writing
+    // ---
+
+    public static void write(LinkedHashMap<String, AppConfigStorageItem> configs, OutputStream outputStream) throws IOException
+    {
+        // Collect strings
+        ArrayList<String> strings = new ArrayList<>();
+        HashMap<String, Integer> stringIndices = new HashMap<>();
+        for (Map.Entry<String, AppConfigStorageItem> entry : configs.entrySet())
+        {
+            addString(strings, stringIndices, entry.getKey());
+            for (String key : entry.getValue().valueList())
+            {
+                addString(strings, stringIndices, key);
+                Object value = entry.getValue().get(key);
+                if (value instanceof String)
+                {
+                    addString(strings, stringIndices, (String)value);
+                }
+            }
+        }
+
+        // Determine the size of the header, string table and index to calculate offsets
+        ArrayList<byte[]> encodedStrings = new ArrayList<>();
+        int offset = 4 + 2 + 4 + 4 + configs.size() * 8;
+        for (String string : strings)
+        {
+            byte[] bytes = string.getBytes(UTF_8);
+            encodedStrings.add(bytes);
+            offset += 4 + bytes.length;
+        }
+
+        // Write header and string table
+        DataOutputStream output = new DataOutputStream(outputStream);
+        output.writeInt(MAGIC);
+        output.writeShort(VERSION);
+        output.writeInt(encodedStrings.size());
+        for (byte[] bytes : encodedStrings)
+        {
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+
+        // Write index
+        output.writeInt(configs.size());
+        for (Map.Entry<String, AppConfigStorageItem> entry : configs.entrySet())
+        {
+            output.writeInt(stringIndices.get(entry.getKey()));
+            output.writeInt(offset);
+            offset += 4;
+            for (String key : entry.getValue().valueList())
+            {
+                Object value = entry.getValue().get(key);
+                offset += 4 + 1 + (value instanceof Boolean ? 1 : value instanceof String ? 4 : 8);
+            }
+        }
+
+        // Write configurations
+        for (AppConfigStorageItem item : configs.values())
+        {
+            ArrayList<String> keys = item.valueList();
+            output.writeInt(keys.size());
+            for (String key : keys)
+            {
+                Object value = item.get(key);
+                output.writeInt(stringIndices.get(key));
+                if (value instanceof Boolean)
+                {
+                    output.writeByte(TYPE_BOOLEAN);
+                    output.writeByte((Boolean)value ? 1 : 0);
+                }
+                else if (value instanceof String)
+                {
+                    output.writeByte(TYPE_STRING);
+                    output.writeInt(stringIndices.get(value));
+                }
+                else
+                {
+                    output.writeByte(TYPE_LONG);
+                    output.writeLong(item.getLong(key));
+                }
+            }
+        }
+        output.flush();
+    }
+
+    private static void addString(ArrayList<String> strings, HashMap<String, Integer> stringIndices, String string)
+    {
+        if (!stringIndices.containsKey(string))
+        {
+            stringIndices.put(string, strings.size());
+            strings.add(string);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.crescentflare.appconfig.manager;
+
+
+/**
+ * Library manager: cancellation token
+ * Passed to background work which can become outdated, like preparing content for a screen
+ * The work checks it regularly and stops early, its result should be dropped when cancelled
+ */
+public class AppConfigCancellationToken
+{
+    // ---
+    // Members
+    // ---
+
+    private volatile boolean cancelled = false;
+
+
+    // ---
+    // Initialization
+    // ---
+
+    public AppConfigCancellationToken()
+    {
+    }
+
+
+    // ---
+    // Cancellation
+    // ---
+
+    public void cancel()
+    {
+        cancelled = true;
+    }
+
+    public boolean isCancelled()
+    {
+        return cancelled;
+    }
+}
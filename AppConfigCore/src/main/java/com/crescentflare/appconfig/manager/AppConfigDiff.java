@@ -0,0 +1,132 @@
+package com.crescentflare.appconfig.manager;
+
+
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Library manager: configuration difference
+ * Contains the changed values of the effective configuration (the selected configuration with the global values applied)
+ * The name of the selected configuration is included as the "name" value, removed values have null as their new value
+ */
+public class AppConfigDiff
+{
+    // ---
+    // Members
+    // ---
+
+    private final LinkedHashMap<String, Object> oldValues = new LinkedHashMap<>();
+    private final LinkedHashMap<String, Object> newValues = new LinkedHashMap<>();
+
+
+    // ---
+    // Initialization
+    // ---
+
+    private AppConfigDiff()
+    {
+    }
+
+    public static AppConfigDiff between(AppConfigState oldState, AppConfigState newState)
+    {
+        AppConfigDiff diff = new AppConfigDiff();
+        if (oldState == newState)
+        {
+            return diff;
+        }
+        LinkedHashMap<String, Object> oldEffectiveValues = effectiveValues(oldState);
+        LinkedHashMap<String, Object> newEffectiveValues = effectiveValues(newState);
+        for (Map.Entry<String, Object> entry : newEffectiveValues.entrySet())
+        {
+            Object oldValue = oldEffectiveValues.get(entry.getKey());
+            if (!entry.getValue().equals(oldValue))
+            {
+                diff.oldValues.put(entry.getKey(), oldValue);
+                diff.newValues.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<String, Object> entry : oldEffectiveValues.entrySet())
+        {
+            if (!newEffectiveValues.containsKey(entry.getKey()))
+            {
+                diff.oldValues.put(entry.getKey(), entry.getValue());
+                diff.newValues.put(entry.getKey(), null);
+            }
+        }
+        return diff;
+    }
+
+
+    // ---
+    // Obtain changes
+    // ---
+
+    public boolean isEmpty()
+    {
+        return newValues.isEmpty();
+    }
+
+    public Set<String> getChangedKeys()
+    {
+        return Collections.unmodifiableSet(newValues.keySet());
+    }
+
+    public boolean hasChanged(String key)
+    {
+        return newValues.containsKey(key);
+    }
+
+    public boolean hasChangedAny(Collection<String> keys)
+    {
+        for (String key : keys)
+        {
+            if (newValues.containsKey(key))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Object getOldValue(String key)
+    {
+        return oldValues.get(key);
+    }
+
+    public Object getNewValue(String key)
+    {
+        return newValues.get(key);
+    }
+
+
+    // ---
+    // Helpers
+    // ---
+
+    private static LinkedHashMap<String, Object> effectiveValues(AppConfigState state)
+    {
+        // Global values are applied after the selected configuration, like the model does
+        LinkedHashMap<String, Object> values = new LinkedHashMap<>();
+        values.put("name", state.getSelectedConfigName());
+        for (AppConfigStorageItem item : new AppConfigStorageItem[] { state.getSelectedConfig(), state.getGlobalConfig() })
+        {
+            if (item != null)
+            {
+                for (String key : item.valueList())
+                {
+                    Object value = item.get(key);
+                    if (value != null)
+                    {
+                        values.put(key, value);
+                    }
+                }
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,72 @@
+package com.crescentflare.appconfig.manager;
+
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Library manager: executors
+ * Provides the shared background executor for loading configurations, which can be replaced by the platform or the app
+ * Tasks run in order on a single (daemon) thread by default
+ */
+public class AppConfigExecutors
+{
+    // ---
+    // Members
+    // ---
+
+    public static final Executor DIRECT = new Executor()
+    {
+        @Override
+        public void execute(Runnable runnable)
+        {
+            runnable.run();
+        }
+    };
+    private static Executor backgroundExecutor = null;
+
+
+    // ---
+    // Initialization
+    // ---
+
+    private AppConfigExecutors()
+    {
+    }
+
+
+    // ---
+    // Background executor
+    // ---
+
+    public static synchronized Executor getBackgroundExecutor()
+    {
+        if (backgroundExecutor == null)
+        {
+            backgroundExecutor = createBackgroundExecutor();
+        }
+        return backgroundExecutor;
+    }
+
+    public static synchronized void setBackgroundExecutor(Executor executor)
+    {
+        // Loading depends on tasks running in order, a replacement should also use a single thread (or run them directly)
+        backgroundExecutor = executor;
+    }
+
+    private static ExecutorService createBackgroundExecutor()
+    {
+        return Executors.newSingleThreadExecutor(new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "AppConfigLoader");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+}
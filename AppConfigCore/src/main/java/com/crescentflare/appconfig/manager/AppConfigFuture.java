@@ -0,0 +1,156 @@
+package com.crescentflare.appconfig.manager;
+
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Library manager: future for background operations
+ * Completed when the operation has finished, it can be shared by several callers
+ * Listeners are called on the given executor after completion (directly if it's already completed)
+ */
+public class AppConfigFuture<T> implements Future<T>
+{
+    // ---
+    // Members
+    // ---
+
+    private final CountDownLatch latch = new CountDownLatch(1);
+    private ArrayList<Listener> listeners = new ArrayList<>();
+    private T result = null;
+    private Throwable error = null;
+
+
+    // ---
+    // Initialization
+    // ---
+
+    public AppConfigFuture()
+    {
+    }
+
+
+    // ---
+    // Future implementation, the operation is shared and can't be cancelled
+    // ---
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning)
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isCancelled()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isDone()
+    {
+        return latch.getCount() == 0;
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException
+    {
+        latch.await();
+        return getResult();
+    }
+
+    @Override
+    public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException
+    {
+        if (!latch.await(timeout, unit))
+        {
+            throw new TimeoutException();
+        }
+        return getResult();
+    }
+
+    private synchronized T getResult() throws ExecutionException
+    {
+        if (error != null)
+        {
+            throw new ExecutionException(error);
+        }
+        return result;
+    }
+
+
+    // ---
+    // Listeners
+    // ---
+
+    public void addListener(Runnable runnable, Executor executor)
+    {
+        synchronized (this)
+        {
+            if (listeners != null)
+            {
+                listeners.add(new Listener(runnable, executor));
+                return;
+            }
+        }
+        executor.execute(runnable);
+    }
+
+
+    // ---
+    // Completion
+    // ---
+
+    public void complete(T result)
+    {
+        finish(result, null);
+    }
+
+    public void fail(Throwable error)
+    {
+        finish(null, error);
+    }
+
+    private void finish(T result, Throwable error)
+    {
+        ArrayList<Listener> completedListeners;
+        synchronized (this)
+        {
+            if (listeners == null)
+            {
+                return;
+            }
+            this.result = result;
+            this.error = error;
+            completedListeners = listeners;
+            listeners = null;
+        }
+        latch.countDown();
+        for (Listener listener : completedListeners)
+        {
+            listener.executor.execute(listener.runnable);
+        }
+    }
+
+
+    // ---
+    // Listener with the executor to call it on
+    // ---
+
+    private static class Listener
+    {
+        final Runnable runnable;
+        final Executor executor;
+
+        Listener(Runnable runnable, Executor executor)
+        {
+            this.runnable = runnable;
+            this.executor = executor;
+        }
+    }
+}
@@ -0,0 +1,672 @@
+package com.crescentflare.appconfig.manager;
+
+
+import com.crescentflare.appconfig.model.AppConfigLayeredStorageItem;
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Library manager: streaming configuration loader
+ * Reads a JSON array of configurations (including their subConfigs) in a single pass, without keeping the text or a document tree
+ * Follows the same (lenient) parsing rules as the org.json implementation of Android, so the result is the same
+ */
+public class AppConfigJsonLoader
+{
+    // ---
+    // Constants
+    // ---
+
+    private static final Object NULL = new Object();
+    private static final Object NESTED = new Object();
+    private static final String LITERAL_DELIMITERS = "{}[]/\\:,=;# \t\f";
+
+
+    // ---
+    // Members
+    // ---
+
+    private final Reader reader;
+    private final AppConfigStorageItem defaultItem;
+    private final char[] buffer = new char[8192];
+    private final String lineSeparator = System.getProperty("line.separator", "\n");
+    private int bufferPos = 0;
+    private int bufferLength = 0;
+    private int pushedBack = -2;
+    private int pendingSeparatorPos = -1;
+    private final StringBuilder stringBuilder = new StringBuilder();
+    private final LinkedHashMap<String, AppConfigStorageItem> loadedConfigs = new LinkedHashMap<>();
+    private final ArrayList<Node> treeNodes = new ArrayList<>();
+
+
+    // ---
+    // Initialization
+    // ---
+
+    private AppConfigJsonLoader(Reader reader, AppConfigStorageItem defaultItem)
+    {
+        this.reader = reader;
+        this.defaultItem = defaultItem;
+    }
+
+
+    // ---
+    // Loading
+    // ---
+
+    public static LinkedHashMap<String, AppConfigStorageItem> load(Reader reader, AppConfigStorageItem defaultItem)
+    {
+        AppConfigJsonLoader loader = new AppConfigJsonLoader(reader, defaultItem);
+        try
+        {
+            int c = loader.nextClean();
+            if (c != '[')
+            {
+                // Like the document parser: anything other than an array is not valid
+                if (c != -1)
+                {
+                    loader.unread(c);
+                    loader.readValue();
+                }
+                throw new SyntaxException("Value is not an array");
+            }
+            loader.readConfigArray(null);
+            return loader.loadedConfigs;
+        }
+        catch (SyntaxException ignored)
+        {
+        }
+        catch (IOException ignored)
+        {
+        }
+        return new LinkedHashMap<>();
+    }
+
+
+    // ---
+    // Configuration structure
+    // ---
+
+    private void readConfigArray(Node parent) throws IOException, SyntaxException
+    {
+        while (true)
+        {
+            // Handle empty elements and the end of the array
+            int c = nextClean();
+            switch (c)
+            {
+                case -1:
+                    throw new SyntaxException("Unterminated array");
+                case ']':
+                    return;
+                case ',':
+                case ';':
+                    continue;
+                default:
+                    break;
+            }
+
+            // Read the element, only objects are configurations
+            if (c == '{')
+            {
+                // Values of the parent are shared instead of copied, this also includes values which are read after the sub configurations
+                Node node = new Node(parent != null ? parent.item : defaultItem);
+                treeNodes.add(node);
+                readConfigObject(node);
+                if (parent != null)
+                {
+                    parent.children.add(node);
+                }
+                else
+                {
+                    flushTree();
+                }
+            }
+            else
+            {
+                unread(c);
+                readValue();
+            }
+
+            // Continue or end
+            switch (nextClean())
+            {
+                case ']':
+                    return;
+                case ',':
+                case ';':
+                    continue;
+                default:
+                    throw new SyntaxException("Unterminated array");
+            }
+        }
+    }
+
+    private void readConfigObject(Node node) throws IOException, SyntaxException
+    {
+        // Read key and value pairs
+        int first = nextClean();
+        if (first == '}')
+        {
+            return;
+        }
+        else if (first != -1)
+        {
+            unread(first);
+        }
+        while (true)
+        {
+            String key = readName();
+            if (key.equals("subConfigs"))
+            {
+                discardChildren(node);
+                int c = nextClean();
+                if (c == '[')
+                {
+                    readConfigArray(node);
+                }
+                else
+                {
+                    unread(c);
+                    checkDouble(readValue());
+                }
+            }
+            else
+            {
+                Object value = readValue();
+                checkDouble(value);
+                if (key.equals("name"))
+                {
+                    node.name = nameString(value);
+                }
+                else
+                {
+                    applyValue(node, key, value);
+                }
+            }
+            switch (nextClean())
+            {
+                case '}':
+                    return;
+                case ';':
+                case ',':
+                    continue;
+                default:
+                    throw new SyntaxException("Unterminated object");
+            }
+        }
+    }
+
+    private void applyValue(Node node, String key, Object value)
+    {
+        // Supported values override the inherited value, others (like nulls or nested objects) keep it
+        if (value instanceof Boolean || value instanceof Integer || value instanceof Long || value instanceof String)
+        {
+            node.item.put(key, value);
+        }
+        else
+        {
+            node.item.removeOverride(key);
+        }
+    }
+
+    private void discardChildren(Node node)
+    {
+        for (Node child : node.children)
+        {
+            child.discarded = true;
+            discardChildren(child);
+        }
+        node.children.clear();
+    }
+
+    private void flushTree()
+    {
+        for (Node node : treeNodes)
+        {
+            if (!node.discarded && node.name != null)
+            {
+                loadedConfigs.put(node.name, node.item);
+            }
+        }
+        treeNodes.clear();
+    }
+
+    private String nameString(Object value)
+    {
+        if (value == NULL)
+        {
+            return "null";
+        }
+        else if (value == NESTED)
+        {
+            return null;
+        }
+        return String.valueOf(value);
+    }
+
+
+    // ---
+    // Generic values
+    // ---
+
+    private Object readValue() throws IOException, SyntaxException
+    {
+        int c = nextClean();
+        switch (c)
+        {
+            case -1:
+                throw new SyntaxException("End of input");
+            case '{':
+                skipObject();
+                return NESTED;
+            case '[':
+                skipArray();
+                return NESTED;
+            case '\'':
+            case '"':
+                return readString((char)c);
+            default:
+                unread(c);
+                return readLiteral();
+        }
+    }
+
+    private String readName() throws IOException, SyntaxException
+    {
+        Object name = readValue();
+        if (!(name instanceof String))
+        {
+            throw new SyntaxException("Names must be strings");
+        }
+        int separator = nextClean();
+        if (separator != ':' && separator != '=')
+        {
+            throw new SyntaxException("Expected ':' after " + name);
+        }
+        int c = read();
+        if (c != '>')
+        {
+            unread(c);
+        }
+        return (String)name;
+    }
+
+    private void skipObject() throws IOException, SyntaxException
+    {
+        int first = nextClean();
+        if (first == '}')
+        {
+            return;
+        }
+        else if (first != -1)
+        {
+            unread(first);
+        }
+        while (true)
+        {
+            readName();
+            checkDouble(readValue());
+            switch (nextClean())
+            {
+                case '}':
+                    return;
+                case ';':
+                case ',':
+                    continue;
+                default:
+                    throw new SyntaxException("Unterminated object");
+            }
+        }
+    }
+
+    private void skipArray() throws IOException, SyntaxException
+    {
+        while (true)
+        {
+            int c = nextClean();
+            switch (c)
+            {
+                case -1:
+                    throw new SyntaxException("Unterminated array");
+                case ']':
+                    return;
+                case ',':
+                case ';':
+                    continue;
+                default:
+                    unread(c);
+            }
+            readValue();
+            switch (nextClean())
+            {
+                case ']':
+                    return;
+                case ',':
+                case ';':
+                    continue;
+                default:
+                    throw new SyntaxException("Unterminated array");
+            }
+        }
+    }
+
+    private void checkDouble(Object value) throws SyntaxException
+    {
+        if (value instanceof Double && (((Double)value).isNaN() || ((Double)value).isInfinite()))
+        {
+            throw new SyntaxException("Forbidden numeric value: " + value);
+        }
+    }
+
+
+    // ---
+    // Tokens
+    // ---
+
+    private String readString(char quote) throws IOException, SyntaxException
+    {
+        stringBuilder.setLength(0);
+        while (true)
+        {
+            int c = read();
+            if (c == -1)
+            {
+                throw new SyntaxException("Unterminated string");
+            }
+            else if (c == quote)
+            {
+                return stringBuilder.toString();
+            }
+            else if (c == '\\')
+            {
+                stringBuilder.append(readEscapeCharacter());
+            }
+            else
+            {
+                stringBuilder.append((char)c);
+            }
+        }
+    }
+
+    private char readEscapeCharacter() throws IOException, SyntaxException
+    {
+        int escaped = read();
+        switch (escaped)
+        {
+            case -1:
+                throw new SyntaxException("Unterminated escape sequence");
+            case 'u':
+                char[] hex = new char[4];
+                for (int i = 0; i < hex.length; i++)
+                {
+                    int c = read();
+                    if (c == -1)
+                    {
+                        throw new SyntaxException("Unterminated escape sequence");
+                    }
+                    hex[i] = (char)c;
+                }
+                try
+                {
+                    return (char)Integer.parseInt(new String(hex), 16);
+                }
+                catch (NumberFormatException ignored)
+                {
+                    throw new SyntaxException("Invalid escape sequence: " + new String(hex));
+                }
+            case 't':
+                return '\t';
+            case 'b':
+                return '\b';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            default:
+                return (char)escaped;
+        }
+    }
+
+    private Object readLiteral() throws IOException, SyntaxException
+    {
+        // Read until a delimiter
+        stringBuilder.setLength(0);
+        while (true)
+        {
+            int c = read();
+            if (c == -1)
+            {
+                break;
+            }
+            if (c == '\r' || c == '\n' || LITERAL_DELIMITERS.indexOf(c) >= 0)
+            {
+                unread(c);
+                break;
+            }
+            stringBuilder.append((char)c);
+        }
+        String literal = stringBuilder.toString();
+
+        // Check for constants
+        if (literal.length() == 0)
+        {
+            throw new SyntaxException("Expected literal value");
+        }
+        else if ("null".equalsIgnoreCase(literal))
+        {
+            return NULL;
+        }
+        else if ("true".equalsIgnoreCase(literal))
+        {
+            return Boolean.TRUE;
+        }
+        else if ("false".equalsIgnoreCase(literal))
+        {
+            return Boolean.FALSE;
+        }
+
+        // Try to parse as an integral type (with support for hexadecimal and octal numbers)
+        if (literal.indexOf('.') == -1)
+        {
+            int base = 10;
+            String number = literal;
+            if (number.startsWith("0x") || number.startsWith("0X"))
+            {
+                number = number.substring(2);
+                base = 16;
+            }
+            else if (number.startsWith("0") && number.length() > 1)
+            {
+                number = number.substring(1);
+                base = 8;
+            }
+            try
+            {
+                long longValue = Long.parseLong(number, base);
+                if (longValue <= Integer.MAX_VALUE && longValue >= Integer.MIN_VALUE)
+                {
+                    return (int)longValue;
+                }
+                return longValue;
+            }
+            catch (NumberFormatException ignored)
+            {
+            }
+        }
+
+        // Then as a floating point, otherwise it's an unquoted string
+        try
+        {
+            return Double.valueOf(literal);
+        }
+        catch (NumberFormatException ignored)
+        {
+        }
+        return literal;
+    }
+
+    private int nextClean() throws IOException, SyntaxException
+    {
+        while (true)
+        {
+            int c = read();
+            switch (c)
+            {
+                case '\t':
+                case ' ':
+                case '\n':
+                case '\r':
+                    continue;
+                case '/':
+                    int peek = read();
+                    if (peek == '*')
+                    {
+                        skipBlockComment();
+                        continue;
+                    }
+                    else if (peek == '/')
+                    {
+                        skipToEndOfLine();
+                        continue;
+                    }
+                    unread(peek);
+                    return c;
+                case '#':
+                    skipToEndOfLine();
+                    continue;
+                default:
+                    return c;
+            }
+        }
+    }
+
+    private void skipBlockComment() throws IOException, SyntaxException
+    {
+        int previous = -1;
+        while (true)
+        {
+            int c = read();
+            if (c == -1)
+            {
+                throw new SyntaxException("Unterminated comment");
+            }
+            if (previous == '*' && c == '/')
+            {
+                return;
+            }
+            previous = c;
+        }
+    }
+
+    private void skipToEndOfLine() throws IOException
+    {
+        while (true)
+        {
+            int c = read();
+            if (c == -1 || c == '\r' || c == '\n')
+            {
+                return;
+            }
+        }
+    }
+
+
+    // ---
+    // Character input
+    // ---
+
+    private int read() throws IOException
+    {
+        // Return a character which was put back first
+        if (pushedBack != -2)
+        {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+
+        // Line breaks are normalized to the system line separator (as when reading the text line by line)
+        if (pendingSeparatorPos >= 0)
+        {
+            char c = lineSeparator.charAt(pendingSeparatorPos++);
+            if (pendingSeparatorPos >= lineSeparator.length())
+            {
+                pendingSeparatorPos = -1;
+            }
+            return c;
+        }
+        int c = readRaw();
+        if (c == '\r' || c == '\n')
+        {
+            if (c == '\r')
+            {
+                int next = readRaw();
+                if (next != '\n' && next != -1)
+                {
+                    bufferPos--;
+                }
+            }
+            if (lineSeparator.length() > 1)
+            {
+                pendingSeparatorPos = 1;
+            }
+            return lineSeparator.charAt(0);
+        }
+        return c;
+    }
+
+    private int readRaw() throws IOException
+    {
+        if (bufferPos >= bufferLength)
+        {
+            bufferLength = reader.read(buffer, 0, buffer.length);
+            bufferPos = 0;
+            if (bufferLength <= 0)
+            {
+                bufferLength = 0;
+                return -1;
+            }
+        }
+        return buffer[bufferPos++];
+    }
+
+    private void unread(int c)
+    {
+        pushedBack = c;
+    }
+
+
+    // ---
+    // Helper objects
+    // ---
+
+    private static class Node
+    {
+        final AppConfigLayeredStorageItem item;
+        final List<Node> children = new ArrayList<>();
+        String name = null;
+        boolean discarded = false;
+
+        Node(AppConfigStorageItem parentItem)
+        {
+            item = new AppConfigLayeredStorageItem(parentItem);
+        }
+    }
+
+    private static class SyntaxException extends Exception
+    {
+        private static final long serialVersionUID = 1L;
+
+        SyntaxException(String message)
+        {
+            super(message);
+        }
+    }
+}
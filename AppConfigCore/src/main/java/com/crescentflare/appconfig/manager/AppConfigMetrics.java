@@ -0,0 +1,302 @@
+package com.crescentflare.appconfig.manager;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Library manager: metrics
+ * Counts configuration operations and keeps a latency histogram for each of them, recordings can also be passed to a sink
+ * Disabled by default, timing an operation then only checks a volatile flag
+ */
+public class AppConfigMetrics
+{
+    // ---
+    // Constants
+    // ---
+
+    public static final String INIT = "init";
+    public static final String LOAD_SOURCE_READ = "loadFromSource.read";
+    public static final String LOAD_SOURCE_PARSE = "loadFromSource.parse";
+    public static final String LOAD_SOURCE_MERGE = "loadFromSource.merge";
+    public static final String APPLY_CURRENT_CONFIG = "applyCurrentConfig";
+    public static final String PREFERENCES_LOAD = "preferences.load";
+    public static final String PREFERENCES_STORE = "preferences.store";
+    public static final String CHANGED_CONFIG_LISTENER = "onChangedConfig";
+    public static final String CHANGED_CONFIG_VALUES_LISTENER = "onChangedConfigValues";
+    public static final long NOT_STARTED = Long.MIN_VALUE;
+    private static final int BUCKET_COUNT = 40;
+
+
+    // ---
+    // Members
+    // ---
+
+    private static final ConcurrentHashMap<String, Metric> metrics = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = false;
+    private static volatile Sink sink = null;
+
+
+    // ---
+    // Initialization
+    // ---
+
+    private AppConfigMetrics()
+    {
+    }
+
+
+    // ---
+    // Configuration
+    // ---
+
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled)
+    {
+        AppConfigMetrics.enabled = enabled;
+    }
+
+    public static Sink getSink()
+    {
+        return sink;
+    }
+
+    public static void setSink(Sink sink)
+    {
+        // The sink is called on the thread of the operation, it should return quickly
+        AppConfigMetrics.sink = sink;
+    }
+
+
+    // ---
+    // Recording
+    // ---
+
+    public static long start()
+    {
+        return enabled ? System.nanoTime() : NOT_STARTED;
+    }
+
+    public static void stop(String name, long startTime)
+    {
+        if (startTime != NOT_STARTED)
+        {
+            record(name, System.nanoTime() - startTime);
+        }
+    }
+
+    public static void stop(String name, Object subject, long startTime)
+    {
+        // Recorded separately for each class of the subject (like a listener), the name is only created when recording
+        if (startTime != NOT_STARTED)
+        {
+            record(name + ":" + subject.getClass().getName(), System.nanoTime() - startTime);
+        }
+    }
+
+    public static void record(String name, long durationNanos)
+    {
+        if (!enabled)
+        {
+            return;
+        }
+        Metric metric = metrics.get(name);
+        if (metric == null)
+        {
+            Metric newMetric = new Metric();
+            metric = metrics.putIfAbsent(name, newMetric);
+            if (metric == null)
+            {
+                metric = newMetric;
+            }
+        }
+        metric.record(Math.max(0, durationNanos));
+        Sink currentSink = sink;
+        if (currentSink != null)
+        {
+            currentSink.onRecord(name, durationNanos);
+        }
+    }
+
+    public static void reset()
+    {
+        metrics.clear();
+    }
+
+
+    // ---
+    // Snapshot
+    // ---
+
+    public static Snapshot snapshot()
+    {
+        TreeMap<String, Entry> entries = new TreeMap<>();
+        for (Map.Entry<String, Metric> metric : metrics.entrySet())
+        {
+            entries.put(metric.getKey(), metric.getValue().toEntry(metric.getKey()));
+        }
+        return new Snapshot(entries);
+    }
+
+
+    // ---
+    // Sink to pass recordings to (for example) a logging or analytics system
+    // ---
+
+    public interface Sink
+    {
+        void onRecord(String name, long durationNanos);
+    }
+
+
+    // ---
+    // Recorded values of all metrics at a moment in time, sorted by name
+    // ---
+
+    public static class Snapshot
+    {
+        private final TreeMap<String, Entry> entries;
+
+        private Snapshot(TreeMap<String, Entry> entries)
+        {
+            this.entries = entries;
+        }
+
+        public boolean isEmpty()
+        {
+            return entries.isEmpty();
+        }
+
+        public List<Entry> getEntries()
+        {
+            return Collections.unmodifiableList(new ArrayList<>(entries.values()));
+        }
+
+        public Entry getEntry(String name)
+        {
+            return entries.get(name);
+        }
+
+        public long getCount(String name)
+        {
+            Entry entry = entries.get(name);
+            return entry != null ? entry.getCount() : 0;
+        }
+    }
+
+    public static class Entry
+    {
+        private final String name;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long[] buckets;
+
+        private Entry(String name, long count, long totalNanos, long maxNanos, long[] buckets)
+        {
+            this.name = name;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.buckets = buckets;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public long getCount()
+        {
+            return count;
+        }
+
+        public long getTotalNanos()
+        {
+            return totalNanos;
+        }
+
+        public long getMaxNanos()
+        {
+            return maxNanos;
+        }
+
+        public long getAverageNanos()
+        {
+            return count > 0 ? totalNanos / count : 0;
+        }
+
+        public long getPercentileNanos(double percentile)
+        {
+            // Estimated from the histogram (buckets double in size), returns the upper bound of the bucket limited by the maximum
+            long threshold = (long)Math.ceil(count * percentile / 100);
+            long cumulative = 0;
+            for (int i = 0; i < buckets.length; i++)
+            {
+                cumulative += buckets[i];
+                if (cumulative >= threshold && cumulative > 0)
+                {
+                    return Math.min(maxNanos, i > 0 ? (1L << i) - 1 : 0);
+                }
+            }
+            return maxNanos;
+        }
+
+        public String getSummary()
+        {
+            return String.format(Locale.US, "%dx, avg %.2f ms, p95 %.2f ms, max %.2f ms", count, getAverageNanos() / 1000000.0, getPercentileNanos(95) / 1000000.0, maxNanos / 1000000.0);
+        }
+
+        @Override
+        public String toString()
+        {
+            return name + ": " + getSummary();
+        }
+    }
+
+
+    // ---
+    // Metric storage, bucket i holds durations below 2^i nanoseconds (the last one everything above)
+    // ---
+
+    private static class Metric
+    {
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong totalNanos = new AtomicLong();
+        final AtomicLong maxNanos = new AtomicLong();
+        final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+        void record(long durationNanos)
+        {
+            count.incrementAndGet();
+            totalNanos.addAndGet(durationNanos);
+            buckets.incrementAndGet(Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(durationNanos)));
+            long max = maxNanos.get();
+            while (durationNanos > max && !maxNanos.compareAndSet(max, durationNanos))
+            {
+                max = maxNanos.get();
+            }
+        }
+
+        Entry toEntry(String name)
+        {
+            long[] bucketValues = new long[BUCKET_COUNT];
+            for (int i = 0; i < BUCKET_COUNT; i++)
+            {
+                bucketValues[i] = buckets.get(i);
+            }
+            return new Entry(name, count.get(), totalNanos.get(), maxNanos.get(), bucketValues);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.crescentflare.appconfig.manager;
+
+
+import com.crescentflare.appconfig.model.AppConfigModelDescriptor;
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Library manager: search index
+ * An immutable index of the words in configuration names, setting keys, categories and string values
+ * Either for the configuration list (with global settings) or for the settings of a single configuration
+ * Words are kept sorted, so searching for typed text is a binary search for each word instead of a scan of all items
+ */
+public class AppConfigSearchIndex
+{
+    // ---
+    // Constants
+    // ---
+
+    public static final String GROUP_CONFIGS = "configs";
+    public static final String GROUP_GLOBAL_SETTINGS = "globalSettings";
+    private static final String GROUP_SETTINGS_PREFIX = "settings:";
+
+
+    // ---
+    // Members
+    // ---
+
+    private final String[] documentGroups;
+    private final String[] documentKeys;
+    private final String[] words;
+    private final int[] wordDocuments;
+
+
+    // ---
+    // Initialization
+    // ---
+
+    private AppConfigSearchIndex(String[] documentGroups, String[] documentKeys, String[] words, int[] wordDocuments)
+    {
+        this.documentGroups = documentGroups;
+        this.documentKeys = documentKeys;
+        this.words = words;
+        this.wordDocuments = wordDocuments;
+    }
+
+    public static AppConfigSearchIndex forState(AppConfigState state, AppConfigModelDescriptor descriptor)
+    {
+        // Index for the configuration list: configurations by name and string values, global settings by key, category and string value
+        // Configurations which aren't loaded yet are only found by name, they're not loaded for the index
+        Builder builder = new Builder();
+        LinkedHashSet<String> configNames = new LinkedHashSet<>(state.configList());
+        configNames.addAll(state.customConfigList());
+        HashMap<String, AppConfigStorageItem> loadedConfigs = state.loadedConfigs();
+        for (String configName : configNames)
+        {
+            ArrayList<String> texts = new ArrayList<>();
+            texts.add(configName);
+            AppConfigStorageItem item = loadedConfigs.get(configName);
+            if (item != null)
+            {
+                for (String key : item.valueList())
+                {
+                    Object value = item.get(key);
+                    if (value instanceof String)
+                    {
+                        texts.add((String)value);
+                    }
+                }
+            }
+            builder.add(GROUP_CONFIGS, configName, texts.toArray(new String[texts.size()]));
+        }
+        HashMap<String, String> categories = new HashMap<>();
+        if (descriptor != null)
+        {
+            addCategories(categories, descriptor.getGlobalCategories(), descriptor, true);
+        }
+        AppConfigStorageItem globalConfig = state.getGlobalConfig();
+        addSettings(builder, GROUP_GLOBAL_SETTINGS, descriptor != null ? descriptor.getGlobalValues() : globalConfig.valueList(), globalConfig, categories);
+        return builder.build();
+    }
+
+    public static AppConfigSearchIndex forConfig(String config, AppConfigStorageItem item, AppConfigModelDescriptor descriptor)
+    {
+        // Index for editing a single configuration, its settings by key, category and string value
+        Builder builder = new Builder();
+        HashMap<String, String> categories = new HashMap<>();
+        if (descriptor != null)
+        {
+            addCategories(categories, descriptor.getConfigurationCategories(), descriptor, false);
+        }
+        addSettings(builder, settingsGroup(config), descriptor != null ? descriptor.getConfigurationValues() : item.valueList(), item, categories);
+        return builder.build();
+    }
+
+    private static void addCategories(HashMap<String, String> categories, List<String> categoryList, AppConfigModelDescriptor descriptor, boolean global)
+    {
+        for (String category : categoryList)
+        {
+            for (String key : global ? descriptor.getGlobalCategoryValues(category) : descriptor.getConfigurationCategoryValues(category))
+            {
+                categories.put(key, category);
+            }
+        }
+    }
+
+    private static void addSettings(Builder builder, String group, List<String> keys, AppConfigStorageItem item, HashMap<String, String> categories)
+    {
+        for (String key : keys)
+        {
+            Object value = item.get(key);
+            builder.add(group, key, key, categories.get(key), value instanceof String ? (String)value : null);
+        }
+    }
+
+
+    // ---
+    // Groups
+    // ---
+
+    public static String settingsGroup(String config)
+    {
+        return GROUP_SETTINGS_PREFIX + config;
+    }
+
+
+    // ---
+    // Searching
+    // ---
+
+    public Set<String> search(String group, String query)
+    {
+        // Returns the matching keys of the group in the order they were added, or null when the query doesn't contain a word
+        List<String> queryWords = splitWords(query, false);
+        if (queryWords.isEmpty())
+        {
+            return null;
+        }
+        BitSet matches = null;
+        for (String queryWord : queryWords)
+        {
+            BitSet wordMatches = findPrefix(queryWord);
+            if (matches == null)
+            {
+                matches = wordMatches;
+            }
+            else
+            {
+                matches.and(wordMatches);
+            }
+        }
+        LinkedHashSet<String> result = new LinkedHashSet<>();
+        for (int document = matches.nextSetBit(0); document >= 0; document = matches.nextSetBit(document + 1))
+        {
+            if (documentGroups[document].equals(group))
+            {
+                result.add(documentKeys[document]);
+            }
+        }
+        return result;
+    }
+
+    private BitSet findPrefix(String prefix)
+    {
+        // Words starting with the prefix are next to each other, starting at the first word which isn't sorted before the prefix
+        BitSet result = new BitSet(documentKeys.length);
+        int index = 0;
+        int end = words.length;
+        while (index < end)
+        {
+            int middle = (index + end) >>> 1;
+            if (words[middle].compareTo(prefix) < 0)
+            {
+                index = middle + 1;
+            }
+            else
+            {
+                end = middle;
+            }
+        }
+        while (index < words.length && words[index].startsWith(prefix))
+        {
+            result.set(wordDocuments[index]);
+            index++;
+        }
+        return result;
+    }
+
+
+    // ---
+    // Word splitting
+    // ---
+
+    private static List<String> splitWords(String text, boolean includeParts)
+    {
+        // Splits on everything except letters and digits, parts of camel cased words (like "url" in "apiUrl") can be included
+        if (text == null || text.isEmpty())
+        {
+            return Collections.emptyList();
+        }
+        ArrayList<String> result = new ArrayList<>();
+        int start = -1;
+        int partStart = -1;
+        for (int i = 0; i <= text.length(); i++)
+        {
+            char chr = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(chr))
+            {
+                if (start < 0)
+                {
+                    start = i;
+                    partStart = i;
+                }
+                else if (includeParts && Character.isUpperCase(chr) && !Character.isUpperCase(text.charAt(i - 1)))
+                {
+                    result.add(text.substring(partStart, i).toLowerCase(Locale.US));
+                    partStart = i;
+                }
+            }
+            else if (start >= 0)
+            {
+                if (partStart > start)
+                {
+                    result.add(text.substring(partStart, i).toLowerCase(Locale.US));
+                }
+                result.add(text.substring(start, i).toLowerCase(Locale.US));
+                start = -1;
+            }
+        }
+        return result;
+    }
+
+
+    // ---
+    // Builder to add documents to, sorts the words when building
+    // ---
+
+    public static class Builder
+    {
+        private final ArrayList<String> documentGroups = new ArrayList<>();
+        private final ArrayList<String> documentKeys = new ArrayList<>();
+        private final ArrayList<WordEntry> wordEntries = new ArrayList<>();
+
+        public Builder add(String group, String key, String... texts)
+        {
+            int document = documentKeys.size();
+            documentGroups.add(group);
+            documentKeys.add(key);
+            LinkedHashSet<String> documentWords = new LinkedHashSet<>();
+            for (String text : texts)
+            {
+                documentWords.addAll(splitWords(text, true));
+            }
+            for (String word : documentWords)
+            {
+                wordEntries.add(new WordEntry(word, document));
+            }
+            return this;
+        }
+
+        public AppConfigSearchIndex build()
+        {
+            Collections.sort(wordEntries);
+            String[] words = new String[wordEntries.size()];
+            int[] wordDocuments = new int[wordEntries.size()];
+            for (int i = 0; i < words.length; i++)
+            {
+                words[i] = wordEntries.get(i).word;
+                wordDocuments[i] = wordEntries.get(i).document;
+            }
+            return new AppConfigSearchIndex(documentGroups.toArray(new String[documentGroups.size()]), documentKeys.toArray(new String[documentKeys.size()]), words, wordDocuments);
+        }
+    }
+
+    private static class WordEntry implements Comparable<WordEntry>
+    {
+        final String word;
+        final int document;
+
+        WordEntry(String word, int document)
+        {
+            this.word = word;
+            this.document = document;
+        }
+
+        @Override
+        public int compareTo(WordEntry other)
+        {
+            int result = word.compareTo(other.word);
+            return result != 0 ? result : (document < other.document ? -1 : (document == other.document ? 0 : 1));
+        }
+    }
+}
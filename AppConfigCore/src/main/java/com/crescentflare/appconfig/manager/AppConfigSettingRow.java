@@ -0,0 +1,191 @@
+package com.crescentflare.appconfig.manager;
+
+
+import com.crescentflare.appconfig.model.AppConfigBaseModel;
+import com.crescentflare.appconfig.model.AppConfigModelDescriptor;
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Library manager: setting row
+ * An immutable description of a setting to show an editor for, with its category, type and current value
+ * Rows are prepared in the background (using reflection on the model), so showing them doesn't need the model
+ */
+public class AppConfigSettingRow
+{
+    // ---
+    // Type of editor
+    // ---
+
+    public enum Type
+    {
+        SWITCH,
+        NUMBER,
+        TEXT,
+        CHOICE
+    }
+
+
+    // ---
+    // Members
+    // ---
+
+    private final String key;
+    private final String category;
+    private final Type type;
+    private final Object value;
+    private final List<String> choices;
+
+
+    // ---
+    // Initialization
+    // ---
+
+    private AppConfigSettingRow(String key, String category, Type type, Object value, List<String> choices)
+    {
+        this.key = key;
+        this.category = category;
+        this.type = type;
+        this.value = value;
+        this.choices = choices;
+    }
+
+    public static AppConfigSettingRow forValue(String key, String category, Object value)
+    {
+        // Values are stored in the same way as a storage item, returns null for values without an editor
+        if (value instanceof Boolean)
+        {
+            return new AppConfigSettingRow(key, category, Type.SWITCH, value, Collections.<String>emptyList());
+        }
+        else if (value instanceof Integer || value instanceof Long)
+        {
+            return new AppConfigSettingRow(key, category, Type.NUMBER, ((Number)value).longValue(), Collections.<String>emptyList());
+        }
+        else if (value instanceof String)
+        {
+            return new AppConfigSettingRow(key, category, Type.TEXT, value, Collections.<String>emptyList());
+        }
+        else if (value instanceof Enum)
+        {
+            ArrayList<String> choices = new ArrayList<>();
+            for (Object constant : ((Enum<?>)value).getDeclaringClass().getEnumConstants())
+            {
+                choices.add(constant.toString());
+            }
+            return new AppConfigSettingRow(key, category, Type.CHOICE, value.toString(), Collections.unmodifiableList(choices));
+        }
+        return null;
+    }
+
+    public static List<AppConfigSettingRow> prepareList(AppConfigBaseModel model, String configName, AppConfigStorageItem item, boolean global, AppConfigCancellationToken token)
+    {
+        // The model (a new instance) gets the settings of the item applied, without a model the item is shown as is
+        // Returns null when cancelled during preparation
+        ArrayList<AppConfigSettingRow> result = new ArrayList<>();
+        if (model == null)
+        {
+            for (String key : item.valueList())
+            {
+                if (token.isCancelled())
+                {
+                    return null;
+                }
+                addRow(result, key, null, item.get(key));
+            }
+            return result;
+        }
+        model.applyCustomSettings(configName, item);
+        AppConfigModelDescriptor descriptor = model.getDescriptor();
+        List<String> categories = global ? descriptor.getGlobalCategories() : descriptor.getConfigurationCategories();
+        if (categories.size() == 0)
+        {
+            categories = Collections.singletonList(null);
+        }
+        for (String category : categories)
+        {
+            List<String> keys;
+            if (category == null)
+            {
+                keys = global ? descriptor.getGlobalValues() : descriptor.getConfigurationValues();
+            }
+            else
+            {
+                keys = global ? descriptor.getGlobalCategoryValues(category) : descriptor.getConfigurationCategoryValues(category);
+            }
+            for (String key : keys)
+            {
+                if (token.isCancelled())
+                {
+                    return null;
+                }
+                addRow(result, key, category, model.getCurrentValue(key));
+            }
+        }
+        return result;
+    }
+
+    public static LinkedHashMap<String, List<AppConfigSettingRow>> groupByCategory(List<AppConfigSettingRow> rows)
+    {
+        // Keeps the order of the rows, rows without categories are grouped under null
+        LinkedHashMap<String, List<AppConfigSettingRow>> result = new LinkedHashMap<>();
+        for (AppConfigSettingRow row : rows)
+        {
+            List<AppConfigSettingRow> categoryRows = result.get(row.category);
+            if (categoryRows == null)
+            {
+                categoryRows = new ArrayList<>();
+                result.put(row.category, categoryRows);
+            }
+            categoryRows.add(row);
+        }
+        return result;
+    }
+
+    private static void addRow(List<AppConfigSettingRow> rows, String key, String category, Object value)
+    {
+        AppConfigSettingRow row = key.equals("name") ? null : forValue(key, category, value);
+        if (row != null)
+        {
+            rows.add(row);
+        }
+    }
+
+
+    // ---
+    // Obtain values
+    // ---
+
+    public String getKey()
+    {
+        return key;
+    }
+
+    public String getCategory()
+    {
+        return category;
+    }
+
+    public Type getType()
+    {
+        return type;
+    }
+
+    public Object getValue()
+    {
+        return value;
+    }
+
+    public String getText()
+    {
+        return value.toString();
+    }
+
+    public List<String> getChoices()
+    {
+        return choices;
+    }
+}
@@ -0,0 +1,95 @@
+package com.crescentflare.appconfig.manager;
+
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Library manager: loaded source cache
+ * Keeps configurations loaded from an asset file, the key includes the file name and the version of the source
+ * Loading the same source again (for example after setting the asset file again) reuses the loaded configurations
+ */
+public class AppConfigSourceCache
+{
+    // ---
+    // Constants
+    // ---
+
+    private static final int MAX_ENTRIES = 4;
+
+
+    // ---
+    // Members
+    // ---
+
+    private final LinkedHashMap<String, AppConfigStoredConfigs> entries = new LinkedHashMap<String, AppConfigStoredConfigs>(MAX_ENTRIES, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, AppConfigStoredConfigs> eldest)
+        {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+
+    // ---
+    // Initialization
+    // ---
+
+    public AppConfigSourceCache()
+    {
+    }
+
+    public static String key(String assetFile, long sourceVersion, int lazyLoadingCacheSize, String modelName)
+    {
+        // Loaded items depend on the defaults of the model and the lazy loading setting
+        return assetFile + ":" + sourceVersion + ":" + lazyLoadingCacheSize + ":" + (modelName != null ? modelName : "");
+    }
+
+
+    // ---
+    // Cached sources, loaded configurations are never changed (the storage copies them on changes)
+    // ---
+
+    public synchronized AppConfigStoredConfigs get(String key)
+    {
+        AppConfigStoredConfigs configs = entries.get(key);
+        if (configs != null)
+        {
+            hitCount.incrementAndGet();
+        }
+        else
+        {
+            missCount.incrementAndGet();
+        }
+        return configs;
+    }
+
+    public synchronized void put(String key, AppConfigStoredConfigs configs)
+    {
+        entries.put(key, configs);
+    }
+
+    public synchronized void clear()
+    {
+        entries.clear();
+    }
+
+
+    // ---
+    // Statistics
+    // ---
+
+    public long getHitCount()
+    {
+        return hitCount.get();
+    }
+
+    public long getMissCount()
+    {
+        return missCount.get();
+    }
+}
@@ -0,0 +1,104 @@
+package com.crescentflare.appconfig.manager;
+
+
+import com.crescentflare.appconfig.model.AppConfigBaseModel;
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+/**
+ * Library manager: configuration source loader
+ * Creates the stored configurations from a configuration source (a binary file or a JSON file), independent of where it's read from
+ * Configurations start with the default values of the model, values of parent configurations are inherited
+ */
+public class AppConfigSourceLoader
+{
+    // ---
+    // Initialization
+    // ---
+
+    private AppConfigSourceLoader()
+    {
+    }
+
+
+    // ---
+    // Default values
+    // ---
+
+    public static AppConfigStorageItem createDefaultItem(AppConfigBaseModel model)
+    {
+        // Returns null if the model doesn't have configuration values
+        if (model == null)
+        {
+            return null;
+        }
+        ArrayList<String> values = model.configurationValueList();
+        if (values.size() == 0)
+        {
+            return null;
+        }
+        AppConfigStorageItem defaultItem = new AppConfigStorageItem();
+        for (String value : values)
+        {
+            if (value.equals("name"))
+            {
+                continue;
+            }
+            Object setting = model.getCurrentValue(value);
+            if (setting instanceof Long)
+            {
+                defaultItem.putLong(value, (Long)setting);
+            }
+            else if (setting instanceof Integer)
+            {
+                defaultItem.putInt(value, (Integer)setting);
+            }
+            else if (setting instanceof Boolean)
+            {
+                defaultItem.putBoolean(value, (Boolean)setting);
+            }
+            else
+            {
+                defaultItem.putString(value, setting.toString());
+            }
+        }
+        return defaultItem;
+    }
+
+
+    // ---
+    // Loading
+    // ---
+
+    public static AppConfigStoredConfigs loadBinary(ByteBuffer buffer, final AppConfigStorageItem defaultItem, int lazyLoadingCacheSize)
+    {
+        // Returns null if the binary file is invalid, configurations are created on demand if a cache size is given
+        final AppConfigBinaryFormat binaryFormat = buffer != null ? AppConfigBinaryFormat.open(buffer) : null;
+        if (binaryFormat == null)
+        {
+            return null;
+        }
+        if (lazyLoadingCacheSize > 0)
+        {
+            return new AppConfigStoredConfigs(binaryFormat.getConfigNames(), new AppConfigStoredConfigs.Loader()
+            {
+                @Override
+                public AppConfigStorageItem loadConfig(int index)
+                {
+                    return binaryFormat.readConfig(index, defaultItem);
+                }
+            }, lazyLoadingCacheSize);
+        }
+        LinkedHashMap<String, AppConfigStorageItem> loadedConfigs = binaryFormat.readAll(defaultItem);
+        return loadedConfigs != null ? new AppConfigStoredConfigs(loadedConfigs) : null;
+    }
+
+    public static AppConfigStoredConfigs loadJson(Reader reader, AppConfigStorageItem defaultItem)
+    {
+        return new AppConfigStoredConfigs(AppConfigJsonLoader.load(reader, defaultItem));
+    }
+}
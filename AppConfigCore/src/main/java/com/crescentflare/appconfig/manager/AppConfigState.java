@@ -0,0 +1,288 @@
+package com.crescentflare.appconfig.manager;
+
+
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+
+/**
+ * Library manager: configuration state
+ * An immutable snapshot of the stored and custom configurations, the selected configuration name and the global configuration
+ * Changes create a new state (copying only the changed part), the items in it should be treated as read-only
+ */
+public class AppConfigState
+{
+    // ---
+    // Members
+    // ---
+
+    private final AppConfigStoredConfigs storedConfigs;
+    private final LinkedHashMap<String, AppConfigStorageItem> customConfigs;
+    private final String selectedConfigName;
+    private final AppConfigStorageItem globalConfig;
+
+
+    // ---
+    // Initialization
+    // ---
+
+    public AppConfigState()
+    {
+        this(new AppConfigStoredConfigs(), new LinkedHashMap<String, AppConfigStorageItem>(), "", new AppConfigStorageItem());
+    }
+
+    private AppConfigState(AppConfigStoredConfigs storedConfigs, LinkedHashMap<String, AppConfigStorageItem> customConfigs, String selectedConfigName, AppConfigStorageItem globalConfig)
+    {
+        this.storedConfigs = storedConfigs;
+        this.customConfigs = customConfigs;
+        this.selectedConfigName = selectedConfigName;
+        this.globalConfig = globalConfig;
+    }
+
+
+    // ---
+    // Obtain configurations
+    // ---
+
+    public AppConfigStorageItem getConfig(String config)
+    {
+        AppConfigStorageItem item = customConfigs.get(config);
+        if (item != null)
+        {
+            return item;
+        }
+        return storedConfigs.get(config);
+    }
+
+    public AppConfigStorageItem getConfigNotNull(String config)
+    {
+        AppConfigStorageItem item = getConfig(config);
+        if (item == null)
+        {
+            item = new AppConfigStorageItem();
+        }
+        return item;
+    }
+
+    public HashMap<String, AppConfigStorageItem> loadedConfigs()
+    {
+        // Configurations which are available without loading them, custom configurations override stored ones
+        HashMap<String, AppConfigStorageItem> result = storedConfigs.loadedItems();
+        result.putAll(customConfigs);
+        return result;
+    }
+
+    public AppConfigStorageItem getSelectedConfig()
+    {
+        return getConfig(selectedConfigName);
+    }
+
+    public AppConfigStorageItem getSelectedConfigNotNull()
+    {
+        return getConfigNotNull(selectedConfigName);
+    }
+
+    public String getSelectedConfigName()
+    {
+        return selectedConfigName;
+    }
+
+    public AppConfigStorageItem getGlobalConfig()
+    {
+        return globalConfig;
+    }
+
+    public ArrayList<String> configList()
+    {
+        return storedConfigs.nameList();
+    }
+
+    public ArrayList<String> customConfigList()
+    {
+        return new ArrayList<>(customConfigs.keySet());
+    }
+
+    public boolean containsConfig(String config)
+    {
+        return customConfigs.containsKey(config) || storedConfigs.contains(config);
+    }
+
+    public boolean hasCustomConfig(String config)
+    {
+        return customConfigs.containsKey(config);
+    }
+
+    public boolean isCustomConfig(String config)
+    {
+        return customConfigs.containsKey(config) && !storedConfigs.contains(config);
+    }
+
+    public boolean isConfigOverride(String config)
+    {
+        return customConfigs.containsKey(config) && storedConfigs.contains(config);
+    }
+
+
+    // ---
+    // Create changed states
+    // ---
+
+    public AppConfigStorageItem getCustomConfig(String config)
+    {
+        return customConfigs.get(config);
+    }
+
+    public AppConfigStoredConfigs copyStoredConfigs()
+    {
+        return storedConfigs.copy();
+    }
+
+    public LinkedHashMap<String, AppConfigStorageItem> copyCustomConfigs()
+    {
+        return new LinkedHashMap<>(customConfigs);
+    }
+
+    public AppConfigState withStoredConfigs(AppConfigStoredConfigs storedConfigs)
+    {
+        return new AppConfigState(storedConfigs, customConfigs, selectedConfigName, globalConfig);
+    }
+
+    public AppConfigState withCustomConfigs(LinkedHashMap<String, AppConfigStorageItem> customConfigs)
+    {
+        return new AppConfigState(storedConfigs, customConfigs, selectedConfigName, globalConfig);
+    }
+
+    public AppConfigState withSelectedConfigName(String selectedConfigName)
+    {
+        return new AppConfigState(storedConfigs, customConfigs, selectedConfigName, globalConfig);
+    }
+
+    public AppConfigState withGlobalConfig(AppConfigStorageItem globalConfig)
+    {
+        return new AppConfigState(storedConfigs, customConfigs, selectedConfigName, globalConfig);
+    }
+
+    public AppConfigState withPinnedSelection()
+    {
+        // Pins the selected configuration on a copy of the stored configurations, so it's never evicted from their cache
+        if (storedConfigs.isPinned(selectedConfigName))
+        {
+            return this;
+        }
+        AppConfigStoredConfigs pinnedConfigs = storedConfigs.copy();
+        pinnedConfigs.pin(selectedConfigName);
+        return withStoredConfigs(pinnedConfigs);
+    }
+
+    public AppConfigState withConfig(String config, AppConfigStorageItem item)
+    {
+        // Replaces an existing configuration at the same position, the custom one if it's overridden
+        if (customConfigs.containsKey(config))
+        {
+            LinkedHashMap<String, AppConfigStorageItem> changedConfigs = copyCustomConfigs();
+            changedConfigs.put(config, item);
+            return withCustomConfigs(changedConfigs);
+        }
+        else if (storedConfigs.contains(config))
+        {
+            AppConfigStoredConfigs changedConfigs = copyStoredConfigs();
+            changedConfigs.replace(config, item);
+            return withStoredConfigs(changedConfigs);
+        }
+        return this;
+    }
+
+    public AppConfigState withCustomConfig(String config, AppConfigStorageItem item)
+    {
+        // Replaces the custom configuration, it's not added when it's the same as the stored one
+        AppConfigState state = customConfigs.containsKey(config) ? withoutConfig(config) : this;
+        AppConfigStorageItem storedItem = state.getConfig(config);
+        if (item != null && (storedItem == null || !storedItem.equals(item)))
+        {
+            LinkedHashMap<String, AppConfigStorageItem> changedConfigs = state.copyCustomConfigs();
+            changedConfigs.put(config, item);
+            state = state.withCustomConfigs(changedConfigs);
+        }
+        return state;
+    }
+
+    public AppConfigState withSelectedConfig(String config)
+    {
+        // Resets the selection when the configuration doesn't exist
+        return withSelectedConfigName(containsConfig(config) ? config : "");
+    }
+
+    public AppConfigState withChangedSelectedValue(String key, String value)
+    {
+        // Items in the state are never changed, a changed copy replaces it
+        AppConfigStorageItem item = new AppConfigStorageItem();
+        item.copyValues(getSelectedConfigNotNull());
+        item.putString(key, value);
+        return withConfig(selectedConfigName, item);
+    }
+
+    public AppConfigState withChangedGlobalValue(String key, String value)
+    {
+        AppConfigStorageItem item = new AppConfigStorageItem();
+        item.copyValues(globalConfig);
+        item.putString(key, value);
+        return withGlobalConfig(item);
+    }
+
+    public AppConfigState withoutConfig(String config)
+    {
+        // Removes the custom configuration if it exists (otherwise the stored one), resets the selection if it was selected
+        AppConfigState state;
+        if (customConfigs.containsKey(config))
+        {
+            LinkedHashMap<String, AppConfigStorageItem> changedConfigs = copyCustomConfigs();
+            changedConfigs.remove(config);
+            state = withCustomConfigs(changedConfigs);
+        }
+        else if (storedConfigs.contains(config))
+        {
+            AppConfigStoredConfigs changedConfigs = copyStoredConfigs();
+            changedConfigs.remove(config);
+            state = withStoredConfigs(changedConfigs);
+        }
+        else
+        {
+            return this;
+        }
+        return config.equals(selectedConfigName) ? state.withSelectedConfigName("") : state;
+    }
+
+
+    // ---
+    // Compare with a previous state, to only store the changed sections
+    // ---
+
+    public ArrayList<String> changedCustomConfigs(AppConfigState previousState)
+    {
+        // Includes removed configurations, items are compared by instance
+        LinkedHashSet<String> configs = new LinkedHashSet<>(previousState.customConfigs.keySet());
+        configs.addAll(customConfigs.keySet());
+        ArrayList<String> result = new ArrayList<>();
+        for (String config : configs)
+        {
+            if (previousState.customConfigs.get(config) != customConfigs.get(config))
+            {
+                result.add(config);
+            }
+        }
+        return result;
+    }
+
+    public boolean isSelectedConfigChanged(AppConfigState previousState)
+    {
+        return !selectedConfigName.equals(previousState.selectedConfigName) || getSelectedConfig() != previousState.getSelectedConfig();
+    }
+
+    public boolean isGlobalConfigChanged(AppConfigState previousState)
+    {
+        return globalConfig != previousState.globalConfig;
+    }
+}
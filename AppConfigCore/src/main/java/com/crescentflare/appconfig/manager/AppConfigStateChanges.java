@@ -0,0 +1,132 @@
+package com.crescentflare.appconfig.manager;
+
+
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import java.util.ArrayList;
+
+/**
+ * Library manager: combined state changes
+ * Collects several changes to apply to a configuration state at once, in the order they were added
+ * Each change works the same as the separate storage operation, a later change sees the result of the earlier ones
+ */
+public class AppConfigStateChanges
+{
+    // ---
+    // Members
+    // ---
+
+    private final ArrayList<Change> changes = new ArrayList<>();
+
+
+    // ---
+    // Add changes
+    // ---
+
+    public AppConfigStateChanges putCustomConfig(String config, AppConfigStorageItem item)
+    {
+        changes.add(new Change(Change.PUT_CUSTOM_CONFIG, config, null, null, item));
+        return this;
+    }
+
+    public AppConfigStateChanges removeConfig(String config)
+    {
+        changes.add(new Change(Change.REMOVE_CONFIG, config, null, null, null));
+        return this;
+    }
+
+    public AppConfigStateChanges selectConfig(String config)
+    {
+        changes.add(new Change(Change.SELECT_CONFIG, config, null, null, null));
+        return this;
+    }
+
+    public AppConfigStateChanges updateGlobalConfig(AppConfigStorageItem item)
+    {
+        changes.add(new Change(Change.UPDATE_GLOBAL_CONFIG, null, null, null, item));
+        return this;
+    }
+
+    public AppConfigStateChanges changeCurrentConfig(String key, String value)
+    {
+        changes.add(new Change(Change.CHANGE_CURRENT_CONFIG, null, key, value, null));
+        return this;
+    }
+
+    public AppConfigStateChanges changeGlobalConfig(String key, String value)
+    {
+        changes.add(new Change(Change.CHANGE_GLOBAL_CONFIG, null, key, value, null));
+        return this;
+    }
+
+
+    // ---
+    // Apply changes
+    // ---
+
+    public boolean isEmpty()
+    {
+        return changes.isEmpty();
+    }
+
+    public AppConfigState apply(AppConfigState state)
+    {
+        // Returns the same state when nothing changed
+        AppConfigState result = state;
+        for (Change change : changes)
+        {
+            result = change.apply(result);
+        }
+        return result;
+    }
+
+
+    // ---
+    // A single change
+    // ---
+
+    private static class Change
+    {
+        static final int PUT_CUSTOM_CONFIG = 0;
+        static final int REMOVE_CONFIG = 1;
+        static final int SELECT_CONFIG = 2;
+        static final int UPDATE_GLOBAL_CONFIG = 3;
+        static final int CHANGE_CURRENT_CONFIG = 4;
+        static final int CHANGE_GLOBAL_CONFIG = 5;
+
+        final int type;
+        final String config;
+        final String key;
+        final String value;
+        final AppConfigStorageItem item;
+
+        Change(int type, String config, String key, String value, AppConfigStorageItem item)
+        {
+            this.type = type;
+            this.config = config;
+            this.key = key;
+            this.value = value;
+            this.item = item;
+        }
+
+        AppConfigState apply(AppConfigState state)
+        {
+            switch (type)
+            {
+                case PUT_CUSTOM_CONFIG:
+                    return state.withCustomConfig(config, item);
+                case REMOVE_CONFIG:
+                    return state.withoutConfig(config);
+                case SELECT_CONFIG:
+                    return state.withSelectedConfig(config);
+                case UPDATE_GLOBAL_CONFIG:
+                    return state.withGlobalConfig(item);
+                case CHANGE_CURRENT_CONFIG:
+                    return state.withChangedSelectedValue(key, value);
+                case CHANGE_GLOBAL_CONFIG:
+                    return state.withChangedGlobalValue(key, value);
+            }
+            return state;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.crescentflare.appconfig.manager;
+
+
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Library manager: stored configurations
+ * Keeps the ordered list of configuration names, items can be loaded up front or created on demand by a loader
+ * Items created on demand are kept in a bounded (least recently used) cache, the pinned configuration is never evicted
+ * Modifications are done on a copy before it's shared (copies share the cache), reading is safe from any thread
+ */
+public class AppConfigStoredConfigs
+{
+    // ---
+    // Members
+    // ---
+
+    private final LinkedHashMap<String, Integer> names;
+    private final HashMap<String, AppConfigStorageItem> configs;
+    private final LinkedHashMap<String, AppConfigStorageItem> cachedConfigs;
+    private final Loader loader;
+    private final AtomicReference<PinnedConfig> pinned = new AtomicReference<>(new PinnedConfig(null, null));
+
+
+    // ---
+    // Initialization
+    // ---
+
+    public AppConfigStoredConfigs()
+    {
+        this(null, null, 0);
+    }
+
+    public AppConfigStoredConfigs(LinkedHashMap<String, AppConfigStorageItem> loadedConfigs)
+    {
+        this(null, null, 0);
+        if (loadedConfigs != null)
+        {
+            for (Map.Entry<String, AppConfigStorageItem> entry : loadedConfigs.entrySet())
+            {
+                put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    public AppConfigStoredConfigs(List<String> configNames, Loader loader, final int cacheSize)
+    {
+        this.names = new LinkedHashMap<>();
+        this.configs = new HashMap<>();
+        this.loader = loader;
+        this.cachedConfigs = new LinkedHashMap<String, AppConfigStorageItem>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AppConfigStorageItem> eldest)
+            {
+                return size() > cacheSize;
+            }
+        };
+        if (configNames != null)
+        {
+            for (int i = 0; i < configNames.size(); i++)
+            {
+                names.put(configNames.get(i), i);
+            }
+        }
+    }
+
+    private AppConfigStoredConfigs(AppConfigStoredConfigs source)
+    {
+        names = new LinkedHashMap<>(source.names);
+        configs = new HashMap<>(source.configs);
+        cachedConfigs = source.cachedConfigs;
+        loader = source.loader;
+        pinned.set(source.pinned.get());
+    }
+
+    public AppConfigStoredConfigs copy()
+    {
+        return new AppConfigStoredConfigs(this);
+    }
+
+
+    // ---
+    // Obtain configurations
+    // ---
+
+    public boolean contains(String config)
+    {
+        return names.containsKey(config);
+    }
+
+    public AppConfigStorageItem get(String config)
+    {
+        // Return items which are available directly
+        Integer index = names.get(config);
+        if (index == null)
+        {
+            return null;
+        }
+        PinnedConfig pinnedConfig = pinned.get();
+        if (config.equals(pinnedConfig.name) && pinnedConfig.item != null)
+        {
+            return pinnedConfig.item;
+        }
+        AppConfigStorageItem item = configs.get(config);
+
+        // Otherwise use the cache or create it using the loader
+        if (item == null && loader != null && index >= 0)
+        {
+            synchronized (cachedConfigs)
+            {
+                item = cachedConfigs.get(config);
+                if (item == null)
+                {
+                    item = loader.loadConfig(index);
+                    if (item != null)
+                    {
+                        cachedConfigs.put(config, item);
+                    }
+                }
+            }
+        }
+        if (item != null && config.equals(pinnedConfig.name))
+        {
+            pinned.compareAndSet(pinnedConfig, new PinnedConfig(config, item));
+        }
+        return item;
+    }
+
+    public HashMap<String, AppConfigStorageItem> loadedItems()
+    {
+        // Only items which are available without the loader, the cache order isn't changed
+        HashMap<String, AppConfigStorageItem> result = new HashMap<>(configs);
+        synchronized (cachedConfigs)
+        {
+            for (Map.Entry<String, AppConfigStorageItem> entry : cachedConfigs.entrySet())
+            {
+                if (names.containsKey(entry.getKey()) && !result.containsKey(entry.getKey()))
+                {
+                    result.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        PinnedConfig pinnedConfig = pinned.get();
+        if (pinnedConfig.item != null && names.containsKey(pinnedConfig.name) && !result.containsKey(pinnedConfig.name))
+        {
+            result.put(pinnedConfig.name, pinnedConfig.item);
+        }
+        return result;
+    }
+
+    public ArrayList<String> nameList()
+    {
+        return new ArrayList<>(names.keySet());
+    }
+
+    public int cachedCount()
+    {
+        synchronized (cachedConfigs)
+        {
+            return cachedConfigs.size();
+        }
+    }
+
+
+    // ---
+    // Modify configurations
+    // ---
+
+    public void put(String config, AppConfigStorageItem item)
+    {
+        // Explicitly added items are never evicted, they are added at the end like a regular map
+        remove(config);
+        names.put(config, -1);
+        configs.put(config, item);
+    }
+
+    public void replace(String config, AppConfigStorageItem item)
+    {
+        // Keeps the position of an existing configuration
+        if (names.containsKey(config))
+        {
+            names.put(config, -1);
+            configs.put(config, item);
+            uncache(config);
+        }
+        else
+        {
+            put(config, item);
+        }
+    }
+
+    public boolean remove(String config)
+    {
+        if (names.remove(config) != null)
+        {
+            configs.remove(config);
+            uncache(config);
+            return true;
+        }
+        return false;
+    }
+
+    public void pin(String config)
+    {
+        PinnedConfig pinnedConfig = pinned.get();
+        if (config == null || !config.equals(pinnedConfig.name))
+        {
+            pinned.set(new PinnedConfig(config, null));
+        }
+    }
+
+    public boolean isPinned(String config)
+    {
+        String pinnedName = pinned.get().name;
+        return config == null ? pinnedName == null : config.equals(pinnedName);
+    }
+
+    private void uncache(String config)
+    {
+        synchronized (cachedConfigs)
+        {
+            cachedConfigs.remove(config);
+        }
+        if (config.equals(pinned.get().name))
+        {
+            pinned.set(new PinnedConfig(config, null));
+        }
+    }
+
+
+    // ---
+    // Pinned configuration, the name and item are replaced together
+    // ---
+
+    private static class PinnedConfig
+    {
+        final String name;
+        final AppConfigStorageItem item;
+
+        PinnedConfig(String name, AppConfigStorageItem item)
+        {
+            this.name = name;
+            this.item = item;
+        }
+    }
+
+
+    // ---
+    // Loader interface
+    // ---
+
+    public interface Loader
+    {
+        AppConfigStorageItem loadConfig(int index);
+    }
+}
@@ -0,0 +1,81 @@
+package com.crescentflare.appconfig.model;
+
+
+import java.util.ArrayList;
+
+/**
+ * Library model: base model for strict typing
+ * Derive your custom app configuration from this model for easy integration
+ * Important: this moment, only flat models with primitive data types and custom enums are supported
+ */
+public class AppConfigBaseModel
+{
+    // ---
+    // Reflection helper: get list of values (either from getters, or from fields directly)
+    // ---
+
+    public ArrayList<String> configurationValueList()
+    {
+        return new ArrayList<>(getDescriptor().getConfigurationValues());
+    }
+
+    public ArrayList<String> globalValueList()
+    {
+        return new ArrayList<>(getDescriptor().getGlobalValues());
+    }
+
+
+    // ---
+    // Reflection helper: get the list of categories (if some items don't have any category, an empty string is added)
+    // ---
+
+    public ArrayList<String> getConfigurationCategories()
+    {
+        return new ArrayList<>(getDescriptor().getConfigurationCategories());
+    }
+
+    public ArrayList<String> getGlobalCategories()
+    {
+        return new ArrayList<>(getDescriptor().getGlobalCategories());
+    }
+
+
+    // ---
+    // Reflection helper: check if the value belongs to the given category
+    // ---
+
+    public boolean valueBelongsToCategory(String value, String category)
+    {
+        return getDescriptor().valueBelongsToCategory(value, category);
+    }
+
+
+    // ---
+    // Reflection helper: get the current (or default) value of a field (either from a getter, or a field directly)
+    // ---
+
+    public Object getCurrentValue(String value)
+    {
+        return getDescriptor().getCurrentValue(this, value);
+    }
+
+
+    // ---
+    // Reflection helper: overwrite fields using custom settings
+    // ---
+
+    public void applyCustomSettings(String configName, AppConfigStorageItem item)
+    {
+        getDescriptor().applyCustomSettings(this, configName, item);
+    }
+
+
+    // ---
+    // Reflection helper: obtain the cached reflection information of the model class
+    // ---
+
+    public AppConfigModelDescriptor getDescriptor()
+    {
+        return AppConfigModelDescriptor.forClass(getClass());
+    }
+}
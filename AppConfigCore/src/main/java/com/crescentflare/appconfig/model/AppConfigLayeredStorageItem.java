@@ -0,0 +1,148 @@
+package com.crescentflare.appconfig.model;
+
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+/**
+ * Library model: layered storage item
+ * Only stores its own values, other values are looked up in the parent item (which shouldn't be changed afterwards)
+ * Used for sub configurations to share the values of their parents instead of copying them
+ */
+public class AppConfigLayeredStorageItem extends AppConfigStorageItem
+{
+    // ---
+    // Members
+    // ---
+
+    private final AppConfigStorageItem parent;
+    private HashSet<String> removedSettings = null;
+
+
+    // ---
+    // Initialization
+    // ---
+
+    public AppConfigLayeredStorageItem(AppConfigStorageItem parent)
+    {
+        this.parent = parent;
+    }
+
+
+    // ---
+    // Obtain settings
+    // ---
+
+    public AppConfigStorageItem getParent()
+    {
+        return parent;
+    }
+
+    @Override
+    public Object get(String setting)
+    {
+        Object value = super.get(setting);
+        if (value == null && parent != null && !isRemoved(setting))
+        {
+            value = parent.get(setting);
+        }
+        return value;
+    }
+
+    @Override
+    public ArrayList<String> valueList()
+    {
+        ArrayList<String> list = super.valueList();
+        if (parent != null)
+        {
+            HashSet<String> ownSettings = new HashSet<>(list);
+            for (String key : parent.valueList())
+            {
+                if (!ownSettings.contains(key) && !isRemoved(key))
+                {
+                    list.add(key);
+                }
+            }
+        }
+        return list;
+    }
+
+
+    // ---
+    // Adjust settings
+    // ---
+
+    @Override
+    public void putBoolean(String setting, boolean value)
+    {
+        super.putBoolean(setting, value);
+        restoreSetting(setting);
+    }
+
+    @Override
+    public void putLong(String setting, long value)
+    {
+        super.putLong(setting, value);
+        restoreSetting(setting);
+    }
+
+    @Override
+    public void putString(String setting, String value)
+    {
+        super.putString(setting, value);
+        restoreSetting(setting);
+    }
+
+    public boolean removeOverride(String setting)
+    {
+        // Removes the value of this item only, the value of the parent (if any) becomes visible again
+        restoreSetting(setting);
+        return super.removeSetting(setting);
+    }
+
+
+    // ---
+    // Other operations
+    // ---
+
+    @Override
+    public boolean removeSetting(String setting)
+    {
+        boolean removed = super.removeSetting(setting);
+        if (parent != null && !isRemoved(setting) && parent.get(setting) != null)
+        {
+            if (removedSettings == null)
+            {
+                removedSettings = new HashSet<>();
+            }
+            removedSettings.add(setting);
+            removed = true;
+        }
+        return removed;
+    }
+
+    public AppConfigStorageItem flatten()
+    {
+        AppConfigStorageItem item = new AppConfigStorageItem();
+        item.copyValues(this);
+        return item;
+    }
+
+
+    // ---
+    // Helpers
+    // ---
+
+    private boolean isRemoved(String setting)
+    {
+        return removedSettings != null && removedSettings.contains(setting);
+    }
+
+    private void restoreSetting(String setting)
+    {
+        if (removedSettings != null)
+        {
+            removedSettings.remove(setting);
+        }
+    }
+}
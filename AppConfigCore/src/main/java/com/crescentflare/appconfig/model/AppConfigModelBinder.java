@@ -0,0 +1,37 @@
+package com.crescentflare.appconfig.model;
+
+
+import java.util.List;
+
+/**
+ * Library model: model binder interface
+ * Implemented by the classes generated by the AppConfigProcessor annotation processor (named <model>_AppConfigBinder)
+ * Provides reflection-free access to the values of a model, when available it's used instead of reflection
+ */
+public interface AppConfigModelBinder
+{
+    List<Value> values();
+    Object getCurrentValue(AppConfigBaseModel model, String value);
+    void applyCustomSettings(AppConfigBaseModel model, String configName, AppConfigStorageItem item);
+
+
+    // ---
+    // Static information about a single model value, in declaration order
+    // ---
+
+    class Value
+    {
+        public final String name;
+        public final int sortIndex;
+        public final String category;
+        public final boolean global;
+
+        public Value(String name, int sortIndex, String category, boolean global)
+        {
+            this.name = name;
+            this.sortIndex = sortIndex;
+            this.category = category;
+            this.global = global;
+        }
+    }
+}
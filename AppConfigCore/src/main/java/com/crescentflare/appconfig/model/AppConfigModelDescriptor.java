@@ -0,0 +1,552 @@
+package com.crescentflare.appconfig.model;
+
+
+import java.lang.annotation.Annotation;
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Library model: reflection descriptor of a model class
+ * Scans the fields, methods and annotations of a model once and caches the result per class
+ * When a binder was generated for the model, its static tables and typed accessors are used instead
+ */
+public class AppConfigModelDescriptor
+{
+    // ---
+    // Static: cached descriptors (weakly keyed, so model classes can still be unloaded)
+    // ---
+
+    private static final Map<Class<?>, SoftReference<AppConfigModelDescriptor>> descriptors = new WeakHashMap<>();
+
+    public static AppConfigModelDescriptor forClass(Class<?> modelClass)
+    {
+        synchronized (descriptors)
+        {
+            SoftReference<AppConfigModelDescriptor> reference = descriptors.get(modelClass);
+            AppConfigModelDescriptor descriptor = reference != null ? reference.get() : null;
+            if (descriptor == null)
+            {
+                descriptor = new AppConfigModelDescriptor(modelClass);
+                descriptors.put(modelClass, new SoftReference<>(descriptor));
+            }
+            return descriptor;
+        }
+    }
+
+
+    // ---
+    // Members
+    // ---
+
+    private final List<String> configurationValues;
+    private final List<String> globalValues;
+    private final List<String> configurationCategories;
+    private final List<String> globalCategories;
+    private final Map<String, List<String>> configurationCategoryValues;
+    private final Map<String, List<String>> globalCategoryValues;
+    private final Map<String, String> fieldCategories = new HashMap<>();
+    private final Map<String, Integer> sortIndexes = new HashMap<>();
+    private final Map<String, ValueAccessor> getters = new HashMap<>();
+    private final Map<String, Field> fields = new HashMap<>();
+    private final List<ValueAccessor> setters = new ArrayList<>();
+    private final AppConfigModelBinder binder;
+    private final boolean usesSetters;
+
+
+    // ---
+    // Initialization
+    // ---
+
+    private AppConfigModelDescriptor(Class<?> modelClass)
+    {
+        // Gather values from a generated binder if available, otherwise use reflection
+        ArrayList<ModelValue> configurationList = new ArrayList<>();
+        ArrayList<ModelValue> globalList = new ArrayList<>();
+        binder = findBinder(modelClass);
+        if (binder != null)
+        {
+            usesSetters = false;
+            for (AppConfigModelBinder.Value binderValue : binder.values())
+            {
+                ModelValue modelValue = new ModelValue();
+                modelValue.value = binderValue.name;
+                modelValue.sortIndex = binderValue.sortIndex;
+                fieldCategories.put(binderValue.name, binderValue.category);
+                sortIndexes.put(binderValue.name, binderValue.sortIndex);
+                if (binderValue.global)
+                {
+                    globalList.add(modelValue);
+                }
+                else
+                {
+                    configurationList.add(modelValue);
+                }
+            }
+        }
+        else
+        {
+            usesSetters = scanClass(modelClass, configurationList, globalList);
+        }
+
+        // Sort and store values, then derive the categories from them
+        configurationValues = sortedValues(configurationList);
+        globalValues = sortedValues(globalList);
+        configurationCategoryValues = categoryValues(configurationValues);
+        globalCategoryValues = categoryValues(globalValues);
+        configurationCategories = Collections.unmodifiableList(new ArrayList<>(configurationCategoryValues.keySet()));
+        globalCategories = Collections.unmodifiableList(new ArrayList<>(globalCategoryValues.keySet()));
+    }
+
+    private static AppConfigModelBinder findBinder(Class<?> modelClass)
+    {
+        try
+        {
+            Class<?> binderClass = Class.forName(modelClass.getName().replace('$', '_') + "_AppConfigBinder", true, modelClass.getClassLoader());
+            return (AppConfigModelBinder)binderClass.newInstance();
+        }
+        catch (ClassNotFoundException ignored)
+        {
+        }
+        catch (InstantiationException ignored)
+        {
+        }
+        catch (IllegalAccessException ignored)
+        {
+        }
+        catch (ClassCastException ignored)
+        {
+        }
+        return null;
+    }
+
+    private boolean scanClass(Class<?> modelClass, ArrayList<ModelValue> configurationList, ArrayList<ModelValue> globalList)
+    {
+        // Index declared methods by name
+        Method[] methods = modelClass.getDeclaredMethods();
+        Set<String> methodNames = new HashSet<>();
+        for (Method method : methods)
+        {
+            methodNames.add(method.getName());
+        }
+
+        // Index declared fields by name
+        Field[] declaredFields = modelClass.getDeclaredFields();
+        for (Field field : declaredFields)
+        {
+            fields.put(field.getName(), field);
+        }
+
+        // Resolve getters (the last declared match wins, like a linear scan would)
+        for (Method method : methods)
+        {
+            String value = null;
+            if (method.getName().startsWith("get") && method.getName().length() > 3)
+            {
+                value = method.getName().substring(3);
+            }
+            else if (method.getName().startsWith("is") && method.getName().length() > 2)
+            {
+                value = method.getName().substring(2);
+            }
+            if (value != null && method.getParameterTypes().length == 0)
+            {
+                getters.put(value, new ValueAccessor(method));
+            }
+        }
+
+        // Resolve setters, fall back to fields if there are none
+        for (Method method : methods)
+        {
+            if (method.getName().startsWith("set") && method.getName().length() > 3 && method.getGenericParameterTypes().length == 1)
+            {
+                try
+                {
+                    method.setAccessible(true);
+                }
+                catch (SecurityException ignored)
+                {
+                }
+                if (method.isAccessible())
+                {
+                    String value = method.getName().substring(3, 4).toLowerCase() + method.getName().substring(4);
+                    setters.add(new ValueAccessor(value, method, method.getGenericParameterTypes()[0]));
+                }
+            }
+        }
+        boolean foundSetter = setters.size() > 0;
+        if (!foundSetter)
+        {
+            for (Field field : declaredFields)
+            {
+                try
+                {
+                    field.setAccessible(true);
+                }
+                catch (SecurityException ignored)
+                {
+                }
+                if (field.isAccessible())
+                {
+                    setters.add(new ValueAccessor(field.getName(), field, field.getGenericType()));
+                }
+            }
+        }
+
+        // Gather values, split between configuration and global
+        for (Field field : declaredFields)
+        {
+            // Skip items generated by a compiler processor
+            if (field.getName().substring(0, 1).equals("$"))
+            {
+                continue;
+            }
+
+            // Store category, it's also used for values which are not editable
+            boolean foundGlobal = false;
+            ModelValue modelValue = new ModelValue();
+            modelValue.value = field.getName();
+            fieldCategories.put(field.getName(), "");
+            for (Annotation annotation : field.getDeclaredAnnotations())
+            {
+                if (annotation instanceof AppConfigModelCategory)
+                {
+                    fieldCategories.put(field.getName(), ((AppConfigModelCategory)annotation).value());
+                }
+                else if (annotation instanceof AppConfigModelSort)
+                {
+                    modelValue.sortIndex = ((AppConfigModelSort)annotation).value();
+                }
+                else if (annotation instanceof AppConfigModelGlobal)
+                {
+                    foundGlobal = true;
+                }
+            }
+
+            // Only add public values or values available through a getter/setter
+            String findMethod = capitalize(field.getName());
+            boolean hasGetter = methodNames.contains("get" + findMethod) || methodNames.contains("is" + findMethod);
+            if (Modifier.isPublic(field.getModifiers()) || (hasGetter && methodNames.contains("set" + findMethod)))
+            {
+                sortIndexes.put(modelValue.value, modelValue.sortIndex);
+                if (foundGlobal)
+                {
+                    globalList.add(modelValue);
+                }
+                else
+                {
+                    configurationList.add(modelValue);
+                }
+            }
+        }
+        return foundSetter;
+    }
+
+    private List<String> sortedValues(ArrayList<ModelValue> list)
+    {
+        Collections.sort(list, new Comparator<ModelValue>()
+        {
+            @Override
+            public int compare(ModelValue v1, ModelValue v2)
+            {
+                return v1.sortIndex - v2.sortIndex;
+            }
+        });
+        ArrayList<String> stringValues = new ArrayList<>();
+        for (ModelValue listItem : list)
+        {
+            stringValues.add(listItem.value);
+        }
+        return Collections.unmodifiableList(stringValues);
+    }
+
+    private Map<String, List<String>> categoryValues(List<String> values)
+    {
+        LinkedHashMap<String, List<String>> result = new LinkedHashMap<>();
+        ArrayList<String> unCategorized = new ArrayList<>();
+        for (String value : values)
+        {
+            if (value.equals("name"))
+            {
+                continue;
+            }
+            String category = fieldCategories.get(value);
+            if (category != null && category.length() > 0)
+            {
+                if (!result.containsKey(category))
+                {
+                    result.put(category, new ArrayList<String>());
+                }
+                result.get(category).add(value);
+            }
+            else
+            {
+                unCategorized.add(value);
+            }
+        }
+        if (unCategorized.size() > 0 && result.size() > 0)
+        {
+            result.put("", unCategorized);
+        }
+        for (Map.Entry<String, List<String>> entry : result.entrySet())
+        {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+
+    // ---
+    // Obtain values and categories
+    // ---
+
+    public List<String> getConfigurationValues()
+    {
+        return configurationValues;
+    }
+
+    public List<String> getGlobalValues()
+    {
+        return globalValues;
+    }
+
+    public List<String> getConfigurationCategories()
+    {
+        return configurationCategories;
+    }
+
+    public List<String> getGlobalCategories()
+    {
+        return globalCategories;
+    }
+
+    public List<String> getConfigurationCategoryValues(String category)
+    {
+        List<String> values = configurationCategoryValues.get(category);
+        return values != null ? values : Collections.<String>emptyList();
+    }
+
+    public List<String> getGlobalCategoryValues(String category)
+    {
+        List<String> values = globalCategoryValues.get(category);
+        return values != null ? values : Collections.<String>emptyList();
+    }
+
+    public boolean valueBelongsToCategory(String value, String category)
+    {
+        String fieldCategory = fieldCategories.get(value);
+        return fieldCategory != null && fieldCategory.equals(category);
+    }
+
+    public int getSortIndex(String value)
+    {
+        Integer sortIndex = sortIndexes.get(value);
+        return sortIndex != null ? sortIndex : 0;
+    }
+
+
+    // ---
+    // Access model values
+    // ---
+
+    public AppConfigModelBinder getBinder()
+    {
+        return binder;
+    }
+
+    public Object getCurrentValue(AppConfigBaseModel model, String value)
+    {
+        if (binder != null)
+        {
+            return binder.getCurrentValue(model, value);
+        }
+        ValueAccessor getter = getters.get(capitalize(value));
+        if (getter != null)
+        {
+            return getter.get(model);
+        }
+        Field field = fields.get(value);
+        if (field != null)
+        {
+            try
+            {
+                return field.get(model);
+            }
+            catch (IllegalAccessException ignored)
+            {
+            }
+        }
+        return null;
+    }
+
+    public void applyCustomSettings(AppConfigBaseModel model, String configName, AppConfigStorageItem item)
+    {
+        if (binder != null)
+        {
+            binder.applyCustomSettings(model, configName, item);
+            return;
+        }
+        for (ValueAccessor setter : setters)
+        {
+            if (setter.value.equals("name"))
+            {
+                if (setter.type.equals(String.class) && configName.length() > 0)
+                {
+                    setter.set(model, configName);
+                }
+                if (usesSetters)
+                {
+                    continue;
+                }
+            }
+            if (item.get(setter.value) != null)
+            {
+                setter.apply(model, item);
+            }
+        }
+    }
+
+
+    // ---
+    // Helpers
+    // ---
+
+    private static String capitalize(String value)
+    {
+        if (value.length() == 0)
+        {
+            return value;
+        }
+        return value.substring(0, 1).toUpperCase() + value.substring(1);
+    }
+
+    private static class ModelValue
+    {
+        public String value = "";
+        public int sortIndex = 0;
+    }
+
+    private static class ValueAccessor
+    {
+        final String value;
+        final Method method;
+        final Field field;
+        final Type type;
+        final Map<String, Object> enumConstants;
+
+        ValueAccessor(Method getter)
+        {
+            this(null, getter, null, null);
+        }
+
+        ValueAccessor(String value, Method setter, Type type)
+        {
+            this(value, setter, null, type);
+        }
+
+        ValueAccessor(String value, Field field, Type type)
+        {
+            this(value, null, field, type);
+        }
+
+        private ValueAccessor(String value, Method method, Field field, Type type)
+        {
+            this.value = value;
+            this.method = method;
+            this.field = field;
+            this.type = type;
+            if (type instanceof Class && ((Class)type).isEnum())
+            {
+                enumConstants = new HashMap<>();
+                for (Object enumType : ((Class)type).getEnumConstants())
+                {
+                    if (!enumConstants.containsKey(enumType.toString()))
+                    {
+                        enumConstants.put(enumType.toString(), enumType);
+                    }
+                }
+            }
+            else
+            {
+                enumConstants = null;
+            }
+        }
+
+        Object get(Object model)
+        {
+            try
+            {
+                return method.invoke(model);
+            }
+            catch (IllegalAccessException ignored)
+            {
+            }
+            catch (InvocationTargetException ignored)
+            {
+            }
+            return null;
+        }
+
+        void set(Object model, Object setting)
+        {
+            try
+            {
+                if (method != null)
+                {
+                    method.invoke(model, setting);
+                }
+                else
+                {
+                    field.set(model, setting);
+                }
+            }
+            catch (IllegalAccessException ignored)
+            {
+            }
+            catch (InvocationTargetException ignored)
+            {
+            }
+        }
+
+        void apply(Object model, AppConfigStorageItem item)
+        {
+            if (type.equals(Boolean.class) || type.equals(boolean.class))
+            {
+                set(model, item.getBoolean(value));
+            }
+            else if (type.equals(Integer.class) || type.equals(int.class))
+            {
+                set(model, item.getInt(value));
+            }
+            else if (type.equals(Long.class) || type.equals(long.class))
+            {
+                set(model, item.getLong(value));
+            }
+            else if (type.equals(String.class))
+            {
+                set(model, item.getStringNotNull(value));
+            }
+            else if (enumConstants != null)
+            {
+                Object enumType = enumConstants.get(item.getStringNotNull(value));
+                if (enumType != null)
+                {
+                    set(model, enumType);
+                }
+            }
+        }
+    }
+}
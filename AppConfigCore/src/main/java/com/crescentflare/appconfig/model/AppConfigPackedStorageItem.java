@@ -0,0 +1,386 @@
+package com.crescentflare.appconfig.model;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Library model: packed storage item
+ * A storage item with the same behavior as the default one, but keeps its values in primitive arrays
+ * Keys are mapped to slots by a small open addressing table of the item itself, typed getters don't need to box or parse values
+ * Prefer it for items which are copied or compared often (several times faster), single lookups and adding values are somewhat slower
+ * than the default item, see the storage item benchmark in the baseline results
+ */
+public class AppConfigPackedStorageItem extends AppConfigStorageItem
+{
+    // ---
+    // Constants
+    // ---
+
+    private static final byte TYPE_BOOLEAN = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_STRING = 3;
+    private static final int MIN_CAPACITY = 4;
+
+
+    // ---
+    // Members
+    // ---
+
+    private String[] keys = new String[MIN_CAPACITY];
+    private int[] hashes = new int[MIN_CAPACITY];
+    private byte[] types = new byte[MIN_CAPACITY];
+    private long[] longValues = new long[MIN_CAPACITY];
+    private boolean[] booleanValues = new boolean[MIN_CAPACITY];
+    private String[] stringValues = new String[MIN_CAPACITY];
+    private long[] table = new long[MIN_CAPACITY * 2];
+    private int count = 0;
+
+
+    // ---
+    // Obtain settings
+    // ---
+
+    @Override
+    public boolean getBoolean(String setting)
+    {
+        int slot = findSlot(setting);
+        return slot >= 0 && booleanValues[slot];
+    }
+
+    @Override
+    public int getInt(String setting)
+    {
+        int slot = findSlot(setting);
+        if (slot >= 0)
+        {
+            long value = longValues[slot];
+            if (types[slot] == TYPE_STRING && (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE))
+            {
+                return 0;
+            }
+            return (int)value;
+        }
+        return 0;
+    }
+
+    @Override
+    public long getLong(String setting)
+    {
+        int slot = findSlot(setting);
+        return slot >= 0 ? longValues[slot] : 0;
+    }
+
+    @Override
+    public String getString(String setting)
+    {
+        int slot = findSlot(setting);
+        if (slot >= 0)
+        {
+            switch (types[slot])
+            {
+                case TYPE_BOOLEAN:
+                    return booleanValues[slot] ? "true" : "false";
+                case TYPE_LONG:
+                    return "" + longValues[slot];
+                case TYPE_STRING:
+                    return stringValues[slot];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Object get(String setting)
+    {
+        int slot = findSlot(setting);
+        if (slot >= 0)
+        {
+            switch (types[slot])
+            {
+                case TYPE_BOOLEAN:
+                    return booleanValues[slot];
+                case TYPE_LONG:
+                    return longValues[slot];
+                case TYPE_STRING:
+                    return stringValues[slot];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public ArrayList<String> valueList()
+    {
+        ArrayList<String> list = new ArrayList<>(count);
+        list.addAll(Arrays.asList(keys).subList(0, count));
+        return list;
+    }
+
+
+    // ---
+    // Adjust settings
+    // ---
+
+    @Override
+    public void putBoolean(String setting, boolean value)
+    {
+        int slot = prepareSlot(setting, TYPE_BOOLEAN);
+        booleanValues[slot] = value;
+        longValues[slot] = value ? 1 : 0;
+    }
+
+    @Override
+    public void putLong(String setting, long value)
+    {
+        int slot = prepareSlot(setting, TYPE_LONG);
+        booleanValues[slot] = value > 0;
+        longValues[slot] = value;
+    }
+
+    @Override
+    public void putString(String setting, String value)
+    {
+        // Conversions are done once, when storing the value
+        int slot = prepareSlot(setting, TYPE_STRING);
+        stringValues[slot] = value;
+        booleanValues[slot] = value != null && value.equalsIgnoreCase("true");
+        try
+        {
+            longValues[slot] = value != null ? Long.parseLong(value) : 0;
+        }
+        catch (NumberFormatException ignored)
+        {
+            longValues[slot] = 0;
+        }
+    }
+
+
+    // ---
+    // Other operations
+    // ---
+
+    @Override
+    public boolean removeSetting(String setting)
+    {
+        // Clear the table entry, then move the last slot into the removed one to keep the slots dense
+        int index = findIndex(setting);
+        if (index >= 0)
+        {
+            int slot = (int)table[index] - 1;
+            removeFromTable(index);
+            count--;
+            if (slot != count)
+            {
+                table[findIndexOfSlot(count)] = tableEntry(hashes[count], slot);
+                keys[slot] = keys[count];
+                hashes[slot] = hashes[count];
+                types[slot] = types[count];
+                longValues[slot] = longValues[count];
+                booleanValues[slot] = booleanValues[count];
+                stringValues[slot] = stringValues[count];
+            }
+            keys[count] = null;
+            stringValues[count] = null;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void copyValues(AppConfigStorageItem item)
+    {
+        // Copy the arrays directly from another packed item without values, otherwise copy value by value
+        if (item instanceof AppConfigPackedStorageItem && count == 0)
+        {
+            AppConfigPackedStorageItem packedItem = (AppConfigPackedStorageItem)item;
+            keys = packedItem.keys.clone();
+            hashes = packedItem.hashes.clone();
+            types = packedItem.types.clone();
+            longValues = packedItem.longValues.clone();
+            booleanValues = packedItem.booleanValues.clone();
+            stringValues = packedItem.stringValues.clone();
+            table = packedItem.table.clone();
+            count = packedItem.count;
+            return;
+        }
+        super.copyValues(item);
+    }
+
+
+    // ---
+    // Comparison
+    // ---
+
+    @Override
+    public boolean equals(Object o)
+    {
+        // Compare packed items without boxing their values
+        if (o instanceof AppConfigPackedStorageItem)
+        {
+            AppConfigPackedStorageItem checkItem = (AppConfigPackedStorageItem)o;
+            if (checkItem.count != count)
+            {
+                return false;
+            }
+            for (int slot = 0; slot < count; slot++)
+            {
+                int checkSlot = checkItem.findSlot(keys[slot]);
+                if (checkSlot < 0 || checkItem.types[checkSlot] != types[slot] || checkItem.longValues[checkSlot] != longValues[slot] || checkItem.booleanValues[checkSlot] != booleanValues[slot])
+                {
+                    return false;
+                }
+                if (types[slot] == TYPE_STRING && (stringValues[slot] == null || !stringValues[slot].equals(checkItem.stringValues[checkSlot])))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        // The same as summing the hash codes of the keys combined with the values returned by get(), without boxing them
+        int result = 0;
+        for (int slot = 0; slot < count; slot++)
+        {
+            int valueHash = 0;
+            switch (types[slot])
+            {
+                case TYPE_BOOLEAN:
+                    valueHash = booleanValues[slot] ? 1231 : 1237;
+                    break;
+                case TYPE_LONG:
+                    valueHash = (int)(longValues[slot] ^ (longValues[slot] >>> 32));
+                    break;
+                case TYPE_STRING:
+                    valueHash = stringValues[slot] != null ? stringValues[slot].hashCode() : 0;
+                    break;
+            }
+            result += (keys[slot] != null ? keys[slot].hashCode() : 0) ^ valueHash;
+        }
+        return result;
+    }
+
+
+    // ---
+    // Slot handling
+    // ---
+
+    private int findSlot(String setting)
+    {
+        int index = findIndex(setting);
+        return index >= 0 ? (int)table[index] - 1 : -1;
+    }
+
+    private int findIndex(String setting)
+    {
+        // Table entries combine the hash (high bits) with slot + 1 (low bits), zero marks an empty entry
+        int hash = hash(setting);
+        int mask = table.length - 1;
+        for (int index = hash & mask; table[index] != 0; index = (index + 1) & mask)
+        {
+            long entry = table[index];
+            if ((int)(entry >>> 32) == hash && sameKey(keys[(int)entry - 1], setting))
+            {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private int findIndexOfSlot(int slot)
+    {
+        int mask = table.length - 1;
+        int index = hashes[slot] & mask;
+        while ((int)table[index] != slot + 1)
+        {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private int prepareSlot(String setting, byte type)
+    {
+        int slot = findSlot(setting);
+        if (slot < 0)
+        {
+            if (count == keys.length)
+            {
+                int capacity = keys.length * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                hashes = Arrays.copyOf(hashes, capacity);
+                types = Arrays.copyOf(types, capacity);
+                longValues = Arrays.copyOf(longValues, capacity);
+                booleanValues = Arrays.copyOf(booleanValues, capacity);
+                stringValues = Arrays.copyOf(stringValues, capacity);
+                rebuildTable(capacity * 2);
+            }
+            slot = count++;
+            keys[slot] = setting;
+            hashes[slot] = hash(setting);
+            insertIntoTable(slot);
+        }
+        types[slot] = type;
+        stringValues[slot] = null;
+        return slot;
+    }
+
+    private void rebuildTable(int size)
+    {
+        table = new long[size];
+        for (int slot = 0; slot < count; slot++)
+        {
+            insertIntoTable(slot);
+        }
+    }
+
+    private void insertIntoTable(int slot)
+    {
+        int mask = table.length - 1;
+        int index = hashes[slot] & mask;
+        while (table[index] != 0)
+        {
+            index = (index + 1) & mask;
+        }
+        table[index] = tableEntry(hashes[slot], slot);
+    }
+
+    private void removeFromTable(int index)
+    {
+        // Shift following entries of the same run back into the gap, so lookups don't stop early at the emptied entry
+        int mask = table.length - 1;
+        int gap = index;
+        for (int next = (gap + 1) & mask; table[next] != 0; next = (next + 1) & mask)
+        {
+            int home = (int)(table[next] >>> 32) & mask;
+            boolean homeInGap = gap <= next ? (home > gap && home <= next) : (home > gap || home <= next);
+            if (!homeInGap)
+            {
+                table[gap] = table[next];
+                gap = next;
+            }
+        }
+        table[gap] = 0;
+    }
+
+    private static long tableEntry(int hash, int slot)
+    {
+        return ((long)hash << 32) | (slot + 1);
+    }
+
+    private static int hash(String setting)
+    {
+        // Spread the hash code, similar keys have consecutive hash codes which would cluster with linear probing
+        int hash = (setting != null ? setting.hashCode() : 0) * 0x9e3779b9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean sameKey(String key, String setting)
+    {
+        return key == setting || (key != null && key.equals(setting));
+    }
+}
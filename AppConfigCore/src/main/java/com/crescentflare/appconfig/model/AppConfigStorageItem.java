@@ -14,7 +14,7 @@ public class AppConfigStorageItem
     // Member
     // ---
 
-    private HashMap<String, Object> storedSettings = new HashMap<>();
+    private HashMap<String, Object> storedSettings = null;
 
 
     // ---
@@ -23,7 +23,7 @@ public class AppConfigStorageItem
 
     public boolean getBoolean(String setting)
     {
-        Object settingObject = storedSettings.get(setting);
+        Object settingObject = get(setting);
         if (settingObject != null)
         {
             if (settingObject instanceof Boolean)
@@ -44,7 +44,7 @@ public class AppConfigStorageItem
 
     public int getInt(String setting)
     {
-        Object settingObject = storedSettings.get(setting);
+        Object settingObject = get(setting);
         if (settingObject != null)
         {
             if (settingObject instanceof Boolean)
@@ -71,7 +71,7 @@ public class AppConfigStorageItem
 
     public long getLong(String setting)
     {
-        Object settingObject = storedSettings.get(setting);
+        Object settingObject = get(setting);
         if (settingObject != null)
         {
             if (settingObject instanceof Boolean)
@@ -98,7 +98,7 @@ public class AppConfigStorageItem
 
     public String getString(String setting)
     {
-        Object settingObject = storedSettings.get(setting);
+        Object settingObject = get(setting);
         if (settingObject != null)
         {
             if (settingObject instanceof Boolean)
@@ -129,15 +129,18 @@ public class AppConfigStorageItem
 
     public Object get(String setting)
     {
-        return storedSettings.get(setting);
+        return storedSettings != null ? storedSettings.get(setting) : null;
     }
 
     public ArrayList<String> valueList()
     {
         ArrayList<String> list = new ArrayList<>();
-        for (String key : storedSettings.keySet())
+        if (storedSettings != null)
         {
-            list.add(key);
+            for (String key : storedSettings.keySet())
+            {
+                list.add(key);
+            }
         }
         return list;
     }
@@ -149,8 +152,7 @@ public class AppConfigStorageItem
 
     public void putBoolean(String setting, boolean value)
     {
-        removeSetting(setting);
-        storedSettings.put(setting, value);
+        settingsForWriting().put(setting, value);
     }
 
     public void putInt(String setting, int value)
@@ -160,14 +162,12 @@ public class AppConfigStorageItem
 
     public void putLong(String setting, long value)
     {
-        removeSetting(setting);
-        storedSettings.put(setting, value);
+        settingsForWriting().put(setting, value);
     }
 
     public void putString(String setting, String value)
     {
-        removeSetting(setting);
-        storedSettings.put(setting, value);
+        settingsForWriting().put(setting, value);
     }
 
     public void put(String setting, Object value)
@@ -197,7 +197,7 @@ public class AppConfigStorageItem
 
     public boolean removeSetting(String setting)
     {
-        if (storedSettings.containsKey(setting))
+        if (storedSettings != null && storedSettings.containsKey(setting))
         {
             storedSettings.remove(setting);
             return true;
@@ -209,30 +209,23 @@ public class AppConfigStorageItem
     {
         if (item != null)
         {
-            ArrayList<String> valueList = item.valueList();
-            for (String value : valueList)
+            for (String value : item.valueList())
             {
-                Object setting = item.get(value);
-                if (setting instanceof Boolean)
-                {
-                    putBoolean(value, item.getBoolean(value) ? true : false);
-                }
-                else if (setting instanceof Integer)
-                {
-                    putInt(value, 0 + item.getInt(value));
-                }
-                else if (setting instanceof Long)
-                {
-                    putLong(value, 0 + item.getLong(value));
-                }
-                else if (setting instanceof String)
-                {
-                    putString(value, "" + item.getString(value));
-                }
+                put(value, item.get(value));
             }
         }
     }
 
+    private HashMap<String, Object> settingsForWriting()
+    {
+        // Created when needed, items which override the storage (or layered items without own values) don't use it
+        if (storedSettings == null)
+        {
+            storedSettings = new HashMap<>();
+        }
+        return storedSettings;
+    }
+
 
     // ---
     // Comparison
@@ -251,27 +244,18 @@ public class AppConfigStorageItem
 
             // Both should contain the same set of setting keys
             AppConfigStorageItem checkItem = (AppConfigStorageItem)o;
-            for (String key : storedSettings.keySet())
+            ArrayList<String> valueList = valueList();
+            if (valueList.size() != checkItem.valueList().size())
             {
-                if (!checkItem.storedSettings.containsKey(key))
-                {
-                    return false;
-                }
-            }
-            for (String key : checkItem.storedSettings.keySet())
-            {
-                if (!storedSettings.containsKey(key))
-                {
-                    return false;
-                }
+                return false;
             }
 
             // Values should be the same
-            for (String key : storedSettings.keySet())
+            for (String key : valueList)
             {
-                Object value1 = storedSettings.get(key);
-                Object value2 = checkItem.storedSettings.get(key);
-                if (!value1.equals(value2))
+                Object value1 = get(key);
+                Object value2 = checkItem.get(key);
+                if (value2 == null || !value1.equals(value2))
                 {
                     return false;
                 }
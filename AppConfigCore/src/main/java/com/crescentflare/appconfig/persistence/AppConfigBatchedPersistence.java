@@ -0,0 +1,11 @@
+package com.crescentflare.appconfig.persistence;
+
+/**
+ * Library persistence: an interface for storage backends which can combine changes
+ * Changes stored between beginBatch() and endBatch() are written together, when ending the batch
+ */
+public interface AppConfigBatchedPersistence extends AppConfigPersistence
+{
+    void beginBatch();
+    void endBatch();
+}
@@ -0,0 +1,387 @@
+package com.crescentflare.appconfig.persistence;
+
+
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Library persistence: single file storage
+ * Keeps all configurations in one compact binary file, which is read once and written completely after each change
+ * The file is replaced by renaming a temporary file, so it's never left half-written
+ * A file which can't be read is never overwritten, read and write errors are available through getLastError()
+ */
+public class AppConfigFilePersistence extends AppConfigMemoryPersistence implements AppConfigBatchedPersistence
+{
+    // ---
+    // Constants
+    // ---
+
+    private static final int MAGIC = 0x41435046;
+    private static final short VERSION = 1;
+    private static final byte TYPE_BOOLEAN = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_STRING = 3;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+
+    // ---
+    // Members
+    // ---
+
+    private final File file;
+    private boolean loaded = false;
+    private IOException loadError = null;
+    private IOException lastError = null;
+    private boolean batching = false;
+    private boolean batchChanged = false;
+
+
+    // ---
+    // Initialization
+    // ---
+
+    public AppConfigFilePersistence(File file)
+    {
+        this.file = file;
+    }
+
+
+    // ---
+    // Loading
+    // ---
+
+    @Override
+    public synchronized String loadSelectedConfigName()
+    {
+        readFile();
+        return super.loadSelectedConfigName();
+    }
+
+    @Override
+    public synchronized AppConfigStorageItem loadSelectedConfig()
+    {
+        readFile();
+        return super.loadSelectedConfig();
+    }
+
+    @Override
+    public synchronized AppConfigStorageItem loadGlobalConfig()
+    {
+        readFile();
+        return super.loadGlobalConfig();
+    }
+
+    @Override
+    public synchronized LinkedHashMap<String, AppConfigStorageItem> loadCustomConfigs()
+    {
+        readFile();
+        return super.loadCustomConfigs();
+    }
+
+
+    // ---
+    // Storing
+    // ---
+
+    @Override
+    public synchronized void storeSelectedConfig(String name, AppConfigStorageItem item)
+    {
+        readFile();
+        super.storeSelectedConfig(name, item);
+        writeFile();
+    }
+
+    @Override
+    public synchronized void storeGlobalConfig(AppConfigStorageItem item)
+    {
+        readFile();
+        super.storeGlobalConfig(item);
+        writeFile();
+    }
+
+    @Override
+    public synchronized void storeCustomConfig(String name, AppConfigStorageItem item)
+    {
+        readFile();
+        super.storeCustomConfig(name, item);
+        writeFile();
+    }
+
+    @Override
+    public synchronized void removeCustomConfig(String name)
+    {
+        readFile();
+        super.removeCustomConfig(name);
+        writeFile();
+    }
+
+
+    // ---
+    // Batches
+    // ---
+
+    @Override
+    public synchronized void beginBatch()
+    {
+        batching = true;
+    }
+
+    @Override
+    public synchronized void endBatch()
+    {
+        batching = false;
+        if (batchChanged)
+        {
+            batchChanged = false;
+            writeFile();
+        }
+    }
+
+
+    // ---
+    // Errors
+    // ---
+
+    public synchronized IOException getLastError()
+    {
+        // The error of the last failed read or write, null when the last write succeeded (and the file could be read)
+        return lastError;
+    }
+
+
+    // ---
+    // File handling
+    // ---
+
+    private void readFile()
+    {
+        if (loaded)
+        {
+            return;
+        }
+        loaded = true;
+        if (!file.isFile() || file.length() == 0)
+        {
+            return;
+        }
+        DataInputStream input = null;
+        try
+        {
+            input = new DataInputStream(new ByteArrayInputStream(readBytes(file)));
+            if (input.readInt() != MAGIC)
+            {
+                throw new IOException("Not a configuration file: " + file.getPath());
+            }
+            short version = input.readShort();
+            if (version != VERSION)
+            {
+                throw new IOException("Unsupported file version: " + version);
+            }
+            String selectedName = readString(input);
+            AppConfigStorageItem selectedItem = readItem(input);
+            AppConfigStorageItem globalItem = readItem(input);
+            LinkedHashMap<String, AppConfigStorageItem> customItems = new LinkedHashMap<>();
+            int customCount = readCount(input, 8);
+            for (int i = 0; i < customCount; i++)
+            {
+                String name = readString(input);
+                customItems.put(name, readItem(input));
+            }
+            super.storeSelectedConfig(selectedName, selectedItem);
+            super.storeGlobalConfig(globalItem);
+            for (Map.Entry<String, AppConfigStorageItem> entry : customItems.entrySet())
+            {
+                super.storeCustomConfig(entry.getKey(), entry.getValue());
+            }
+        }
+        catch (IOException exception)
+        {
+            // Keep the file as it is, writing would replace it with the (empty) state in memory
+            loadError = exception;
+            lastError = exception;
+        }
+        finally
+        {
+            closeQuietly(input);
+        }
+    }
+
+    private static byte[] readBytes(File file) throws IOException
+    {
+        if (file.length() > Integer.MAX_VALUE)
+        {
+            throw new IOException("File too large: " + file.length());
+        }
+        byte[] bytes = new byte[(int)file.length()];
+        DataInputStream input = new DataInputStream(new FileInputStream(file));
+        try
+        {
+            input.readFully(bytes);
+        }
+        finally
+        {
+            closeQuietly(input);
+        }
+        return bytes;
+    }
+
+    private void writeFile()
+    {
+        // Write once at the end when changes are combined in a batch
+        if (batching)
+        {
+            batchChanged = true;
+            return;
+        }
+        if (loadError != null)
+        {
+            lastError = loadError;
+            return;
+        }
+        File tempFile = new File(file.getPath() + ".tmp");
+        DataOutputStream output = null;
+        try
+        {
+            output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            output.writeInt(MAGIC);
+            output.writeShort(VERSION);
+            writeString(output, super.loadSelectedConfigName());
+            writeItem(output, super.loadSelectedConfig());
+            writeItem(output, super.loadGlobalConfig());
+            LinkedHashMap<String, AppConfigStorageItem> customItems = super.loadCustomConfigs();
+            output.writeInt(customItems.size());
+            for (Map.Entry<String, AppConfigStorageItem> entry : customItems.entrySet())
+            {
+                writeString(output, entry.getKey());
+                writeItem(output, entry.getValue());
+            }
+            output.close();
+            output = null;
+            if (!tempFile.renameTo(file))
+            {
+                file.delete();
+                if (!tempFile.renameTo(file))
+                {
+                    throw new IOException("Could not replace file: " + file.getPath());
+                }
+            }
+            lastError = null;
+        }
+        catch (IOException exception)
+        {
+            lastError = exception;
+            tempFile.delete();
+        }
+        finally
+        {
+            closeQuietly(output);
+        }
+    }
+
+    private static AppConfigStorageItem readItem(DataInputStream input) throws IOException
+    {
+        AppConfigStorageItem item = new AppConfigStorageItem();
+        int count = readCount(input, 5);
+        for (int i = 0; i < count; i++)
+        {
+            String key = readString(input);
+            byte type = input.readByte();
+            switch (type)
+            {
+                case TYPE_BOOLEAN:
+                    item.putBoolean(key, input.readBoolean());
+                    break;
+                case TYPE_LONG:
+                    item.putLong(key, input.readLong());
+                    break;
+                case TYPE_STRING:
+                    item.putString(key, readString(input));
+                    break;
+                default:
+                    throw new IOException("Unknown value type: " + type);
+            }
+        }
+        return item;
+    }
+
+    private static void writeItem(DataOutputStream output, AppConfigStorageItem item) throws IOException
+    {
+        output.writeInt(item.valueList().size());
+        for (String key : item.valueList())
+        {
+            Object value = item.get(key);
+            writeString(output, key);
+            if (value instanceof Boolean)
+            {
+                output.writeByte(TYPE_BOOLEAN);
+                output.writeBoolean((Boolean)value);
+            }
+            else if (value instanceof Integer || value instanceof Long)
+            {
+                output.writeByte(TYPE_LONG);
+                output.writeLong(item.getLong(key));
+            }
+            else
+            {
+                output.writeByte(TYPE_STRING);
+                writeString(output, item.getStringNotNull(key));
+            }
+        }
+    }
+
+    private static int readCount(DataInputStream input, int minimumEntrySize) throws IOException
+    {
+        // Each entry takes at least a few bytes, a count which doesn't fit in the rest of the file is corrupt
+        int count = input.readInt();
+        if (count < 0 || count > input.available() / minimumEntrySize)
+        {
+            throw new IOException("Invalid count: " + count);
+        }
+        return count;
+    }
+
+    private static String readString(DataInputStream input) throws IOException
+    {
+        int length = input.readInt();
+        if (length < 0 || length > input.available())
+        {
+            throw new IOException("Invalid string length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static void writeString(DataOutputStream output, String string) throws IOException
+    {
+        byte[] bytes = string.getBytes(UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static void closeQuietly(Closeable closeable)
+    {
+        if (closeable != null)
+        {
+            try
+            {
+                closeable.close();
+            }
+            catch (IOException ignored)
+            {
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.crescentflare.appconfig.persistence;
+
+
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Library persistence: in-memory storage
+ * Keeps copies of the stored configurations, nothing is kept after the process ends
+ * Useful for tests and benchmarks, also used as the base for the file storage
+ */
+public class AppConfigMemoryPersistence implements AppConfigPersistence
+{
+    // ---
+    // Members
+    // ---
+
+    private String selectedConfigName = "";
+    private AppConfigStorageItem selectedConfig = new AppConfigStorageItem();
+    private AppConfigStorageItem globalConfig = new AppConfigStorageItem();
+    private LinkedHashMap<String, AppConfigStorageItem> customConfigs = new LinkedHashMap<>();
+
+
+    // ---
+    // Selected configuration
+    // ---
+
+    @Override
+    public synchronized String loadSelectedConfigName()
+    {
+        return selectedConfigName;
+    }
+
+    @Override
+    public synchronized AppConfigStorageItem loadSelectedConfig()
+    {
+        return copyItem(selectedConfig);
+    }
+
+    @Override
+    public synchronized void storeSelectedConfig(String name, AppConfigStorageItem item)
+    {
+        boolean hasSelection = name != null && name.length() > 0;
+        selectedConfigName = hasSelection ? name : "";
+        selectedConfig = hasSelection ? copyItem(item) : new AppConfigStorageItem();
+    }
+
+
+    // ---
+    // Global configuration
+    // ---
+
+    @Override
+    public synchronized AppConfigStorageItem loadGlobalConfig()
+    {
+        return copyItem(globalConfig);
+    }
+
+    @Override
+    public synchronized void storeGlobalConfig(AppConfigStorageItem item)
+    {
+        globalConfig = copyItem(item);
+    }
+
+
+    // ---
+    // Custom configurations
+    // ---
+
+    @Override
+    public synchronized LinkedHashMap<String, AppConfigStorageItem> loadCustomConfigs()
+    {
+        LinkedHashMap<String, AppConfigStorageItem> result = new LinkedHashMap<>();
+        for (Map.Entry<String, AppConfigStorageItem> entry : customConfigs.entrySet())
+        {
+            result.put(entry.getKey(), copyItem(entry.getValue()));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void storeCustomConfig(String name, AppConfigStorageItem item)
+    {
+        customConfigs.remove(name);
+        customConfigs.put(name, copyItem(item));
+    }
+
+    @Override
+    public synchronized void removeCustomConfig(String name)
+    {
+        customConfigs.remove(name);
+    }
+
+
+    // ---
+    // Helper
+    // ---
+
+    private static AppConfigStorageItem copyItem(AppConfigStorageItem item)
+    {
+        AppConfigStorageItem result = new AppConfigStorageItem();
+        result.copyValues(item);
+        return result;
+    }
+}
@@ -0,0 +1,22 @@
+package com.crescentflare.appconfig.persistence;
+
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import java.util.LinkedHashMap;
+
+/**
+ * Library persistence: an interface to define a storage backend
+ * Stores the selected configuration (including its name), the global configuration and the custom configurations
+ * Implementations don't depend on Android, apart from the one using shared preferences
+ */
+public interface AppConfigPersistence
+{
+    String loadSelectedConfigName();
+    AppConfigStorageItem loadSelectedConfig();
+    void storeSelectedConfig(String name, AppConfigStorageItem item);
+    AppConfigStorageItem loadGlobalConfig();
+    void storeGlobalConfig(AppConfigStorageItem item);
+    LinkedHashMap<String, AppConfigStorageItem> loadCustomConfigs();
+    void storeCustomConfig(String name, AppConfigStorageItem item);
+    void removeCustomConfig(String name);
+}
@@ -0,0 +1,392 @@
+package com.crescentflare.appconfig.persistence;
+
+
+import com.crescentflare.appconfig.manager.AppConfigMetrics;
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Library persistence: write-behind storage
+ * Wraps another storage backend, changes are kept in memory and written together after a delay (or when flushing)
+ * Changed sections (selected, global and each custom configuration) are only written once, loading returns the latest changes
+ * Writing is always done on a background thread (unless calling flushSync), also without a delay
+ * Changes stored within a batch are only scheduled for writing when the batch ends, so they're written together
+ */
+public class AppConfigWriteBehindPersistence implements AppConfigBatchedPersistence
+{
+    // ---
+    // Members
+    // ---
+
+    private final AppConfigPersistence persistence;
+    private final Object flushLock = new Object();
+    private ScheduledExecutorService executor = null;
+    private ScheduledFuture<?> scheduledFlush = null;
+    private Changes pendingChanges = new Changes();
+    private Changes writingChanges = null;
+    private int batchDepth = 0;
+    private long delay;
+
+
+    // ---
+    // Initialization
+    // ---
+
+    public AppConfigWriteBehindPersistence(AppConfigPersistence persistence, long delayMillis)
+    {
+        this.persistence = persistence;
+        this.delay = delayMillis;
+    }
+
+    public AppConfigPersistence getPersistence()
+    {
+        return persistence;
+    }
+
+    public synchronized void setDelay(long delayMillis)
+    {
+        delay = delayMillis;
+    }
+
+
+    // ---
+    // Selected configuration
+    // ---
+
+    @Override
+    public synchronized String loadSelectedConfigName()
+    {
+        long startTime = AppConfigMetrics.start();
+        Changes changes = latestChanges(pendingChanges.selectedChanged, writingChanges != null && writingChanges.selectedChanged);
+        String result = changes != null ? changes.selectedName : persistence.loadSelectedConfigName();
+        AppConfigMetrics.stop(AppConfigMetrics.PREFERENCES_LOAD, startTime);
+        return result;
+    }
+
+    @Override
+    public synchronized AppConfigStorageItem loadSelectedConfig()
+    {
+        long startTime = AppConfigMetrics.start();
+        Changes changes = latestChanges(pendingChanges.selectedChanged, writingChanges != null && writingChanges.selectedChanged);
+        AppConfigStorageItem result = changes != null ? copyItem(changes.selectedItem) : persistence.loadSelectedConfig();
+        AppConfigMetrics.stop(AppConfigMetrics.PREFERENCES_LOAD, startTime);
+        return result;
+    }
+
+    @Override
+    public void storeSelectedConfig(String name, AppConfigStorageItem item)
+    {
+        synchronized (this)
+        {
+            pendingChanges.selectedChanged = true;
+            pendingChanges.selectedName = name;
+            pendingChanges.selectedItem = copyItem(item);
+        }
+        scheduleFlush();
+    }
+
+
+    // ---
+    // Global configuration
+    // ---
+
+    @Override
+    public synchronized AppConfigStorageItem loadGlobalConfig()
+    {
+        long startTime = AppConfigMetrics.start();
+        Changes changes = latestChanges(pendingChanges.globalItem != null, writingChanges != null && writingChanges.globalItem != null);
+        AppConfigStorageItem result = changes != null ? copyItem(changes.globalItem) : persistence.loadGlobalConfig();
+        AppConfigMetrics.stop(AppConfigMetrics.PREFERENCES_LOAD, startTime);
+        return result;
+    }
+
+    @Override
+    public void storeGlobalConfig(AppConfigStorageItem item)
+    {
+        synchronized (this)
+        {
+            pendingChanges.globalItem = copyItem(item);
+        }
+        scheduleFlush();
+    }
+
+
+    // ---
+    // Custom configurations
+    // ---
+
+    @Override
+    public synchronized LinkedHashMap<String, AppConfigStorageItem> loadCustomConfigs()
+    {
+        // Removed configurations are stored as null
+        long startTime = AppConfigMetrics.start();
+        LinkedHashMap<String, AppConfigStorageItem> result = persistence.loadCustomConfigs();
+        for (Changes changes : new Changes[] { writingChanges, pendingChanges })
+        {
+            if (changes != null)
+            {
+                for (Map.Entry<String, AppConfigStorageItem> entry : changes.customItems.entrySet())
+                {
+                    result.remove(entry.getKey());
+                    if (entry.getValue() != null)
+                    {
+                        result.put(entry.getKey(), copyItem(entry.getValue()));
+                    }
+                }
+            }
+        }
+        AppConfigMetrics.stop(AppConfigMetrics.PREFERENCES_LOAD, startTime);
+        return result;
+    }
+
+    @Override
+    public void storeCustomConfig(String name, AppConfigStorageItem item)
+    {
+        synchronized (this)
+        {
+            pendingChanges.customItems.remove(name);
+            pendingChanges.customItems.put(name, copyItem(item));
+        }
+        scheduleFlush();
+    }
+
+    @Override
+    public void removeCustomConfig(String name)
+    {
+        synchronized (this)
+        {
+            pendingChanges.customItems.remove(name);
+            pendingChanges.customItems.put(name, null);
+        }
+        scheduleFlush();
+    }
+
+
+    // ---
+    // Batches
+    // ---
+
+    @Override
+    public synchronized void beginBatch()
+    {
+        batchDepth++;
+    }
+
+    @Override
+    public synchronized void endBatch()
+    {
+        if (batchDepth > 0)
+        {
+            batchDepth--;
+            if (batchDepth == 0 && !pendingChanges.isEmpty())
+            {
+                schedule(delay);
+            }
+        }
+    }
+
+
+    // ---
+    // Flushing
+    // ---
+
+    public synchronized boolean hasPendingChanges()
+    {
+        return !pendingChanges.isEmpty() || writingChanges != null;
+    }
+
+    public synchronized void flush()
+    {
+        // Writes pending changes as soon as possible on the background thread
+        if (!pendingChanges.isEmpty())
+        {
+            schedule(0);
+        }
+    }
+
+    public void flushSync()
+    {
+        writePendingChanges(false);
+    }
+
+    private void writePendingChanges(boolean scheduled)
+    {
+        synchronized (flushLock)
+        {
+            // Take the pending changes, they can still be loaded while writing
+            // A scheduled write is skipped during a batch, the end of the batch schedules it again
+            Changes changes;
+            synchronized (this)
+            {
+                if (scheduledFlush != null)
+                {
+                    scheduledFlush.cancel(false);
+                    scheduledFlush = null;
+                }
+                if (pendingChanges.isEmpty() || (scheduled && batchDepth > 0))
+                {
+                    return;
+                }
+                changes = pendingChanges;
+                writingChanges = changes;
+                pendingChanges = new Changes();
+            }
+
+            // Write all changes in one batch, when it fails they're added to the pending changes again to retry with the next flush
+            long startTime = AppConfigMetrics.start();
+            boolean written = false;
+            try
+            {
+                if (persistence instanceof AppConfigBatchedPersistence)
+                {
+                    ((AppConfigBatchedPersistence)persistence).beginBatch();
+                }
+                try
+                {
+                    if (changes.selectedChanged)
+                    {
+                        persistence.storeSelectedConfig(changes.selectedName, changes.selectedItem);
+                    }
+                    if (changes.globalItem != null)
+                    {
+                        persistence.storeGlobalConfig(changes.globalItem);
+                    }
+                    for (Map.Entry<String, AppConfigStorageItem> entry : changes.customItems.entrySet())
+                    {
+                        if (entry.getValue() != null)
+                        {
+                            persistence.storeCustomConfig(entry.getKey(), entry.getValue());
+                        }
+                        else
+                        {
+                            persistence.removeCustomConfig(entry.getKey());
+                        }
+                    }
+                }
+                finally
+                {
+                    if (persistence instanceof AppConfigBatchedPersistence)
+                    {
+                        ((AppConfigBatchedPersistence)persistence).endBatch();
+                    }
+                }
+                written = true;
+            }
+            finally
+            {
+                synchronized (this)
+                {
+                    if (!written)
+                    {
+                        pendingChanges = changes.mergedWith(pendingChanges);
+                    }
+                    writingChanges = null;
+                }
+                AppConfigMetrics.stop(AppConfigMetrics.PREFERENCES_STORE, startTime);
+            }
+        }
+    }
+
+    private synchronized void scheduleFlush()
+    {
+        // Without a delay the changes are written directly, but still on the background thread to keep disk access away from the caller
+        if (batchDepth == 0)
+        {
+            schedule(delay);
+        }
+    }
+
+    private void schedule(long delayMillis)
+    {
+        // A new change postpones the write, so a quick series of changes is written once
+        if (scheduledFlush != null)
+        {
+            scheduledFlush.cancel(false);
+        }
+        if (executor == null)
+        {
+            executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(Runnable runnable)
+                {
+                    Thread thread = new Thread(runnable, "AppConfigWriteBehind");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        scheduledFlush = executor.schedule(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                writePendingChanges(true);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+
+    // ---
+    // Helpers
+    // ---
+
+    private Changes latestChanges(boolean pendingChanged, boolean writingChanged)
+    {
+        if (pendingChanged)
+        {
+            return pendingChanges;
+        }
+        return writingChanged ? writingChanges : null;
+    }
+
+    private static AppConfigStorageItem copyItem(AppConfigStorageItem item)
+    {
+        AppConfigStorageItem result = new AppConfigStorageItem();
+        result.copyValues(item);
+        return result;
+    }
+
+
+    // ---
+    // Changed sections which are not written yet
+    // ---
+
+    private static class Changes
+    {
+        boolean selectedChanged = false;
+        String selectedName = null;
+        AppConfigStorageItem selectedItem = null;
+        AppConfigStorageItem globalItem = null;
+        final LinkedHashMap<String, AppConfigStorageItem> customItems = new LinkedHashMap<>();
+
+        boolean isEmpty()
+        {
+            return !selectedChanged && globalItem == null && customItems.isEmpty();
+        }
+
+        Changes mergedWith(Changes newerChanges)
+        {
+            // Sections changed again in the newer changes replace the ones of these changes
+            Changes result = new Changes();
+            result.selectedChanged = selectedChanged || newerChanges.selectedChanged;
+            result.selectedName = newerChanges.selectedChanged ? newerChanges.selectedName : selectedName;
+            result.selectedItem = newerChanges.selectedChanged ? newerChanges.selectedItem : selectedItem;
+            result.globalItem = newerChanges.globalItem != null ? newerChanges.globalItem : globalItem;
+            result.customItems.putAll(customItems);
+            for (Map.Entry<String, AppConfigStorageItem> entry : newerChanges.customItems.entrySet())
+            {
+                result.customItems.remove(entry.getKey());
+                result.customItems.put(entry.getKey(), entry.getValue());
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.crescentflare.appconfig.manager;
+
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+
+/**
+ * Unit test: binary configuration format
+ */
+public class AppConfigBinaryFormatTest
+{
+    // ---
+    // Test cases
+    // ---
+
+    @Test
+    public void testReadAll() throws IOException
+    {
+        String json = "[{\"name\": \"Parent\", \"text\": \"välue\", \"number\": -8589934592, \"flag\": true, \"subConfigs\": [{\"name\": \"Child\", \"flag\": false}]}, {\"name\": \"Empty\"}]";
+        LinkedHashMap<String, AppConfigStorageItem> expected = AppConfigJsonLoader.load(new StringReader(json), null);
+        AppConfigBinaryFormat binaryFormat = AppConfigBinaryFormat.open(compile(json));
+        Assert.assertNotNull(binaryFormat);
+        Assert.assertEquals(Arrays.asList("Parent", "Child", "Empty"), binaryFormat.getConfigNames());
+        Assert.assertEquals(expected, binaryFormat.readAll(null));
+    }
+
+    @Test
+    public void testReadConfig() throws IOException
+    {
+        AppConfigStorageItem defaultItem = new AppConfigStorageItem();
+        defaultItem.putString("text", "default");
+        defaultItem.putLong("number", 5);
+        AppConfigBinaryFormat binaryFormat = AppConfigBinaryFormat.open(compile("[{\"name\": \"Parent\", \"text\": \"parent\", \"subConfigs\": [{\"name\": \"Child\", \"number\": 10}]}]"));
+        AppConfigStorageItem item = binaryFormat.readConfig("Child", defaultItem);
+        Assert.assertEquals("parent", item.getString("text"));
+        Assert.assertEquals(10, item.getLong("number"));
+        Assert.assertEquals(5, binaryFormat.readConfig("Parent", defaultItem).getLong("number"));
+        Assert.assertNull(binaryFormat.readConfig("Missing", defaultItem));
+    }
+
+    @Test
+    public void testInvalidData() throws IOException
+    {
+        ByteBuffer buffer = compile("[{\"name\": \"Test\", \"text\": \"value\"}]");
+        ByteBuffer truncated = ByteBuffer.wrap(Arrays.copyOf(buffer.array(), buffer.capacity() - 3));
+        Assert.assertNull(AppConfigBinaryFormat.open(ByteBuffer.wrap("[]".getBytes("UTF-8"))));
+        Assert.assertNull(AppConfigBinaryFormat.open(truncated).readAll(null));
+    }
+
+    @Test
+    public void testCorruptCounts() throws IOException
+    {
+        // The string count follows the magic number and version, the first string length follows the count
+        for (int offset : new int[] { 6, 10 })
+        {
+            for (int count : new int[] { -1, Integer.MAX_VALUE })
+            {
+                ByteBuffer buffer = compile("[{\"name\": \"Test\", \"text\": \"value\"}]");
+                buffer.putInt(offset, count);
+                Assert.assertNull(AppConfigBinaryFormat.open(buffer));
+            }
+        }
+    }
+
+
+    // ---
+    // Helper
+    // ---
+
+    private ByteBuffer compile(String json) throws IOException
+    {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        AppConfigBinaryFormat.write(AppConfigJsonLoader.load(new StringReader(json), null), outputStream);
+        return ByteBuffer.wrap(outputStream.toByteArray());
+    }
+}
@@ -0,0 +1,75 @@
+package com.crescentflare.appconfig.manager;
+
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+
+/**
+ * Unit test: configuration difference
+ */
+public class AppConfigDiffTest
+{
+    // ---
+    // Test cases
+    // ---
+
+    @Test
+    public void testChangedConfigValues()
+    {
+        AppConfigState state = createState().withSelectedConfigName("First");
+        AppConfigDiff diff = AppConfigDiff.between(state, state.withSelectedConfigName("Second"));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("name", "apiUrl", "removed")), diff.getChangedKeys());
+        Assert.assertEquals("https://first", diff.getOldValue("apiUrl"));
+        Assert.assertEquals("https://second", diff.getNewValue("apiUrl"));
+        Assert.assertNull(diff.getNewValue("removed"));
+        Assert.assertFalse(diff.hasChanged("timeout"));
+    }
+
+    @Test
+    public void testGlobalOverridesConfig()
+    {
+        AppConfigState state = createState().withSelectedConfigName("First");
+        AppConfigStorageItem globalItem = new AppConfigStorageItem();
+        globalItem.putString("apiUrl", "https://first");
+        globalItem.putBoolean("consoleEnabled", true);
+        AppConfigDiff diff = AppConfigDiff.between(state, state.withGlobalConfig(globalItem));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("consoleEnabled")), diff.getChangedKeys());
+        Assert.assertTrue(diff.hasChangedAny(Arrays.asList("logLevel", "consoleEnabled")));
+        Assert.assertFalse(diff.hasChangedAny(Arrays.asList("apiUrl", "timeout")));
+    }
+
+    @Test
+    public void testUnchanged()
+    {
+        AppConfigState state = createState().withSelectedConfigName("First");
+        Assert.assertTrue(AppConfigDiff.between(state, state).isEmpty());
+        Assert.assertTrue(AppConfigDiff.between(state, state.withConfig("Second", createItem("https://changed", 5))).isEmpty());
+    }
+
+
+    // ---
+    // Helpers
+    // ---
+
+    private AppConfigState createState()
+    {
+        LinkedHashMap<String, AppConfigStorageItem> storedConfigs = new LinkedHashMap<>();
+        storedConfigs.put("First", createItem("https://first", 10));
+        storedConfigs.put("Second", createItem("https://second", 10));
+        storedConfigs.get("First").putBoolean("removed", true);
+        return new AppConfigState().withStoredConfigs(new AppConfigStoredConfigs(storedConfigs));
+    }
+
+    private AppConfigStorageItem createItem(String apiUrl, long timeout)
+    {
+        AppConfigStorageItem item = new AppConfigStorageItem();
+        item.putString("apiUrl", apiUrl);
+        item.putLong("timeout", timeout);
+        return item;
+    }
+}
@@ -0,0 +1,102 @@
+package com.crescentflare.appconfig.manager;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Unit test: future for background operations
+ */
+public class AppConfigFutureTest
+{
+    // ---
+    // Test cases
+    // ---
+
+    @Test
+    public void testListeners() throws Exception
+    {
+        final ArrayList<String> calls = new ArrayList<>();
+        AppConfigFuture<String> future = new AppConfigFuture<>();
+        future.addListener(createListener(calls, "before"), AppConfigExecutors.DIRECT);
+        Assert.assertFalse(future.isDone());
+        Assert.assertEquals(0, calls.size());
+        future.complete("result");
+        future.addListener(createListener(calls, "after"), AppConfigExecutors.DIRECT);
+        Assert.assertTrue(future.isDone());
+        Assert.assertEquals("result", future.get());
+        Assert.assertEquals(Arrays.asList("before", "after"), calls);
+    }
+
+    @Test
+    public void testCompleteOnce() throws Exception
+    {
+        AppConfigFuture<String> future = new AppConfigFuture<>();
+        future.complete("first");
+        future.complete("second");
+        future.fail(new IllegalStateException());
+        Assert.assertEquals("first", future.get(1, TimeUnit.MILLISECONDS));
+        Assert.assertFalse(future.cancel(true));
+    }
+
+    @Test
+    public void testFailure() throws Exception
+    {
+        AppConfigFuture<String> future = new AppConfigFuture<>();
+        future.fail(new IllegalStateException("failed"));
+        try
+        {
+            future.get();
+            Assert.fail("Expected an execution exception");
+        }
+        catch (ExecutionException exception)
+        {
+            Assert.assertEquals("failed", exception.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testTimeout() throws Exception
+    {
+        final AppConfigFuture<String> future = new AppConfigFuture<>();
+        try
+        {
+            future.get(10, TimeUnit.MILLISECONDS);
+            Assert.fail("Expected a timeout");
+        }
+        catch (TimeoutException ignored)
+        {
+        }
+        new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                future.complete("background");
+            }
+        }).start();
+        Assert.assertEquals("background", future.get(5, TimeUnit.SECONDS));
+    }
+
+
+    // ---
+    // Helpers
+    // ---
+
+    private Runnable createListener(final ArrayList<String> calls, final String name)
+    {
+        return new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                calls.add(name);
+            }
+        };
+    }
+}
@@ -0,0 +1,118 @@
+package com.crescentflare.appconfig.manager;
+
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+
+/**
+ * Unit test: streaming configuration loader
+ */
+public class AppConfigJsonLoaderTest
+{
+    // ---
+    // Test cases
+    // ---
+
+    @Test
+    public void testLoadValues()
+    {
+        LinkedHashMap<String, AppConfigStorageItem> configs = load("[{\"name\": \"Test\", \"text\": \"value\", \"number\": 12, \"big\": 8589934592, \"flag\": true, \"ignored\": 1.5, \"empty\": null}]", null);
+        AppConfigStorageItem item = configs.get("Test");
+        Assert.assertEquals(1, configs.size());
+        Assert.assertEquals("value", item.getString("text"));
+        Assert.assertEquals(12, item.getInt("number"));
+        Assert.assertEquals(8589934592L, item.getLong("big"));
+        Assert.assertEquals(true, item.getBoolean("flag"));
+        Assert.assertNull(item.get("ignored"));
+        Assert.assertNull(item.get("empty"));
+        Assert.assertNull(item.get("name"));
+    }
+
+    @Test
+    public void testSubConfigs()
+    {
+        AppConfigStorageItem defaultItem = new AppConfigStorageItem();
+        defaultItem.putString("server", "default");
+        defaultItem.putLong("timeout", 10);
+        LinkedHashMap<String, AppConfigStorageItem> configs = load(
+                "[{\"name\": \"Parent\", \"server\": \"parent\", \"subConfigs\": [" +
+                "  {\"name\": \"Child\", \"timeout\": 20, \"subConfigs\": [{\"name\": \"Grandchild\"}]}," +
+                "  {\"name\": \"Other\", \"server\": \"other\"}" +
+                "]}, {\"name\": \"Next\"}]",
+                defaultItem
+        );
+        Assert.assertEquals(Arrays.asList("Parent", "Child", "Grandchild", "Other", "Next"), new ArrayList<>(configs.keySet()));
+        Assert.assertEquals("parent", configs.get("Child").getString("server"));
+        Assert.assertEquals(20, configs.get("Grandchild").getLong("timeout"));
+        Assert.assertEquals("parent", configs.get("Grandchild").getString("server"));
+        Assert.assertEquals("other", configs.get("Other").getString("server"));
+        Assert.assertEquals(10, configs.get("Other").getLong("timeout"));
+        Assert.assertEquals("default", configs.get("Next").getString("server"));
+    }
+
+    @Test
+    public void testValuesAfterSubConfigs()
+    {
+        LinkedHashMap<String, AppConfigStorageItem> configs = load(
+                "[{\"subConfigs\": [{\"name\": \"Child\", \"own\": \"child\", \"subConfigs\": [{\"name\": \"Grandchild\"}]}], \"inherited\": \"parent\", \"own\": \"parent\", \"name\": \"Parent\"}]",
+                null
+        );
+        Assert.assertEquals(Arrays.asList("Parent", "Child", "Grandchild"), new ArrayList<>(configs.keySet()));
+        Assert.assertEquals("parent", configs.get("Grandchild").getString("inherited"));
+        Assert.assertEquals("child", configs.get("Child").getString("own"));
+        Assert.assertEquals("child", configs.get("Grandchild").getString("own"));
+    }
+
+    @Test
+    public void testDuplicateKeys()
+    {
+        LinkedHashMap<String, AppConfigStorageItem> configs = load(
+                "[{\"name\": \"Parent\", \"value\": 1, \"subConfigs\": [{\"name\": \"Dropped\"}], \"subConfigs\": [{\"name\": \"Child\", \"value\": 2, \"value\": null}], \"value\": 3}," +
+                " {\"name\": \"Parent\", \"other\": true}]",
+                null
+        );
+        Assert.assertEquals(Arrays.asList("Parent", "Child"), new ArrayList<>(configs.keySet()));
+        Assert.assertEquals(3, configs.get("Child").getLong("value"));
+        Assert.assertEquals(true, configs.get("Parent").getBoolean("other"));
+    }
+
+    @Test
+    public void testLenientSyntax()
+    {
+        LinkedHashMap<String, AppConfigStorageItem> configs = load(
+                "[\n  // Comment\n  {name: 'Lenient'; hex = 0x1F, octal: 017, /* inline */ unquoted: text # trailing\n  , 'escaped': 'a\\u0041\\t'},\n  5,\n  ,\n  {\"name\": null}\n] trailing garbage",
+                null
+        );
+        Assert.assertEquals(Arrays.asList("Lenient", "null"), new ArrayList<>(configs.keySet()));
+        AppConfigStorageItem item = configs.get("Lenient");
+        Assert.assertEquals(31, item.getInt("hex"));
+        Assert.assertEquals(15, item.getInt("octal"));
+        Assert.assertEquals("text", item.getString("unquoted"));
+        Assert.assertEquals("aA\t", item.getString("escaped"));
+    }
+
+    @Test
+    public void testInvalidInput()
+    {
+        Assert.assertEquals(0, load("{\"name\": \"Object\"}", null).size());
+        Assert.assertEquals(0, load("[{\"name\": \"Unterminated\"}", null).size());
+        Assert.assertEquals(0, load("[{\"name\": \"Valid\"}, {\"name\": \"Invalid\", \"value\": NaN}]", null).size());
+        Assert.assertEquals(0, load("", null).size());
+    }
+
+
+    // ---
+    // Helper
+    // ---
+
+    private LinkedHashMap<String, AppConfigStorageItem> load(String json, AppConfigStorageItem defaultItem)
+    {
+        return AppConfigJsonLoader.load(new StringReader(json), defaultItem);
+    }
+}
@@ -0,0 +1,78 @@
+package com.crescentflare.appconfig.manager;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit test: metrics
+ */
+public class AppConfigMetricsTest
+{
+    // ---
+    // Cleanup
+    // ---
+
+    @After
+    public void tearDown()
+    {
+        AppConfigMetrics.setEnabled(false);
+        AppConfigMetrics.setSink(null);
+        AppConfigMetrics.reset();
+    }
+
+
+    // ---
+    // Test cases
+    // ---
+
+    @Test
+    public void testDisabled()
+    {
+        long startTime = AppConfigMetrics.start();
+        Assert.assertEquals(AppConfigMetrics.NOT_STARTED, startTime);
+        AppConfigMetrics.stop(AppConfigMetrics.INIT, startTime);
+        AppConfigMetrics.record(AppConfigMetrics.INIT, 1000);
+        Assert.assertTrue(AppConfigMetrics.snapshot().isEmpty());
+    }
+
+    @Test
+    public void testHistogram()
+    {
+        AppConfigMetrics.setEnabled(true);
+        for (int i = 1; i <= 100; i++)
+        {
+            AppConfigMetrics.record(AppConfigMetrics.APPLY_CURRENT_CONFIG, i * 1000);
+        }
+        AppConfigMetrics.Entry entry = AppConfigMetrics.snapshot().getEntry(AppConfigMetrics.APPLY_CURRENT_CONFIG);
+        Assert.assertEquals(100, entry.getCount());
+        Assert.assertEquals(50500, entry.getAverageNanos());
+        Assert.assertEquals(100000, entry.getMaxNanos());
+        Assert.assertTrue(entry.getPercentileNanos(50) >= 50000 && entry.getPercentileNanos(50) < 100000);
+        Assert.assertEquals(100000, entry.getPercentileNanos(100));
+    }
+
+    @Test
+    public void testSinkAndSubjects()
+    {
+        final List<String> recorded = new ArrayList<>();
+        AppConfigMetrics.setEnabled(true);
+        AppConfigMetrics.setSink(new AppConfigMetrics.Sink()
+        {
+            @Override
+            public void onRecord(String name, long durationNanos)
+            {
+                recorded.add(name);
+            }
+        });
+        AppConfigMetrics.stop(AppConfigMetrics.CHANGED_CONFIG_LISTENER, "listener", AppConfigMetrics.start());
+        AppConfigMetrics.stop(AppConfigMetrics.CHANGED_CONFIG_LISTENER, "listener", AppConfigMetrics.start());
+        String name = AppConfigMetrics.CHANGED_CONFIG_LISTENER + ":" + String.class.getName();
+        Assert.assertEquals(2, AppConfigMetrics.snapshot().getCount(name));
+        Assert.assertEquals(2, recorded.size());
+        Assert.assertEquals(name, recorded.get(0));
+    }
+}
@@ -0,0 +1,107 @@
+package com.crescentflare.appconfig.manager;
+
+import com.crescentflare.appconfig.model.AppConfigBaseModelTest;
+import com.crescentflare.appconfig.model.AppConfigModelDescriptor;
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+
+/**
+ * Unit test: search index
+ */
+public class AppConfigSearchIndexTest
+{
+    // ---
+    // Test cases
+    // ---
+
+    @Test
+    public void testPrefixWords()
+    {
+        AppConfigSearchIndex index = new AppConfigSearchIndex.Builder()
+                .add("group", "first", "apiUrl", "https://test.example.com")
+                .add("group", "second", "Production server")
+                .add("other", "third", "apiKey")
+                .build();
+        Assert.assertEquals(Arrays.asList("first"), Arrays.asList(index.search("group", "url").toArray()));
+        Assert.assertEquals(Arrays.asList("first"), Arrays.asList(index.search("group", "APIU").toArray()));
+        Assert.assertEquals(Arrays.asList("first"), Arrays.asList(index.search("group", "test exam").toArray()));
+        Assert.assertEquals(Arrays.asList("second"), Arrays.asList(index.search("group", "prod").toArray()));
+        Assert.assertEquals(Arrays.asList("third"), Arrays.asList(index.search("other", "api").toArray()));
+        Assert.assertEquals(Collections.emptySet(), index.search("group", "test production"));
+        Assert.assertEquals(Collections.emptySet(), index.search("group", "erver"));
+        Assert.assertNull(index.search("group", " - "));
+    }
+
+    @Test
+    public void testForState()
+    {
+        LinkedHashMap<String, AppConfigStorageItem> storedConfigs = new LinkedHashMap<>();
+        storedConfigs.put("Test server", createItem("stringField", "staging"));
+        storedConfigs.put("Production", createItem("stringField", "live"));
+        LinkedHashMap<String, AppConfigStorageItem> customConfigs = new LinkedHashMap<>();
+        customConfigs.put("Custom test", createItem("stringField", "local"));
+        AppConfigState state = new AppConfigState()
+                .withStoredConfigs(new AppConfigStoredConfigs(storedConfigs))
+                .withCustomConfigs(customConfigs)
+                .withGlobalConfig(createItem("globalStringField", "verbose"));
+        AppConfigModelDescriptor descriptor = AppConfigModelDescriptor.forClass(AppConfigBaseModelTest.DerivedModelWithMethods.class);
+        AppConfigSearchIndex index = AppConfigSearchIndex.forState(state, descriptor);
+        Assert.assertEquals(Arrays.asList("Test server", "Custom test"), Arrays.asList(index.search(AppConfigSearchIndex.GROUP_CONFIGS, "test").toArray()));
+        Assert.assertEquals(Arrays.asList("Production"), Arrays.asList(index.search(AppConfigSearchIndex.GROUP_CONFIGS, "live").toArray()));
+        Assert.assertEquals(Collections.emptySet(), index.search(AppConfigSearchIndex.settingsGroup("Custom test"), "local"));
+        Assert.assertEquals(Arrays.asList("globalStringField"), Arrays.asList(index.search(AppConfigSearchIndex.GROUP_GLOBAL_SETTINGS, "global strings verb").toArray()));
+    }
+
+    @Test
+    public void testForStateNotLoading()
+    {
+        final ArrayList<Integer> loadedIndices = new ArrayList<>();
+        AppConfigStoredConfigs storedConfigs = new AppConfigStoredConfigs(Arrays.asList("Test server", "Production"), new AppConfigStoredConfigs.Loader()
+        {
+            @Override
+            public AppConfigStorageItem loadConfig(int index)
+            {
+                loadedIndices.add(index);
+                return createItem("stringField", index == 0 ? "staging" : "live");
+            }
+        }, 2);
+        AppConfigState state = new AppConfigState().withStoredConfigs(storedConfigs).withGlobalConfig(new AppConfigStorageItem());
+        state.getConfig("Production");
+        AppConfigSearchIndex index = AppConfigSearchIndex.forState(state, null);
+        Assert.assertEquals(Arrays.asList("Test server"), Arrays.asList(index.search(AppConfigSearchIndex.GROUP_CONFIGS, "server").toArray()));
+        Assert.assertEquals(Collections.emptySet(), index.search(AppConfigSearchIndex.GROUP_CONFIGS, "staging"));
+        Assert.assertEquals(Arrays.asList("Production"), Arrays.asList(index.search(AppConfigSearchIndex.GROUP_CONFIGS, "live").toArray()));
+        Assert.assertEquals(Arrays.asList(1), loadedIndices);
+        Assert.assertEquals(1, storedConfigs.cachedCount());
+    }
+
+    @Test
+    public void testForConfig()
+    {
+        AppConfigModelDescriptor descriptor = AppConfigModelDescriptor.forClass(AppConfigBaseModelTest.DerivedModelWithMethods.class);
+        AppConfigSearchIndex index = AppConfigSearchIndex.forConfig("Custom test", createItem("stringField", "local"), descriptor);
+        Assert.assertEquals(Arrays.asList("stringField"), Arrays.asList(index.search(AppConfigSearchIndex.settingsGroup("Custom test"), "local").toArray()));
+        Assert.assertEquals(2, index.search(AppConfigSearchIndex.settingsGroup("Custom test"), "enums").size());
+        Assert.assertEquals(Collections.emptySet(), index.search(AppConfigSearchIndex.settingsGroup("Production"), "local"));
+        Assert.assertEquals(Collections.emptySet(), index.search(AppConfigSearchIndex.GROUP_GLOBAL_SETTINGS, "global"));
+    }
+
+
+    // ---
+    // Helpers
+    // ---
+
+    private AppConfigStorageItem createItem(String key, String value)
+    {
+        AppConfigStorageItem item = new AppConfigStorageItem();
+        item.putString(key, value);
+        return item;
+    }
+}
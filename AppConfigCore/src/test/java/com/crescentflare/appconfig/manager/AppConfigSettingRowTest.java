@@ -0,0 +1,76 @@
+package com.crescentflare.appconfig.manager;
+
+import com.crescentflare.appconfig.model.AppConfigBaseModelTest;
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit test: setting row
+ */
+public class AppConfigSettingRowTest
+{
+    // ---
+    // Test cases
+    // ---
+
+    @Test
+    public void testForValue()
+    {
+        Assert.assertEquals(AppConfigSettingRow.Type.SWITCH, AppConfigSettingRow.forValue("key", null, true).getType());
+        Assert.assertEquals(12L, AppConfigSettingRow.forValue("key", null, 12).getValue());
+        Assert.assertEquals(AppConfigSettingRow.Type.TEXT, AppConfigSettingRow.forValue("key", null, "text").getType());
+        AppConfigSettingRow choiceRow = AppConfigSettingRow.forValue("key", "Enums", AppConfigBaseModelTest.SimpleEnum.Value);
+        Assert.assertEquals(AppConfigSettingRow.Type.CHOICE, choiceRow.getType());
+        Assert.assertEquals("Value", choiceRow.getValue());
+        Assert.assertEquals(Arrays.asList("Simple", "Value", "Name"), choiceRow.getChoices());
+        Assert.assertNull(AppConfigSettingRow.forValue("key", null, 1.5f));
+        Assert.assertNull(AppConfigSettingRow.forValue("key", null, null));
+    }
+
+    @Test
+    public void testPrepareList()
+    {
+        AppConfigStorageItem item = new AppConfigStorageItem();
+        item.putString("stringField", "Prepared");
+        item.putLong("intField", 42);
+        List<AppConfigSettingRow> rows = AppConfigSettingRow.prepareList(new AppConfigBaseModelTest.DerivedModelWithMethods(), "Test", item, false, new AppConfigCancellationToken());
+        Assert.assertEquals(6, rows.size());
+        for (AppConfigSettingRow row : rows)
+        {
+            if (row.getKey().equals("stringField"))
+            {
+                Assert.assertEquals("Strings", row.getCategory());
+                Assert.assertEquals("Prepared", row.getValue());
+            }
+            else if (row.getKey().equals("intField"))
+            {
+                Assert.assertEquals(AppConfigSettingRow.Type.NUMBER, row.getType());
+                Assert.assertEquals(42L, row.getValue());
+            }
+            else if (row.getKey().equals("boolField"))
+            {
+                Assert.assertEquals("", row.getCategory());
+            }
+        }
+        Assert.assertEquals(4, AppConfigSettingRow.groupByCategory(rows).size());
+        Assert.assertEquals(2, AppConfigSettingRow.groupByCategory(rows).get("Numbers").size());
+        List<AppConfigSettingRow> globalRows = AppConfigSettingRow.prepareList(new AppConfigBaseModelTest.DerivedModelWithMethods(), "Global", new AppConfigStorageItem(), true, new AppConfigCancellationToken());
+        Assert.assertEquals(2, globalRows.size());
+    }
+
+    @Test
+    public void testCancelled()
+    {
+        AppConfigCancellationToken token = new AppConfigCancellationToken();
+        AppConfigStorageItem item = new AppConfigStorageItem();
+        item.putString("stringField", "Cancelled");
+        token.cancel();
+        Assert.assertNull(AppConfigSettingRow.prepareList(new AppConfigBaseModelTest.DerivedModelWithMethods(), "Test", item, false, token));
+        Assert.assertNull(AppConfigSettingRow.prepareList(null, "Test", item, false, token));
+    }
+}
@@ -0,0 +1,43 @@
+package com.crescentflare.appconfig.manager;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit test: loaded source cache
+ */
+public class AppConfigSourceCacheTest
+{
+    // ---
+    // Test cases
+    // ---
+
+    @Test
+    public void testHitsAndMisses()
+    {
+        AppConfigSourceCache cache = new AppConfigSourceCache();
+        AppConfigStoredConfigs configs = new AppConfigStoredConfigs();
+        String key = AppConfigSourceCache.key("appConfig.bin", 1000, 0, null);
+        Assert.assertNull(cache.get(key));
+        cache.put(key, configs);
+        Assert.assertSame(configs, cache.get(key));
+        Assert.assertSame(configs, cache.get(key));
+        Assert.assertNull(cache.get(AppConfigSourceCache.key("appConfig.bin", 2000, 0, null)));
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testEviction()
+    {
+        AppConfigSourceCache cache = new AppConfigSourceCache();
+        for (int i = 0; i < 5; i++)
+        {
+            cache.put(AppConfigSourceCache.key("appConfig.json", i, 0, null), new AppConfigStoredConfigs());
+        }
+        Assert.assertNull(cache.get(AppConfigSourceCache.key("appConfig.json", 0, 0, null)));
+        Assert.assertNotNull(cache.get(AppConfigSourceCache.key("appConfig.json", 4, 0, null)));
+        cache.clear();
+        Assert.assertNull(cache.get(AppConfigSourceCache.key("appConfig.json", 4, 0, null)));
+    }
+}
@@ -0,0 +1,78 @@
+package com.crescentflare.appconfig.manager;
+
+import com.crescentflare.appconfig.model.AppConfigBaseModel;
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+
+/**
+ * Unit test: configuration source loader
+ */
+public class AppConfigSourceLoaderTest
+{
+    // ---
+    // Test cases
+    // ---
+
+    @Test
+    public void testDefaultItem()
+    {
+        AppConfigStorageItem defaultItem = AppConfigSourceLoader.createDefaultItem(new TestModel());
+        Assert.assertEquals("https://default", defaultItem.getString("apiUrl"));
+        Assert.assertEquals(30, defaultItem.getInt("timeout"));
+        Assert.assertEquals(true, defaultItem.getBoolean("enabled"));
+        Assert.assertNull(defaultItem.get("name"));
+        Assert.assertNull(AppConfigSourceLoader.createDefaultItem(null));
+    }
+
+    @Test
+    public void testLoadJson()
+    {
+        AppConfigStorageItem defaultItem = AppConfigSourceLoader.createDefaultItem(new TestModel());
+        AppConfigStoredConfigs configs = AppConfigSourceLoader.loadJson(new StringReader("[{\"name\": \"Test\", \"timeout\": 10}]"), defaultItem);
+        Assert.assertEquals(Arrays.asList("Test"), configs.nameList());
+        Assert.assertEquals(10, configs.get("Test").getInt("timeout"));
+        Assert.assertEquals("https://default", configs.get("Test").getString("apiUrl"));
+    }
+
+    @Test
+    public void testLoadBinary() throws Exception
+    {
+        LinkedHashMap<String, AppConfigStorageItem> sourceConfigs = new LinkedHashMap<>();
+        sourceConfigs.put("First", new AppConfigStorageItem());
+        sourceConfigs.put("Second", new AppConfigStorageItem());
+        sourceConfigs.get("Second").putString("apiUrl", "https://second");
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        AppConfigBinaryFormat.write(sourceConfigs, outputStream);
+        ByteBuffer buffer = ByteBuffer.wrap(outputStream.toByteArray());
+        AppConfigStorageItem defaultItem = AppConfigSourceLoader.createDefaultItem(new TestModel());
+        for (int cacheSize : new int[] { 0, 1 })
+        {
+            AppConfigStoredConfigs configs = AppConfigSourceLoader.loadBinary(buffer, defaultItem, cacheSize);
+            Assert.assertEquals(Arrays.asList("First", "Second"), configs.nameList());
+            Assert.assertEquals("https://default", configs.get("First").getString("apiUrl"));
+            Assert.assertEquals("https://second", configs.get("Second").getString("apiUrl"));
+        }
+        Assert.assertNull(AppConfigSourceLoader.loadBinary(ByteBuffer.wrap(new byte[] { 1, 2, 3 }), defaultItem, 0));
+        Assert.assertNull(AppConfigSourceLoader.loadBinary(null, defaultItem, 0));
+    }
+
+
+    // ---
+    // Helper
+    // ---
+
+    public static class TestModel extends AppConfigBaseModel
+    {
+        public String apiUrl = "https://default";
+        public int timeout = 30;
+        public boolean enabled = true;
+    }
+}
@@ -0,0 +1,144 @@
+package com.crescentflare.appconfig.manager;
+
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+
+/**
+ * Unit test: configuration state
+ */
+public class AppConfigStateTest
+{
+    // ---
+    // Test cases
+    // ---
+
+    @Test
+    public void testLookup()
+    {
+        AppConfigState state = createState().withSelectedConfigName("Second");
+        Assert.assertEquals("second", state.getSelectedConfig().getString("value"));
+        Assert.assertEquals("custom", state.getConfig("First").getString("value"));
+        Assert.assertTrue(state.isConfigOverride("First"));
+        Assert.assertTrue(state.isCustomConfig("Custom"));
+        Assert.assertFalse(state.isCustomConfig("Second"));
+        Assert.assertTrue(state.containsConfig("Custom"));
+        Assert.assertNull(state.getConfig("Missing"));
+        Assert.assertEquals(0, state.getConfigNotNull("Missing").valueList().size());
+    }
+
+    @Test
+    public void testCopyOnWrite()
+    {
+        AppConfigState state = createState().withSelectedConfigName("Second");
+        AppConfigState changedState = state.withConfig("Second", createItem("changed")).withConfig("First", createItem("changed"));
+        Assert.assertEquals("second", state.getSelectedConfig().getString("value"));
+        Assert.assertEquals("changed", changedState.getSelectedConfig().getString("value"));
+        Assert.assertEquals("custom", state.getConfig("First").getString("value"));
+        Assert.assertEquals("changed", changedState.getConfig("First").getString("value"));
+        Assert.assertEquals(Arrays.asList("First", "Second"), changedState.configList());
+        Assert.assertSame(state, state.withConfig("Missing", createItem("ignored")));
+    }
+
+    @Test
+    public void testPinnedSelection()
+    {
+        AppConfigStoredConfigs storedConfigs = new AppConfigStoredConfigs();
+        AppConfigState state = new AppConfigState().withStoredConfigs(storedConfigs).withSelectedConfigName("Second");
+        AppConfigState pinnedState = state.withPinnedSelection();
+        Assert.assertFalse(storedConfigs.isPinned("Second"));
+        Assert.assertNotSame(state, pinnedState);
+        Assert.assertSame(pinnedState, pinnedState.withPinnedSelection());
+    }
+
+    @Test
+    public void testRemove()
+    {
+        AppConfigState state = createState().withSelectedConfigName("First");
+        AppConfigState removedCustom = state.withoutConfig("First");
+        AppConfigState removedStored = removedCustom.withoutConfig("First");
+        Assert.assertEquals("", removedCustom.getSelectedConfigName());
+        Assert.assertEquals("first", removedCustom.getConfig("First").getString("value"));
+        Assert.assertFalse(removedStored.containsConfig("First"));
+        Assert.assertTrue(state.containsConfig("First"));
+        Assert.assertEquals("First", state.getSelectedConfigName());
+        Assert.assertSame(removedStored, removedStored.withoutConfig("First"));
+    }
+
+    @Test
+    public void testChangesInOrder()
+    {
+        AppConfigState state = createState();
+        AppConfigState selectedFirst = new AppConfigStateChanges().selectConfig("New").putCustomConfig("New", createItem("new")).apply(state);
+        AppConfigState addedFirst = new AppConfigStateChanges().putCustomConfig("New", createItem("new")).selectConfig("New").apply(state);
+        AppConfigState changedAfterSelect = new AppConfigStateChanges().changeCurrentConfig("value", "changed").selectConfig("Second").changeCurrentConfig("other", "changed").apply(state);
+        Assert.assertEquals("", selectedFirst.getSelectedConfigName());
+        Assert.assertEquals("New", addedFirst.getSelectedConfigName());
+        Assert.assertEquals("second", changedAfterSelect.getSelectedConfig().getString("value"));
+        Assert.assertEquals("changed", changedAfterSelect.getSelectedConfig().getString("other"));
+        Assert.assertNull(changedAfterSelect.getConfig("First").getString("other"));
+    }
+
+    @Test
+    public void testRenameAndReselect()
+    {
+        AppConfigState state = createState().withSelectedConfigName("Custom");
+        AppConfigState renamedState = new AppConfigStateChanges()
+                .putCustomConfig("Renamed", state.getConfig("Custom"))
+                .removeConfig("Custom")
+                .selectConfig("Renamed")
+                .apply(state);
+        Assert.assertEquals("Renamed", renamedState.getSelectedConfigName());
+        Assert.assertEquals("custom", renamedState.getSelectedConfig().getString("value"));
+        Assert.assertFalse(renamedState.containsConfig("Custom"));
+        Assert.assertEquals(Arrays.asList("First", "Renamed"), renamedState.customConfigList());
+        Assert.assertEquals(Arrays.asList("Custom", "Renamed"), renamedState.changedCustomConfigs(state));
+        Assert.assertTrue(renamedState.isSelectedConfigChanged(state));
+        Assert.assertFalse(renamedState.isGlobalConfigChanged(state));
+    }
+
+    @Test
+    public void testSkipUnchangedSections()
+    {
+        AppConfigState state = createState().withSelectedConfigName("Second");
+        Assert.assertSame(state, new AppConfigStateChanges().apply(state));
+        AppConfigState globalChanged = new AppConfigStateChanges().changeGlobalConfig("value", "global").apply(state);
+        Assert.assertEquals(0, globalChanged.changedCustomConfigs(state).size());
+        Assert.assertFalse(globalChanged.isSelectedConfigChanged(state));
+        Assert.assertTrue(globalChanged.isGlobalConfigChanged(state));
+        AppConfigState customChanged = new AppConfigStateChanges().putCustomConfig("Second", createItem("second")).putCustomConfig("Custom", createItem("changed")).apply(state);
+        Assert.assertEquals(Arrays.asList("Custom"), customChanged.changedCustomConfigs(state));
+        Assert.assertFalse(customChanged.isSelectedConfigChanged(state));
+        Assert.assertFalse(customChanged.isGlobalConfigChanged(state));
+        AppConfigState selectionChanged = new AppConfigStateChanges().changeCurrentConfig("value", "changed").apply(state);
+        Assert.assertEquals(0, selectionChanged.changedCustomConfigs(state).size());
+        Assert.assertTrue(selectionChanged.isSelectedConfigChanged(state));
+    }
+
+
+    // ---
+    // Helpers
+    // ---
+
+    private AppConfigState createState()
+    {
+        LinkedHashMap<String, AppConfigStorageItem> storedConfigs = new LinkedHashMap<>();
+        storedConfigs.put("First", createItem("first"));
+        storedConfigs.put("Second", createItem("second"));
+        LinkedHashMap<String, AppConfigStorageItem> customConfigs = new LinkedHashMap<>();
+        customConfigs.put("First", createItem("custom"));
+        customConfigs.put("Custom", createItem("custom"));
+        return new AppConfigState().withStoredConfigs(new AppConfigStoredConfigs(storedConfigs)).withCustomConfigs(customConfigs);
+    }
+
+    private AppConfigStorageItem createItem(String value)
+    {
+        AppConfigStorageItem item = new AppConfigStorageItem();
+        item.putString("value", value);
+        return item;
+    }
+}
@@ -0,0 +1,112 @@
+package com.crescentflare.appconfig.manager;
+
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Unit test: stored configurations
+ */
+public class AppConfigStoredConfigsTest
+{
+    // ---
+    // Test cases
+    // ---
+
+    @Test
+    public void testLazyLoading()
+    {
+        CountingLoader loader = new CountingLoader();
+        AppConfigStoredConfigs configs = new AppConfigStoredConfigs(Arrays.asList("First", "Second", "Third"), loader, 2);
+        Assert.assertEquals(Arrays.asList("First", "Second", "Third"), configs.nameList());
+        Assert.assertEquals(0, loader.loadedIndices.size());
+        Assert.assertEquals(1, configs.get("Second").getInt("index"));
+        Assert.assertSame(configs.get("Second"), configs.get("Second"));
+        Assert.assertNull(configs.get("Missing"));
+        Assert.assertEquals(Arrays.asList(1), loader.loadedIndices);
+    }
+
+    @Test
+    public void testCacheEviction()
+    {
+        CountingLoader loader = new CountingLoader();
+        AppConfigStoredConfigs configs = new AppConfigStoredConfigs(Arrays.asList("First", "Second", "Third"), loader, 2);
+        configs.get("First");
+        configs.get("Second");
+        configs.get("First");
+        configs.get("Third");
+        configs.get("First");
+        configs.get("Second");
+        Assert.assertEquals(2, configs.cachedCount());
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 1), loader.loadedIndices);
+    }
+
+    @Test
+    public void testPinnedConfig()
+    {
+        CountingLoader loader = new CountingLoader();
+        AppConfigStoredConfigs configs = new AppConfigStoredConfigs(Arrays.asList("First", "Second", "Third"), loader, 1);
+        configs.pin("First");
+        AppConfigStorageItem pinnedItem = configs.get("First");
+        configs.get("Second");
+        configs.get("Third");
+        Assert.assertSame(pinnedItem, configs.get("First"));
+        Assert.assertEquals(Arrays.asList(0, 1, 2), loader.loadedIndices);
+    }
+
+    @Test
+    public void testModify()
+    {
+        AppConfigStoredConfigs configs = new AppConfigStoredConfigs(Arrays.asList("First", "Second"), new CountingLoader(), 1);
+        AppConfigStorageItem item = new AppConfigStorageItem();
+        configs.put("First", item);
+        configs.put("Added", item);
+        Assert.assertEquals(Arrays.asList("Second", "First", "Added"), configs.nameList());
+        Assert.assertSame(item, configs.get("First"));
+        Assert.assertTrue(configs.remove("Second"));
+        Assert.assertFalse(configs.remove("Second"));
+        Assert.assertFalse(configs.contains("Second"));
+        Assert.assertNull(configs.get("Second"));
+    }
+
+    @Test
+    public void testCopy()
+    {
+        CountingLoader loader = new CountingLoader();
+        AppConfigStoredConfigs configs = new AppConfigStoredConfigs(Arrays.asList("First", "Second"), loader, 2);
+        AppConfigStorageItem loadedItem = configs.get("First");
+        AppConfigStoredConfigs copy = configs.copy();
+        AppConfigStorageItem item = new AppConfigStorageItem();
+        copy.replace("First", item);
+        copy.remove("Second");
+        Assert.assertSame(item, copy.get("First"));
+        Assert.assertEquals(Arrays.asList("First"), copy.nameList());
+        Assert.assertEquals(Arrays.asList("First", "Second"), configs.nameList());
+        Assert.assertEquals(0, configs.get("First").getInt("index"));
+        Assert.assertNotSame(item, configs.get("First"));
+        Assert.assertNotNull(loadedItem);
+    }
+
+
+    // ---
+    // Helper
+    // ---
+
+    private static class CountingLoader implements AppConfigStoredConfigs.Loader
+    {
+        final ArrayList<Integer> loadedIndices = new ArrayList<>();
+
+        @Override
+        public AppConfigStorageItem loadConfig(int index)
+        {
+            AppConfigStorageItem item = new AppConfigStorageItem();
+            item.putInt("index", index);
+            loadedIndices.add(index);
+            return item;
+        }
+    }
+}
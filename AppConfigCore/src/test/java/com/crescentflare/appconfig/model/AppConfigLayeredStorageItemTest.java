@@ -0,0 +1,82 @@
+package com.crescentflare.appconfig.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Unit test: layered storage item
+ */
+public class AppConfigLayeredStorageItemTest
+{
+    // ---
+    // Test cases
+    // ---
+
+    @Test
+    public void testLookup()
+    {
+        AppConfigStorageItem parent = new AppConfigStorageItem();
+        parent.putString("inherited", "parent");
+        parent.putLong("overridden", 1);
+        AppConfigLayeredStorageItem item = new AppConfigLayeredStorageItem(new AppConfigLayeredStorageItem(parent));
+        item.putLong("overridden", 2);
+        item.putBoolean("own", true);
+        Assert.assertEquals("parent", item.getString("inherited"));
+        Assert.assertEquals(2, item.getLong("overridden"));
+        Assert.assertEquals(1, parent.getLong("overridden"));
+        Assert.assertEquals(true, item.getBoolean("own"));
+        Assert.assertEquals(Arrays.asList("inherited", "overridden", "own"), sorted(item.valueList()));
+    }
+
+    @Test
+    public void testRemove()
+    {
+        AppConfigStorageItem parent = new AppConfigStorageItem();
+        parent.putString("value", "parent");
+        AppConfigLayeredStorageItem item = new AppConfigLayeredStorageItem(parent);
+        item.putString("value", "own");
+        Assert.assertTrue(item.removeOverride("value"));
+        Assert.assertEquals("parent", item.getString("value"));
+        Assert.assertTrue(item.removeSetting("value"));
+        Assert.assertFalse(item.removeSetting("value"));
+        Assert.assertNull(item.get("value"));
+        Assert.assertEquals(0, item.valueList().size());
+        Assert.assertEquals("parent", parent.getString("value"));
+        item.putString("value", "again");
+        Assert.assertEquals("again", item.getString("value"));
+    }
+
+    @Test
+    public void testEqualsAndFlatten()
+    {
+        AppConfigStorageItem parent = new AppConfigStorageItem();
+        parent.putString("text", "value");
+        parent.putLong("number", 5);
+        AppConfigLayeredStorageItem item = new AppConfigLayeredStorageItem(parent);
+        item.putBoolean("flag", true);
+        AppConfigStorageItem expected = new AppConfigStorageItem();
+        expected.putString("text", "value");
+        expected.putLong("number", 5);
+        expected.putBoolean("flag", true);
+        AppConfigStorageItem flattened = item.flatten();
+        Assert.assertEquals(expected, item);
+        Assert.assertEquals(item, expected);
+        Assert.assertEquals(expected, flattened);
+        Assert.assertFalse(flattened instanceof AppConfigLayeredStorageItem);
+    }
+
+
+    // ---
+    // Helper
+    // ---
+
+    private ArrayList<String> sorted(ArrayList<String> list)
+    {
+        Collections.sort(list);
+        return list;
+    }
+}
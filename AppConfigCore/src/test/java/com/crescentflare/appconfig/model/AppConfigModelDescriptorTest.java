@@ -0,0 +1,64 @@
+package com.crescentflare.appconfig.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Unit test: model descriptor
+ */
+public class AppConfigModelDescriptorTest
+{
+    // ---
+    // Test cases
+    // ---
+
+    @Test
+    public void testCachedPerClass()
+    {
+        AppConfigModelDescriptor descriptor = new AppConfigBaseModelTest.DerivedModelWithFields().getDescriptor();
+        Assert.assertSame(descriptor, new AppConfigBaseModelTest.DerivedModelWithFields().getDescriptor());
+        Assert.assertSame(descriptor, AppConfigModelDescriptor.forClass(AppConfigBaseModelTest.DerivedModelWithFields.class));
+        Assert.assertNotSame(descriptor, new AppConfigBaseModelTest.DerivedModelWithMethods().getDescriptor());
+    }
+
+    @Test
+    public void testCategoryValues()
+    {
+        AppConfigModelDescriptor descriptor = AppConfigModelDescriptor.forClass(AppConfigBaseModelTest.DerivedModelWithMethods.class);
+        String[] expectedValues = { "simpleEnumField", "complexEnumField" };
+        String[] categoryValues = descriptor.getConfigurationCategoryValues("Enums").toArray(new String[0]);
+        Arrays.sort(expectedValues);
+        Arrays.sort(categoryValues);
+        Assert.assertArrayEquals(expectedValues, categoryValues);
+        Assert.assertArrayEquals(new String[] { "boolField" }, descriptor.getConfigurationCategoryValues("").toArray(new String[0]));
+        Assert.assertArrayEquals(new String[] { "globalStringField" }, descriptor.getGlobalCategoryValues("GlobalStrings").toArray(new String[0]));
+        Assert.assertEquals(0, descriptor.getConfigurationCategoryValues("Unknown").size());
+    }
+
+    @Test
+    public void testSortOrder()
+    {
+        AppConfigModelDescriptor descriptor = AppConfigModelDescriptor.forClass(SortedModel.class);
+        Assert.assertArrayEquals(new String[] { "first", "second", "third" }, descriptor.getConfigurationValues().toArray(new String[0]));
+        Assert.assertEquals(2, descriptor.getSortIndex("third"));
+    }
+
+
+    // ---
+    // A model with a forced sort order
+    // ---
+
+    public static class SortedModel extends AppConfigBaseModel
+    {
+        @AppConfigModelSort(2)
+        public String third = "";
+
+        @AppConfigModelSort(0)
+        public String first = "";
+
+        @AppConfigModelSort(1)
+        public String second = "";
+    }
+}
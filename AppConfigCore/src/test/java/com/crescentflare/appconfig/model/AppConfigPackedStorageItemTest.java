@@ -0,0 +1,195 @@
+package com.crescentflare.appconfig.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Unit test: packed storage item
+ */
+public class AppConfigPackedStorageItemTest
+{
+    // ---
+    // Test cases
+    // ---
+
+    @Test
+    public void testStorage()
+    {
+        AppConfigStorageItem item = new AppConfigPackedStorageItem();
+        item.putString("string", "test");
+        item.putLong("long", -90234);
+        item.putInt("int", 512);
+        item.putBoolean("boolean", true);
+        Assert.assertEquals("test", item.getString("string"));
+        Assert.assertEquals((long)-90234, item.getLong("long"));
+        Assert.assertEquals(512, item.getInt("int"));
+        Assert.assertEquals(true, item.getBoolean("boolean"));
+        Assert.assertNull(item.get("missing"));
+    }
+
+    @Test
+    public void testConversion()
+    {
+        AppConfigStorageItem item = new AppConfigPackedStorageItem();
+        item.putString("string", "-1234");
+        item.putString("bigString", "8589934592");
+        item.putString("trueString", "TRUE");
+        item.putLong("long", -90234);
+        item.putInt("int", 1);
+        item.putBoolean("boolean", true);
+        Assert.assertEquals(-1234, item.getInt("string"));
+        Assert.assertEquals(0, item.getInt("bigString"));
+        Assert.assertEquals(8589934592L, item.getLong("bigString"));
+        Assert.assertEquals(true, item.getBoolean("trueString"));
+        Assert.assertEquals(-90234, item.getInt("long"));
+        Assert.assertEquals(true, item.getBoolean("int"));
+        Assert.assertEquals("true", item.getString("boolean"));
+        Assert.assertEquals(1, item.getLong("boolean"));
+    }
+
+    @Test
+    public void testOverwriteAndRemove()
+    {
+        AppConfigStorageItem item = new AppConfigPackedStorageItem();
+        item.putLong("value", 5);
+        item.putString("value", "text");
+        Assert.assertEquals("text", item.get("value"));
+        Assert.assertEquals(0, item.getLong("value"));
+        Assert.assertTrue(item.removeSetting("value"));
+        Assert.assertFalse(item.removeSetting("value"));
+        Assert.assertNull(item.get("value"));
+        Assert.assertEquals(0, item.valueList().size());
+    }
+
+    @Test
+    public void testValueList()
+    {
+        AppConfigStorageItem item = new AppConfigPackedStorageItem();
+        item.putString("string", "test");
+        item.putString("extraString", "testExtra");
+        item.putLong("long", -90234);
+        item.putInt("int", 512);
+        item.putBoolean("boolean", true);
+        item.removeSetting("string");
+        String[] expectedValues = { "extraString", "long", "int", "boolean" };
+        String[] itemValues = item.valueList().toArray(new String[0]);
+        Arrays.sort(expectedValues);
+        Arrays.sort(itemValues);
+        Assert.assertArrayEquals(expectedValues, itemValues);
+    }
+
+    @Test
+    public void testManyValues()
+    {
+        AppConfigStorageItem item = new AppConfigPackedStorageItem();
+        for (int i = 0; i < 100; i++)
+        {
+            item.putLong("value" + i, i);
+        }
+        for (int i = 0; i < 100; i += 2)
+        {
+            Assert.assertTrue(item.removeSetting("value" + i));
+        }
+        Assert.assertEquals(50, item.valueList().size());
+        for (int i = 0; i < 100; i++)
+        {
+            Assert.assertEquals(i % 2 == 0 ? null : (Object)(long)i, item.get("value" + i));
+        }
+    }
+
+    @Test
+    public void testRemoveInterleaved()
+    {
+        // Compare with a map while adding and removing in a fixed pseudo random order, keys collide in the lookup table
+        AppConfigStorageItem item = new AppConfigPackedStorageItem();
+        HashMap<String, Object> expected = new HashMap<>();
+        Random random = new Random(1234);
+        for (int i = 0; i < 2000; i++)
+        {
+            String key = "key" + random.nextInt(40);
+            if (random.nextInt(3) == 0)
+            {
+                Assert.assertEquals(expected.remove(key) != null, item.removeSetting(key));
+            }
+            else
+            {
+                item.putLong(key, i);
+                expected.put(key, (long)i);
+            }
+            Assert.assertEquals(expected.size(), item.valueList().size());
+        }
+        for (int i = 0; i < 40; i++)
+        {
+            Assert.assertEquals(expected.get("key" + i), item.get("key" + i));
+        }
+    }
+
+    @Test
+    public void testHashCode()
+    {
+        AppConfigStorageItem item = new AppConfigPackedStorageItem();
+        item.putString("string", "test");
+        item.putLong("long", -8589934592L);
+        item.putBoolean("boolean", true);
+        AppConfigStorageItem otherItem = new AppConfigPackedStorageItem();
+        otherItem.putBoolean("boolean", true);
+        otherItem.putLong("long", -8589934592L);
+        otherItem.putString("string", "test");
+        HashMap<String, Object> values = new HashMap<>();
+        values.put("string", "test");
+        values.put("long", -8589934592L);
+        values.put("boolean", true);
+        Assert.assertTrue(item.equals(otherItem));
+        Assert.assertEquals(item.hashCode(), otherItem.hashCode());
+        Assert.assertEquals(values.hashCode(), item.hashCode());
+    }
+
+    @Test
+    public void testNullKey()
+    {
+        AppConfigStorageItem item = new AppConfigPackedStorageItem();
+        Assert.assertNull(item.get(null));
+        Assert.assertFalse(item.removeSetting(null));
+        item.putString(null, "value");
+        Assert.assertEquals("value", item.getString(null));
+        Assert.assertEquals(1, item.valueList().size());
+        Assert.assertTrue(item.removeSetting(null));
+    }
+
+    @Test
+    public void testCopyPackedItem()
+    {
+        AppConfigStorageItem item = new AppConfigPackedStorageItem();
+        item.putString("string", "test");
+        item.putLong("long", 12);
+        item.putBoolean("boolean", true);
+        AppConfigStorageItem copiedItem = new AppConfigPackedStorageItem();
+        copiedItem.copyValues(item);
+        Assert.assertTrue(copiedItem.equals(item));
+        copiedItem.putString("string", "changed");
+        Assert.assertFalse(copiedItem.equals(item));
+        Assert.assertEquals("test", item.getString("string"));
+        copiedItem.putString("string", "test");
+        copiedItem.putString("long", "12");
+        Assert.assertFalse(copiedItem.equals(item));
+    }
+
+    @Test
+    public void testEqualsDefaultItem()
+    {
+        AppConfigStorageItem item = new AppConfigStorageItem();
+        item.putString("string", "test");
+        item.putLong("long", 12);
+        item.putBoolean("boolean", false);
+        AppConfigStorageItem packedItem = new AppConfigPackedStorageItem();
+        packedItem.copyValues(item);
+        Assert.assertTrue(packedItem.equals(item));
+        Assert.assertTrue(item.equals(packedItem));
+        packedItem.putLong("long", 13);
+        Assert.assertFalse(packedItem.equals(item));
+    }
+}
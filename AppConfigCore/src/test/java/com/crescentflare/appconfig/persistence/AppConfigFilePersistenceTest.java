@@ -0,0 +1,138 @@
+package com.crescentflare.appconfig.persistence;
+
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Unit test: single file persistence
+ */
+public class AppConfigFilePersistenceTest
+{
+    // ---
+    // Members
+    // ---
+
+    private File file;
+
+
+    // ---
+    // Setup
+    // ---
+
+    @Before
+    public void setUp() throws IOException
+    {
+        file = File.createTempFile("appconfig", ".bin");
+        file.delete();
+    }
+
+    @After
+    public void tearDown()
+    {
+        file.delete();
+    }
+
+
+    // ---
+    // Test cases
+    // ---
+
+    @Test
+    public void testStoreAndReload()
+    {
+        AppConfigPersistence persistence = new AppConfigFilePersistence(file);
+        persistence.storeSelectedConfig("Sélected", createItem("selected"));
+        persistence.storeGlobalConfig(createItem("global"));
+        persistence.storeCustomConfig("First", createItem("first"));
+        persistence.storeCustomConfig("Second", createItem("second"));
+        persistence.removeCustomConfig("First");
+        Assert.assertTrue(file.isFile());
+
+        AppConfigPersistence reloaded = new AppConfigFilePersistence(file);
+        Assert.assertEquals("Sélected", reloaded.loadSelectedConfigName());
+        Assert.assertEquals(createItem("selected"), reloaded.loadSelectedConfig());
+        Assert.assertEquals(createItem("global"), reloaded.loadGlobalConfig());
+        Assert.assertEquals(Arrays.asList("Second"), new ArrayList<>(reloaded.loadCustomConfigs().keySet()));
+        Assert.assertEquals(createItem("second"), reloaded.loadCustomConfigs().get("Second"));
+    }
+
+    @Test
+    public void testInvalidFile() throws IOException
+    {
+        FileOutputStream outputStream = new FileOutputStream(file);
+        outputStream.write(new byte[] { 1, 2, 3 });
+        outputStream.close();
+        AppConfigPersistence persistence = new AppConfigFilePersistence(file);
+        Assert.assertEquals("", persistence.loadSelectedConfigName());
+        Assert.assertEquals(0, persistence.loadCustomConfigs().size());
+    }
+
+    @Test
+    public void testKeepCorruptFile() throws IOException
+    {
+        // Write a file with a string length larger than the file
+        AppConfigFilePersistence persistence = new AppConfigFilePersistence(file);
+        persistence.storeSelectedConfig("Selected", createItem("selected"));
+        Assert.assertNull(persistence.getLastError());
+        long validLength = file.length();
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        randomAccessFile.seek(6);
+        randomAccessFile.writeInt(Integer.MAX_VALUE);
+        randomAccessFile.close();
+
+        // It shouldn't load or be overwritten
+        AppConfigFilePersistence reloaded = new AppConfigFilePersistence(file);
+        Assert.assertEquals("", reloaded.loadSelectedConfigName());
+        Assert.assertNotNull(reloaded.getLastError());
+        reloaded.storeCustomConfig("Custom", createItem("custom"));
+        Assert.assertNotNull(reloaded.getLastError());
+        Assert.assertEquals(validLength, file.length());
+    }
+
+    @Test
+    public void testTruncatedFile() throws IOException
+    {
+        AppConfigFilePersistence persistence = new AppConfigFilePersistence(file);
+        persistence.storeCustomConfig("Custom", createItem("custom"));
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        randomAccessFile.setLength(file.length() - 3);
+        randomAccessFile.close();
+        AppConfigFilePersistence reloaded = new AppConfigFilePersistence(file);
+        Assert.assertEquals(0, reloaded.loadCustomConfigs().size());
+        Assert.assertNotNull(reloaded.getLastError());
+    }
+
+    @Test
+    public void testWriteError()
+    {
+        AppConfigFilePersistence persistence = new AppConfigFilePersistence(new File(file, "missing/config.bin"));
+        persistence.storeGlobalConfig(createItem("global"));
+        Assert.assertNotNull(persistence.getLastError());
+        Assert.assertEquals(createItem("global"), persistence.loadGlobalConfig());
+    }
+
+
+    // ---
+    // Helper
+    // ---
+
+    private AppConfigStorageItem createItem(String text)
+    {
+        AppConfigStorageItem item = new AppConfigStorageItem();
+        item.putString("text", text);
+        item.putLong("number", -42);
+        item.putBoolean("flag", false);
+        return item;
+    }
+}
@@ -0,0 +1,62 @@
+package com.crescentflare.appconfig.persistence;
+
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Unit test: in-memory persistence
+ */
+public class AppConfigMemoryPersistenceTest
+{
+    // ---
+    // Test cases
+    // ---
+
+    @Test
+    public void testSelectedConfig()
+    {
+        AppConfigPersistence persistence = new AppConfigMemoryPersistence();
+        AppConfigStorageItem item = createItem("value");
+        persistence.storeSelectedConfig("Selected", item);
+        item.putString("text", "changed");
+        Assert.assertEquals("Selected", persistence.loadSelectedConfigName());
+        Assert.assertEquals(createItem("value"), persistence.loadSelectedConfig());
+        persistence.storeSelectedConfig("", item);
+        Assert.assertEquals("", persistence.loadSelectedConfigName());
+        Assert.assertEquals(0, persistence.loadSelectedConfig().valueList().size());
+    }
+
+    @Test
+    public void testCustomConfigs()
+    {
+        AppConfigPersistence persistence = new AppConfigMemoryPersistence();
+        persistence.storeCustomConfig("First", createItem("first"));
+        persistence.storeCustomConfig("Second", createItem("second"));
+        persistence.storeCustomConfig("First", createItem("changed"));
+        persistence.storeGlobalConfig(createItem("global"));
+        Assert.assertEquals(Arrays.asList("Second", "First"), new ArrayList<>(persistence.loadCustomConfigs().keySet()));
+        Assert.assertEquals("changed", persistence.loadCustomConfigs().get("First").getString("text"));
+        persistence.removeCustomConfig("Second");
+        Assert.assertEquals(Arrays.asList("First"), new ArrayList<>(persistence.loadCustomConfigs().keySet()));
+        Assert.assertEquals(createItem("global"), persistence.loadGlobalConfig());
+    }
+
+
+    // ---
+    // Helper
+    // ---
+
+    private AppConfigStorageItem createItem(String text)
+    {
+        AppConfigStorageItem item = new AppConfigStorageItem();
+        item.putString("text", text);
+        item.putLong("number", 8589934592L);
+        item.putBoolean("flag", true);
+        return item;
+    }
+}
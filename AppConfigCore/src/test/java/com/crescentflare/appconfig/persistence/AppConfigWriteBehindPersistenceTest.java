@@ -0,0 +1,195 @@
+package com.crescentflare.appconfig.persistence;
+
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Unit test: write-behind persistence
+ */
+public class AppConfigWriteBehindPersistenceTest
+{
+    // ---
+    // Test cases
+    // ---
+
+    @Test
+    public void testCoalescedWrites()
+    {
+        CountingPersistence target = new CountingPersistence();
+        AppConfigWriteBehindPersistence persistence = new AppConfigWriteBehindPersistence(target, 60000);
+        for (int i = 0; i < 20; i++)
+        {
+            persistence.storeGlobalConfig(createItem("value" + i));
+        }
+        persistence.storeCustomConfig("First", createItem("first"));
+        persistence.storeCustomConfig("Second", createItem("second"));
+        persistence.removeCustomConfig("First");
+        Assert.assertEquals(0, target.writes);
+        Assert.assertTrue(persistence.hasPendingChanges());
+        persistence.flushSync();
+        Assert.assertFalse(persistence.hasPendingChanges());
+        Assert.assertEquals(3, target.writes);
+        Assert.assertEquals(1, target.batches);
+        Assert.assertEquals("value19", target.loadGlobalConfig().getString("text"));
+        Assert.assertEquals(Arrays.asList("Second"), new ArrayList<>(target.loadCustomConfigs().keySet()));
+    }
+
+    @Test
+    public void testLoadPendingChanges()
+    {
+        CountingPersistence target = new CountingPersistence();
+        target.storeCustomConfig("Stored", createItem("stored"));
+        target.storeSelectedConfig("Stored", createItem("stored"));
+        AppConfigWriteBehindPersistence persistence = new AppConfigWriteBehindPersistence(target, 60000);
+        persistence.storeSelectedConfig("Other", createItem("other"));
+        persistence.removeCustomConfig("Stored");
+        persistence.storeCustomConfig("Added", createItem("added"));
+        Assert.assertEquals("Other", persistence.loadSelectedConfigName());
+        Assert.assertEquals("other", persistence.loadSelectedConfig().getString("text"));
+        Assert.assertEquals(Arrays.asList("Added"), new ArrayList<>(persistence.loadCustomConfigs().keySet()));
+        Assert.assertEquals("Stored", target.loadSelectedConfigName());
+    }
+
+    @Test
+    public void testWithoutDelay() throws InterruptedException
+    {
+        CountingPersistence target = new CountingPersistence();
+        AppConfigWriteBehindPersistence persistence = new AppConfigWriteBehindPersistence(target, 0);
+        persistence.storeGlobalConfig(createItem("direct"));
+        waitForWrite(persistence);
+        Assert.assertEquals(1, target.writes);
+        Assert.assertNotNull(target.writeThread);
+        Assert.assertNotSame(Thread.currentThread(), target.writeThread);
+    }
+
+    @Test
+    public void testBatch() throws InterruptedException
+    {
+        CountingPersistence target = new CountingPersistence();
+        AppConfigWriteBehindPersistence persistence = new AppConfigWriteBehindPersistence(target, 0);
+        persistence.beginBatch();
+        persistence.storeSelectedConfig("Selected", createItem("selected"));
+        persistence.storeGlobalConfig(createItem("global"));
+        persistence.removeCustomConfig("Removed");
+        Thread.sleep(50);
+        Assert.assertEquals(0, target.writes);
+        persistence.endBatch();
+        waitForWrite(persistence);
+        Assert.assertEquals(3, target.writes);
+        Assert.assertEquals(1, target.batches);
+    }
+
+    @Test
+    public void testRetryFailedWrite()
+    {
+        CountingPersistence target = new CountingPersistence();
+        AppConfigWriteBehindPersistence persistence = new AppConfigWriteBehindPersistence(target, 60000);
+        persistence.storeGlobalConfig(createItem("global"));
+        persistence.storeCustomConfig("First", createItem("first"));
+        target.failWrites = true;
+        try
+        {
+            persistence.flushSync();
+            Assert.fail("Expected the write to fail");
+        }
+        catch (IllegalStateException ignored)
+        {
+        }
+        persistence.storeCustomConfig("First", createItem("changed"));
+        Assert.assertTrue(persistence.hasPendingChanges());
+        Assert.assertEquals("global", persistence.loadGlobalConfig().getString("text"));
+        target.failWrites = false;
+        persistence.flushSync();
+        Assert.assertFalse(persistence.hasPendingChanges());
+        Assert.assertEquals("global", target.loadGlobalConfig().getString("text"));
+        Assert.assertEquals("changed", target.loadCustomConfigs().get("First").getString("text"));
+    }
+
+    @Test
+    public void testDelayedFlush() throws InterruptedException
+    {
+        CountingPersistence target = new CountingPersistence();
+        AppConfigWriteBehindPersistence persistence = new AppConfigWriteBehindPersistence(target, 10);
+        persistence.storeGlobalConfig(createItem("delayed"));
+        waitForWrite(persistence);
+        Assert.assertEquals("delayed", target.loadGlobalConfig().getString("text"));
+    }
+
+
+    // ---
+    // Helpers
+    // ---
+
+    private void waitForWrite(AppConfigWriteBehindPersistence persistence) throws InterruptedException
+    {
+        for (int i = 0; i < 200 && persistence.hasPendingChanges(); i++)
+        {
+            Thread.sleep(10);
+        }
+        Assert.assertFalse(persistence.hasPendingChanges());
+    }
+
+    private AppConfigStorageItem createItem(String text)
+    {
+        AppConfigStorageItem item = new AppConfigStorageItem();
+        item.putString("text", text);
+        return item;
+    }
+
+    private static class CountingPersistence extends AppConfigMemoryPersistence implements AppConfigBatchedPersistence
+    {
+        int writes = 0;
+        int batches = 0;
+        volatile boolean failWrites = false;
+        volatile Thread writeThread = null;
+
+        @Override
+        public synchronized void storeSelectedConfig(String name, AppConfigStorageItem item)
+        {
+            super.storeSelectedConfig(name, item);
+            writes++;
+        }
+
+        @Override
+        public synchronized void storeGlobalConfig(AppConfigStorageItem item)
+        {
+            if (failWrites)
+            {
+                throw new IllegalStateException("Not writable");
+            }
+            super.storeGlobalConfig(item);
+            writeThread = Thread.currentThread();
+            writes++;
+        }
+
+        @Override
+        public synchronized void storeCustomConfig(String name, AppConfigStorageItem item)
+        {
+            super.storeCustomConfig(name, item);
+            writes++;
+        }
+
+        @Override
+        public synchronized void removeCustomConfig(String name)
+        {
+            super.removeCustomConfig(name);
+            writes++;
+        }
+
+        @Override
+        public synchronized void beginBatch()
+        {
+        }
+
+        @Override
+        public synchronized void endBatch()
+        {
+            batches++;
+        }
+    }
+}
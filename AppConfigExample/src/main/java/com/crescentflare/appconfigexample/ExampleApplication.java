@@ -24,7 +24,7 @@ public class ExampleApplication extends Application implements AppConfigStorage.
         {
             ExampleAppConfigManager.instance.addPlugin(new ExampleAppConfigLogPlugin());
             AppConfigStorage.instance.init(this, ExampleAppConfigManager.instance);
-            AppConfigStorage.instance.setLoadingSourceAssetFile("appConfig.json");
+            AppConfigStorage.instance.setLoadingSourceAssetFile("appConfig.bin");
         }
         Logger.setApplicationContext(getApplicationContext());
         Logger.clear();
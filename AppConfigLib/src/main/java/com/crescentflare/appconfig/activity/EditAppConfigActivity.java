@@ -26,21 +26,33 @@ import android.widget.TextView;
 import com.crescentflare.appconfig.R;
 import com.crescentflare.appconfig.helper.AppConfigResourceHelper;
 import com.crescentflare.appconfig.helper.AppConfigViewHelper;
+import com.crescentflare.appconfig.manager.AppConfigBaseManager;
+import com.crescentflare.appconfig.manager.AppConfigCancellationToken;
+import com.crescentflare.appconfig.manager.AppConfigExecutors;
+import com.crescentflare.appconfig.manager.AppConfigSearchIndex;
+import com.crescentflare.appconfig.manager.AppConfigSettingRow;
+import com.crescentflare.appconfig.manager.AppConfigState;
 import com.crescentflare.appconfig.manager.AppConfigStorage;
-import com.crescentflare.appconfig.model.AppConfigBaseModel;
 import com.crescentflare.appconfig.model.AppConfigStorageItem;
 import com.crescentflare.appconfig.view.AppConfigCellList;
 import com.crescentflare.appconfig.view.AppConfigClickableCell;
 import com.crescentflare.appconfig.view.AppConfigEditableCell;
+import com.crescentflare.appconfig.view.AppConfigSearchBar;
+import com.crescentflare.appconfig.view.AppConfigSimpleCell;
 import com.crescentflare.appconfig.view.AppConfigSwitchCell;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Library activity: editing activity
  * Be able to change or create a new configuration copy
  */
-public class EditAppConfigActivity extends AppCompatActivity
+public class EditAppConfigActivity extends AppCompatActivity implements AppConfigStorage.ChangedConfigListener
 {
     // ---
     // Constants
@@ -49,6 +61,7 @@ public class EditAppConfigActivity extends AppCompatActivity
     private static final String ARG_CONFIG_NAME = "ARG_CONFIG_NAME";
     private static final String ARG_CREATE_CUSTOM = "ARG_CREATE_CUSTOM";
     private static final int RESULT_CODE_SELECT_ENUM = 1004;
+    private static final int COLLAPSE_FIELD_THRESHOLD = 30;
 
 
     // ---
@@ -60,6 +73,15 @@ public class EditAppConfigActivity extends AppCompatActivity
     private AppConfigCellList editingView = null;
     private LinearLayout spinnerView = null;
     private AppConfigStorageItem initialEditValues = null;
+    private AppConfigSearchBar searchBar = null;
+    private HashMap<String, View> editorViews = new HashMap<>();
+    private HashMap<String, Object> renderedValues = new HashMap<>();
+    private HashMap<String, Object> fetchedValues = new HashMap<>();
+    private AppConfigStorageItem editBuffer = new AppConfigStorageItem();
+    private HashSet<String> collapsedCategories = null;
+    private boolean waitingForSearchIndex = false;
+    private PreparedContent preparedContent = null;
+    private AppConfigCancellationToken preparationToken = null;
 
 
     // ---
@@ -94,8 +116,7 @@ public class EditAppConfigActivity extends AppCompatActivity
             @Override
             public void run()
             {
-                populateContent();
-                initialEditValues = fetchEditedValues();
+                prepareContent();
             }
         });
     }
@@ -110,6 +131,37 @@ public class EditAppConfigActivity extends AppCompatActivity
     // State handling
     // ---
 
+    @Override
+    protected void onPause()
+    {
+        super.onPause();
+        AppConfigStorage.instance.removeChangedConfigListener(this);
+        AppConfigStorage.instance.flush();
+    }
+
+    @Override
+    protected void onResume()
+    {
+        super.onResume();
+        AppConfigStorage.instance.addChangedConfigListener(this);
+    }
+
+    @Override
+    protected void onDestroy()
+    {
+        super.onDestroy();
+        if (preparationToken != null)
+        {
+            preparationToken.cancel();
+        }
+    }
+
+    @Override
+    public void onChangedConfig()
+    {
+        prepareContent();
+    }
+
     @Override
     protected void onActivityResult(int requestCode, int resultCode, Intent data)
     {
@@ -123,6 +175,7 @@ public class EditAppConfigActivity extends AppCompatActivity
                 if (index < fieldViews.size() && fieldViews.get(index) instanceof AppConfigClickableCell)
                 {
                     ((AppConfigClickableCell)fieldViews.get(index)).setText(fieldViews.get(index).getTag() + ": " + resultString);
+                    storeEditedValue(fieldViews.get(index));
                 }
             }
             supportInvalidateOptionsMenu();
@@ -224,6 +277,30 @@ public class EditAppConfigActivity extends AppCompatActivity
         return AppConfigViewHelper.dp(dp);
     }
 
+    private AppConfigClickableCell obtainButtonView(String key, String action)
+    {
+        // Reuses the cell shown before with the same key (if available), the text is only changed when needed
+        View existingView = editingView.getItemView(key);
+        if (existingView instanceof AppConfigClickableCell)
+        {
+            AppConfigClickableCell cellView = (AppConfigClickableCell)existingView;
+            if (!cellView.getText().equals(action))
+            {
+                cellView.setText(action);
+            }
+            return cellView;
+        }
+        return generateButtonView(action);
+    }
+
+    private AppConfigSimpleCell obtainInfoView(String key, String text)
+    {
+        View existingView = editingView.getItemView(key);
+        AppConfigSimpleCell cellView = existingView instanceof AppConfigSimpleCell ? (AppConfigSimpleCell)existingView : new AppConfigSimpleCell(this);
+        cellView.setText(text);
+        return cellView;
+    }
+
     private AppConfigClickableCell generateButtonView(String action)
     {
         return generateButtonView(null, action);
@@ -239,7 +316,7 @@ public class EditAppConfigActivity extends AppCompatActivity
 
     private AppConfigEditableCell generateEditTextView(String label, String setting, boolean limitNumbers)
     {
-        AppConfigEditableCell editView = new AppConfigEditableCell(this);
+        final AppConfigEditableCell editView = new AppConfigEditableCell(this);
         editView.setDescription(label);
         editView.setValue(setting);
         editView.setTag(label);
@@ -258,6 +335,7 @@ public class EditAppConfigActivity extends AppCompatActivity
             @Override
             public void afterTextChanged(Editable s)
             {
+                storeEditedValue(editView);
                 supportInvalidateOptionsMenu();
             }
         });
@@ -267,7 +345,7 @@ public class EditAppConfigActivity extends AppCompatActivity
 
     private AppConfigSwitchCell generateSwitchView(String label, boolean setting)
     {
-        AppConfigSwitchCell switchView = new AppConfigSwitchCell(this);
+        final AppConfigSwitchCell switchView = new AppConfigSwitchCell(this);
         LinearLayout.LayoutParams switchViewLayoutParams = new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
         switchView.setLayoutParams(switchViewLayoutParams);
         switchView.setText(label);
@@ -278,6 +356,7 @@ public class EditAppConfigActivity extends AppCompatActivity
             @Override
             public void onCheckedChanged(CompoundButton buttonView, boolean isChecked)
             {
+                storeEditedValue(switchView);
                 supportInvalidateOptionsMenu();
             }
         });
@@ -303,6 +382,29 @@ public class EditAppConfigActivity extends AppCompatActivity
             setSupportActionBar(bar);
         }
 
+        // Add a search bar to filter the settings
+        searchBar = new AppConfigSearchBar(this);
+        searchBar.setHint(AppConfigResourceHelper.getString(this, "app_config_search_hint"));
+        searchBar.addTextChangedListener(new TextWatcher()
+        {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after)
+            {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count)
+            {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s)
+            {
+                populateContent();
+            }
+        });
+        layout.addView(searchBar);
+
         // Add frame layout to contain the editing views or loading indicator
         FrameLayout container = new FrameLayout(this);
         container.setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
@@ -340,10 +442,9 @@ public class EditAppConfigActivity extends AppCompatActivity
         return layout;
     }
 
-    private void generateEditingContent(String category, ArrayList<String> values, AppConfigStorageItem config, AppConfigBaseModel baseModel)
+    private void generateEditingContent(String category, List<AppConfigSettingRow> rows, Set<String> shownValues)
     {
-        // Create container
-        LinearLayout fieldEditLayout = new LinearLayout(this);
+        // Determine section title
         String title = getIntent().getBooleanExtra(ARG_CREATE_CUSTOM, false) ? AppConfigResourceHelper.getString(this, "app_config_header_edit_new") : getIntent().getStringExtra(ARG_CONFIG_NAME);
         if (category != null)
         {
@@ -356,139 +457,264 @@ public class EditAppConfigActivity extends AppCompatActivity
                 title += ": " + AppConfigResourceHelper.getString(this, "app_config_header_edit_other");
             }
         }
-        editingView.startSection(title);
 
-        // Fetch objects and filter by category
-        ArrayList<String> editValues = new ArrayList<>();
-        ArrayList<Object> editObjects = new ArrayList<>();
-        for (String value : values)
+        // Sections are expanded when they contain a search match, otherwise they can be collapsed
+        final String categoryKey = category != null ? category : "";
+        boolean expanded = !collapsedCategories.contains(categoryKey);
+        if (shownValues != null)
         {
-            boolean belongsToCategory = true;
-            if (category != null && baseModel != null)
+            expanded = false;
+            for (AppConfigSettingRow row : rows)
             {
-                belongsToCategory = baseModel.valueBelongsToCategory(value, category);
+                if (shownValues.contains(row.getKey()))
+                {
+                    expanded = true;
+                    break;
+                }
             }
-            if (belongsToCategory && !value.equals("name"))
+            if (!expanded)
             {
-                editValues.add(value);
-                editObjects.add(baseModel != null ? baseModel.getCurrentValue(value) : config.get(value));
+                return;
             }
         }
+        editingView.startSection(title);
 
-        // Add editing views
-        for (int i = 0; i < editValues.size(); i++)
+        // Add a toggle to expand or collapse the section
+        if (shownValues == null)
         {
-            final String value = editValues.get(i);
-            View layoutView = null;
-            final Object previousResult = i > 0 ? editObjects.get(i - 1) : null;
-            final Object result = editObjects.get(i);
-            if (result != null)
+            AppConfigClickableCell toggleView = obtainButtonView("toggle", AppConfigResourceHelper.getString(this, expanded ? "app_config_action_collapse" : "app_config_action_expand"));
+            toggleView.setValue("" + rows.size());
+            toggleView.setOnClickListener(new View.OnClickListener()
             {
-                if (result instanceof Boolean)
+                @Override
+                public void onClick(View v)
                 {
-                    layoutView = generateSwitchView(value, (Boolean)result);
+                    if (!collapsedCategories.remove(categoryKey))
+                    {
+                        collapsedCategories.add(categoryKey);
+                    }
+                    populateContent();
                 }
-                else if (result.getClass().isEnum())
+            });
+            editingView.addSectionItem("toggle", toggleView);
+        }
+
+        // Add editing views, they are only created when the section is expanded and kept afterwards
+        if (expanded)
+        {
+            for (AppConfigSettingRow row : rows)
+            {
+                if (shownValues == null || shownValues.contains(row.getKey()))
                 {
-                    final int index = fieldViews.size();
-                    layoutView = generateButtonView(value, value + ": " + result.toString());
-                    layoutView.setOnClickListener(new View.OnClickListener()
-                    {
-                        @Override
-                        public void onClick(View v)
-                        {
-                            Object constants[] = result.getClass().getEnumConstants();
-                            ArrayList<String> enumValues = new ArrayList<>();
-                            for (int i = 0; i < constants.length; i++)
-                            {
-                                enumValues.add(constants[i].toString());
-                            }
-                            if (enumValues.size() > 0)
-                            {
-                                AppConfigStringChoiceActivity.startWithResult(
-                                        EditAppConfigActivity.this,
-                                        AppConfigResourceHelper.getString(EditAppConfigActivity.this, "app_config_title_choose_enum_prefix") + " " + value,
-                                        AppConfigResourceHelper.getString(EditAppConfigActivity.this, "app_config_header_choose_enum"),
-                                        enumValues,
-                                        RESULT_CODE_SELECT_ENUM + index
-                                );
-                            }
-                        }
-                    });
+                    View layoutView = obtainEditorView(row);
+                    editingView.addSectionItem(row.getKey(), layoutView);
+                    fieldViews.add(layoutView.findViewWithTag(row.getKey()));
                 }
-                else if (result instanceof Integer || result instanceof Long)
+            }
+        }
+
+        // End section
+        editingView.endSection();
+    }
+
+    private View obtainEditorView(final AppConfigSettingRow row)
+    {
+        // Existing editors show the edited value, unless the stored value changed since it was shown
+        final String value = row.getKey();
+        View existingView = editorViews.get(value);
+        boolean changed = !isEqual(renderedValues.get(value), row.getValue());
+        View layoutView;
+        if (row.getType() == AppConfigSettingRow.Type.SWITCH)
+        {
+            if (existingView instanceof AppConfigSwitchCell)
+            {
+                layoutView = existingView;
+                if (changed)
                 {
-                    layoutView = generateEditTextView(value, "" + result, true);
+                    ((AppConfigSwitchCell)layoutView).setChecked((Boolean)row.getValue());
                 }
-                else if (result instanceof String)
+            }
+            else
+            {
+                layoutView = generateSwitchView(value, editBuffer.getBoolean(value));
+            }
+        }
+        else if (row.getType() == AppConfigSettingRow.Type.CHOICE)
+        {
+            final int index = fieldViews.size();
+            if (existingView instanceof AppConfigClickableCell)
+            {
+                layoutView = existingView;
+                if (changed)
                 {
-                    layoutView = generateEditTextView(value, (String)result, false);
+                    ((AppConfigClickableCell)layoutView).setText(value + ": " + row.getText());
                 }
-                if (layoutView != null)
+            }
+            else
+            {
+                layoutView = generateButtonView(value, value + ": " + editBuffer.getString(value));
+            }
+            layoutView.setOnClickListener(new View.OnClickListener()
+            {
+                @Override
+                public void onClick(View v)
                 {
-                    editingView.addSectionItem(layoutView);
-                    fieldViews.add(layoutView.findViewWithTag(value));
+                    if (row.getChoices().size() > 0)
+                    {
+                        AppConfigStringChoiceActivity.startWithResult(
+                                EditAppConfigActivity.this,
+                                AppConfigResourceHelper.getString(EditAppConfigActivity.this, "app_config_title_choose_enum_prefix") + " " + value,
+                                AppConfigResourceHelper.getString(EditAppConfigActivity.this, "app_config_header_choose_enum"),
+                                new ArrayList<>(row.getChoices()),
+                                RESULT_CODE_SELECT_ENUM + index
+                        );
+                    }
+                }
+            });
+        }
+        else
+        {
+            boolean limitNumbers = row.getType() == AppConfigSettingRow.Type.NUMBER;
+            if (existingView instanceof AppConfigEditableCell && ((AppConfigEditableCell)existingView).isNumberLimit() == limitNumbers)
+            {
+                layoutView = existingView;
+                if (changed)
+                {
+                    ((AppConfigEditableCell)layoutView).setValue(row.getText());
                 }
             }
+            else
+            {
+                layoutView = generateEditTextView(value, editBuffer.getStringNotNull(value), limitNumbers);
+            }
         }
+        editorViews.put(value, layoutView);
+        renderedValues.put(value, row.getValue());
+        return layoutView;
+    }
 
-        // End section
-        editingView.endSection();
+    private void prepareContent()
+    {
+        // Reading the configuration through the model is done in the background, replacing a preparation which is still busy
+        if (!AppConfigStorage.instance.isLoaded())
+        {
+            return;
+        }
+        if (preparationToken != null)
+        {
+            preparationToken.cancel();
+        }
+        final AppConfigCancellationToken token = new AppConfigCancellationToken();
+        final String configName = getIntent().getStringExtra(ARG_CONFIG_NAME);
+        final AppConfigBaseManager manager = AppConfigStorage.instance.getConfigManager();
+        preparationToken = token;
+        AppConfigExecutors.getBackgroundExecutor().execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                AppConfigState state = AppConfigStorage.instance.getState();
+                List<AppConfigSettingRow> rows = AppConfigSettingRow.prepareList(manager != null ? manager.getBaseModelInstance() : null, configName, state.getConfigNotNull(configName), false, token);
+                if (rows == null)
+                {
+                    return;
+                }
+                final PreparedContent content = new PreparedContent(rows, state.isCustomConfig(configName));
+                runOnUiThread(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        // Dropped when the configurations changed since the preparation started
+                        if (token.isCancelled())
+                        {
+                            return;
+                        }
+                        preparedContent = content;
+                        populateContent();
+                        if (initialEditValues == null)
+                        {
+                            initialEditValues = fetchEditedValues();
+                        }
+                        supportInvalidateOptionsMenu();
+                    }
+                });
+            }
+        });
     }
 
     private void populateContent()
     {
-        // Show/hide spinner depending on the config being loaded
-        spinnerView.setVisibility(AppConfigStorage.instance.isLoaded() ? View.GONE : View.VISIBLE);
-        editingView.setVisibility(AppConfigStorage.instance.isLoaded() ? View.VISIBLE : View.GONE);
-        if (!AppConfigStorage.instance.isLoaded())
+        // Show/hide spinner depending on the content being prepared, only the prepared rows are used here
+        spinnerView.setVisibility(preparedContent != null ? View.GONE : View.VISIBLE);
+        editingView.setVisibility(preparedContent != null ? View.VISIBLE : View.GONE);
+        if (preparedContent == null)
         {
             return;
         }
 
-        // Clear all views to re-populate
-        editingView.removeAllViews();
+        // Update the views with only the changes, to keep the focus and scroll position
+        editingView.beginUpdate();
         fieldViews.clear();
 
-        // Determine values and categories
-        AppConfigStorageItem config = AppConfigStorage.instance.getConfigNotNull(getIntent().getStringExtra(ARG_CONFIG_NAME));
-        ArrayList<String> values = config.valueList();
-        ArrayList<String> categories = new ArrayList<>();
-        AppConfigBaseModel baseModel = null;
-        if (AppConfigStorage.instance.getConfigManager() != null)
+        // Find matching settings in the search index when searching
+        String query = searchBar.getQuery();
+        AppConfigSearchIndex searchIndex = obtainSearchIndex(query);
+        Set<String> shownValues = searchIndex != null ? searchIndex.search(AppConfigSearchIndex.settingsGroup(getIntent().getStringExtra(ARG_CONFIG_NAME)), query) : null;
+
+        // Update the edit buffer, only for values which changed in storage since they were fetched
+        for (List<AppConfigSettingRow> rows : preparedContent.categoryRows.values())
         {
-            baseModel = AppConfigStorage.instance.getConfigManager().getBaseModelInstance();
-            baseModel.applyCustomSettings(getIntent().getStringExtra(ARG_CONFIG_NAME), config);
-            values = AppConfigStorage.instance.getConfigManager().getBaseModelInstance().configurationValueList();
-            categories = baseModel.getConfigurationCategories();
+            for (AppConfigSettingRow row : rows)
+            {
+                if (!isEqual(fetchedValues.get(row.getKey()), row.getValue()))
+                {
+                    editBuffer.put(row.getKey(), row.getValue());
+                    fetchedValues.put(row.getKey(), row.getValue());
+                }
+            }
+        }
+        if (collapsedCategories == null)
+        {
+            collapsedCategories = new HashSet<>();
+            if (preparedContent.rowCount > COLLAPSE_FIELD_THRESHOLD)
+            {
+                for (String category : preparedContent.categoryRows.keySet())
+                {
+                    collapsedCategories.add(category != null ? category : "");
+                }
+            }
         }
 
         // Add section for name (if applicable)
-        if (AppConfigStorage.instance.isCustomConfig(getIntent().getStringExtra(ARG_CONFIG_NAME)) || getIntent().getBooleanExtra(ARG_CREATE_CUSTOM, false))
+        if (preparedContent.customConfig || getIntent().getBooleanExtra(ARG_CREATE_CUSTOM, false))
         {
-            String name = getIntent().getStringExtra(ARG_CONFIG_NAME);
-            if (getIntent().getBooleanExtra(ARG_CREATE_CUSTOM, false))
+            if (editBuffer.get("name") == null)
             {
-                name += " " + AppConfigResourceHelper.getString(this, "app_config_modifier_copy");
+                String name = getIntent().getStringExtra(ARG_CONFIG_NAME);
+                if (getIntent().getBooleanExtra(ARG_CREATE_CUSTOM, false))
+                {
+                    name += " " + AppConfigResourceHelper.getString(this, "app_config_modifier_copy");
+                }
+                editBuffer.putString("name", name);
             }
-            AppConfigEditableCell editableCell = generateEditTextView("name", name, false);
             editingView.startSection(AppConfigResourceHelper.getString(this, "app_config_header_edit_name"));
-            editingView.addSectionItem(editableCell);
+            AppConfigEditableCell editableCell = editingView.getItemView("name") instanceof AppConfigEditableCell ? (AppConfigEditableCell)editingView.getItemView("name") : generateEditTextView("name", editBuffer.getString("name"), false);
+            editingView.addSectionItem("name", editableCell);
             editingView.endSection();
             fieldViews.add(editableCell.findViewWithTag("name"));
         }
 
         // Add editing fields to view
-        if (categories.size() > 0)
+        for (String category : preparedContent.categoryRows.keySet())
         {
-            for (String category : categories)
-            {
-                generateEditingContent(category, values, config, baseModel);
-            }
+            generateEditingContent(category, preparedContent.categoryRows.get(category), shownValues);
         }
-        else
+        if (shownValues != null && shownValues.isEmpty())
         {
-            generateEditingContent(null, values, config, baseModel);
+            editingView.startSection(AppConfigResourceHelper.getString(this, "app_config_header_list_search"));
+            editingView.addSectionItem("noResults", obtainInfoView("noResults", AppConfigResourceHelper.getString(this, "app_config_item_no_results") + ": " + query.trim()));
+            editingView.endSection();
         }
 
         // Start button section
@@ -497,9 +723,9 @@ public class EditAppConfigActivity extends AppCompatActivity
         // Add buttons
         if (getIntent().getBooleanExtra(ARG_CREATE_CUSTOM, false))
         {
-            AppConfigClickableCell createButton = generateButtonView(AppConfigResourceHelper.getString(this, "app_config_action_ok_edit_new"));
+            AppConfigClickableCell createButton = obtainButtonView("create", AppConfigResourceHelper.getString(this, "app_config_action_ok_edit_new"));
             createButton.setId(AppConfigResourceHelper.getIdentifier(this, "app_config_activity_edit_save"));
-            editingView.addSectionItem(createButton);
+            editingView.addSectionItem("create", createButton);
             createButton.setOnClickListener(new View.OnClickListener()
             {
                 @Override
@@ -512,9 +738,9 @@ public class EditAppConfigActivity extends AppCompatActivity
         else
         {
             // Updating configuration handler
-            AppConfigClickableCell saveButton = generateButtonView(AppConfigResourceHelper.getString(this, "app_config_action_ok_edit"));
+            AppConfigClickableCell saveButton = obtainButtonView("save", AppConfigResourceHelper.getString(this, "app_config_action_ok_edit"));
             saveButton.setId(AppConfigResourceHelper.getIdentifier(this, "app_config_activity_edit_save"));
-            editingView.addSectionItem(saveButton);
+            editingView.addSectionItem("save", saveButton);
             saveButton.setOnClickListener(new View.OnClickListener()
             {
                 @Override
@@ -525,10 +751,10 @@ public class EditAppConfigActivity extends AppCompatActivity
             });
 
             // Restore to defaults or delete handler
-            String buttonText = AppConfigResourceHelper.getString(this, AppConfigStorage.instance.isCustomConfig(getIntent().getStringExtra(ARG_CONFIG_NAME)) ? "app_config_action_delete" : "app_config_action_restore");
-            AppConfigClickableCell deleteButton = generateButtonView(buttonText);
+            String buttonText = AppConfigResourceHelper.getString(this, preparedContent.customConfig ? "app_config_action_delete" : "app_config_action_restore");
+            AppConfigClickableCell deleteButton = obtainButtonView("clear", buttonText);
             deleteButton.setId(AppConfigResourceHelper.getIdentifier(this, "app_config_activity_edit_clear"));
-            editingView.addSectionItem(deleteButton);
+            editingView.addSectionItem("clear", deleteButton);
             deleteButton.setOnClickListener(new View.OnClickListener()
             {
                 @Override
@@ -537,8 +763,7 @@ public class EditAppConfigActivity extends AppCompatActivity
                     String configName = getIntent().getStringExtra(ARG_CONFIG_NAME);
                     if (AppConfigStorage.instance.isCustomConfig(configName) || AppConfigStorage.instance.isConfigOverride(configName))
                     {
-                        AppConfigStorage.instance.removeConfig(configName);
-                        AppConfigStorage.instance.synchronizeCustomConfigWithPreferences(EditAppConfigActivity.this, getIntent().getStringExtra(ARG_CONFIG_NAME));
+                        AppConfigStorage.instance.edit().removeConfig(configName).commit(EditAppConfigActivity.this);
                         setResult(RESULT_OK);
                     }
                     else
@@ -549,9 +774,9 @@ public class EditAppConfigActivity extends AppCompatActivity
                 }
             });
         }
-        AppConfigClickableCell cancelButton = generateButtonView(AppConfigResourceHelper.getString(this, "app_config_action_cancel"));
+        AppConfigClickableCell cancelButton = obtainButtonView("cancel", AppConfigResourceHelper.getString(this, "app_config_action_cancel"));
         cancelButton.setId(AppConfigResourceHelper.getIdentifier(this, "app_config_activity_edit_cancel"));
-        editingView.addSectionItem(cancelButton);
+        editingView.addSectionItem("cancel", cancelButton);
         cancelButton.setOnClickListener(new View.OnClickListener()
         {
             @Override
@@ -561,8 +786,38 @@ public class EditAppConfigActivity extends AppCompatActivity
             }
         });
 
-        // End section
+        // End section and apply the differences with the previous content
         editingView.endSection();
+        editingView.endUpdate();
+    }
+
+    private AppConfigSearchIndex obtainSearchIndex(String query)
+    {
+        // Uses the latest index, when the configurations changed the content is updated again once the new index is ready
+        if (query.trim().length() == 0)
+        {
+            return null;
+        }
+        String config = getIntent().getStringExtra(ARG_CONFIG_NAME);
+        if (!waitingForSearchIndex && !AppConfigStorage.instance.buildSearchIndex(config).isDone())
+        {
+            waitingForSearchIndex = true;
+            AppConfigStorage.instance.buildSearchIndex(config, new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    waitingForSearchIndex = false;
+                    populateContent();
+                }
+            });
+        }
+        return AppConfigStorage.instance.getSearchIndex(config);
+    }
+
+    private static boolean isEqual(Object value, Object otherValue)
+    {
+        return value == null ? otherValue == null : value.equals(otherValue);
     }
 
 
@@ -570,54 +825,48 @@ public class EditAppConfigActivity extends AppCompatActivity
     // Configuration mutations
     // ---
 
-    private AppConfigStorageItem fetchEditedValues()
+    private void storeEditedValue(View view)
     {
-        AppConfigStorageItem item = new AppConfigStorageItem();
-        String name = getIntent().getStringExtra(ARG_CONFIG_NAME);
-        for (View view : fieldViews)
+        if (view.getTag() == null)
         {
-            if (view.getTag() == null)
-            {
-                break;
-            }
-            if (view.getTag().equals("name"))
+            return;
+        }
+        if (view instanceof AppConfigEditableCell)
+        {
+            if (((AppConfigEditableCell)view).isNumberLimit())
             {
-                if (view instanceof AppConfigEditableCell)
+                long number = 0;
+                try
+                {
+                    number = Long.parseLong(((AppConfigEditableCell)view).getValue());
+                }
+                catch (Exception ignored)
                 {
-                    name = ((AppConfigEditableCell)view).getValue();
                 }
+                editBuffer.putLong((String)view.getTag(), number);
             }
             else
             {
-                if (view instanceof AppConfigEditableCell)
-                {
-                    if (((AppConfigEditableCell)view).isNumberLimit())
-                    {
-                        long number = 0;
-                        try
-                        {
-                            number = Long.parseLong(((AppConfigEditableCell)view).getValue());
-                        }
-                        catch (Exception ignored)
-                        {
-                        }
-                        item.putLong((String)view.getTag(), number);
-                    }
-                    else
-                    {
-                        item.putString((String)view.getTag(), ((AppConfigEditableCell)view).getValue());
-                    }
-                }
-                else if (view instanceof AppConfigSwitchCell)
-                {
-                    item.putBoolean((String)view.getTag(), ((AppConfigSwitchCell)view).isChecked());
-                }
-                else if (view instanceof AppConfigClickableCell)
-                {
-                    item.putString((String)view.getTag(), ((AppConfigClickableCell)view).getText().replace(view.getTag() + ": ", ""));
-                }
+                editBuffer.putString((String)view.getTag(), ((AppConfigEditableCell)view).getValue());
             }
         }
+        else if (view instanceof AppConfigSwitchCell)
+        {
+            editBuffer.putBoolean((String)view.getTag(), ((AppConfigSwitchCell)view).isChecked());
+        }
+        else if (view instanceof AppConfigClickableCell)
+        {
+            editBuffer.putString((String)view.getTag(), ((AppConfigClickableCell)view).getText().replace(view.getTag() + ": ", ""));
+        }
+    }
+
+    private AppConfigStorageItem fetchEditedValues()
+    {
+        // Editors store their changes in the edit buffer, which also contains the values of editors that weren't created
+        AppConfigStorageItem item = new AppConfigStorageItem();
+        item.copyValues(editBuffer);
+        String name = editBuffer.get("name") != null ? editBuffer.getString("name") : getIntent().getStringExtra(ARG_CONFIG_NAME);
+        item.removeSetting("name");
         if (name.length() > 0)
         {
             item.putString("name", name);
@@ -632,9 +881,10 @@ public class EditAppConfigActivity extends AppCompatActivity
         item.removeSetting("name");
         if (name.length() > 0)
         {
+            AppConfigStorage.Editor editor = AppConfigStorage.instance.edit();
             if (getIntent().getBooleanExtra(ARG_CREATE_CUSTOM, false))
             {
-                AppConfigStorage.instance.putCustomConfig(name, item);
+                editor.putCustomConfig(name, item);
             }
             else
             {
@@ -642,17 +892,36 @@ public class EditAppConfigActivity extends AppCompatActivity
                 boolean wasSelected = oldName.equals(AppConfigStorage.instance.getSelectedConfigName());
                 if (AppConfigStorage.instance.isCustomConfig(oldName) || AppConfigStorage.instance.isConfigOverride(oldName))
                 {
-                    AppConfigStorage.instance.removeConfig(oldName);
+                    editor.removeConfig(oldName);
                 }
-                AppConfigStorage.instance.putCustomConfig(name, item);
+                editor.putCustomConfig(name, item);
                 if (wasSelected)
                 {
-                    AppConfigStorage.instance.selectConfig(EditAppConfigActivity.this, name);
+                    editor.selectConfig(name);
                 }
             }
-            AppConfigStorage.instance.synchronizeCustomConfigWithPreferences(EditAppConfigActivity.this, name);
+            editor.commit(EditAppConfigActivity.this);
             setResult(RESULT_OK);
             finish();
         }
     }
+
+
+    // ---
+    // Content prepared in the background, grouped by category
+    // ---
+
+    private static class PreparedContent
+    {
+        final LinkedHashMap<String, List<AppConfigSettingRow>> categoryRows;
+        final int rowCount;
+        final boolean customConfig;
+
+        PreparedContent(List<AppConfigSettingRow> rows, boolean customConfig)
+        {
+            this.categoryRows = AppConfigSettingRow.groupByCategory(rows);
+            this.rowCount = rows.size();
+            this.customConfig = customConfig;
+        }
+    }
 }
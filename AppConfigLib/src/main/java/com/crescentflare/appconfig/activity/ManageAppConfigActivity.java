@@ -19,23 +19,38 @@ import android.view.ViewGroup;
 import android.widget.CompoundButton;
 import android.widget.FrameLayout;
 import android.widget.LinearLayout;
+import android.widget.ListView;
 import android.widget.ProgressBar;
 import android.widget.ScrollView;
 import android.widget.TextView;
 
+import com.crescentflare.appconfig.adapter.AppConfigCellListAdapter;
 import com.crescentflare.appconfig.helper.AppConfigResourceHelper;
 import com.crescentflare.appconfig.helper.AppConfigViewHelper;
+import com.crescentflare.appconfig.manager.AppConfigBaseManager;
+import com.crescentflare.appconfig.manager.AppConfigCancellationToken;
+import com.crescentflare.appconfig.manager.AppConfigExecutors;
+import com.crescentflare.appconfig.manager.AppConfigMetrics;
+import com.crescentflare.appconfig.manager.AppConfigSearchIndex;
+import com.crescentflare.appconfig.manager.AppConfigSettingRow;
+import com.crescentflare.appconfig.manager.AppConfigState;
 import com.crescentflare.appconfig.manager.AppConfigStorage;
-import com.crescentflare.appconfig.model.AppConfigBaseModel;
 import com.crescentflare.appconfig.model.AppConfigStorageItem;
 import com.crescentflare.appconfig.plugin.AppConfigPlugin;
 import com.crescentflare.appconfig.view.AppConfigCellList;
 import com.crescentflare.appconfig.view.AppConfigClickableCell;
 import com.crescentflare.appconfig.view.AppConfigEditableCell;
+import com.crescentflare.appconfig.view.AppConfigSearchBar;
 import com.crescentflare.appconfig.view.AppConfigSimpleCell;
 import com.crescentflare.appconfig.view.AppConfigSwitchCell;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Library activity: managing configurations
@@ -50,6 +65,7 @@ public class ManageAppConfigActivity extends AppCompatActivity implements AppCon
     private static final int RESULT_CODE_CUSTOM_COPY_FROM = 1000;
     private static final int RESULT_CODE_EDIT_CONFIG = 1001;
     private static final int RESULT_CODE_SELECT_ENUM = 1004;
+    private static final int VIRTUALIZED_LIST_THRESHOLD = 100;
 
 
     // ---
@@ -59,10 +75,20 @@ public class ManageAppConfigActivity extends AppCompatActivity implements AppCon
     private ArrayList<View> fieldViews = new ArrayList<>();
     private LinearLayout layout = null;
     private AppConfigCellList managingView = null;
+    private ScrollView scrollView = null;
+    private ListView listView = null;
+    private AppConfigCellList listFooterView = null;
+    private AppConfigCellListAdapter listAdapter = null;
     private LinearLayout spinnerView = null;
     private AppConfigStorageItem initialEditValues = null;
     private AppConfigStorageItem latestEditValues = null;
     private int buildNr = -1;
+    private AppConfigSearchBar searchBar = null;
+    private HashMap<String, View> editorViews = new HashMap<>();
+    private HashMap<String, Object> renderedValues = new HashMap<>();
+    private boolean waitingForSearchIndex = false;
+    private PreparedContent preparedContent = null;
+    private AppConfigCancellationToken preparationToken = null;
 
 
     // ---
@@ -116,9 +142,7 @@ public class ManageAppConfigActivity extends AppCompatActivity implements AppCon
             @Override
             public void run()
             {
-                populateContent();
-                initialEditValues = fetchEditedValues();
-                latestEditValues = initialEditValues;
+                prepareContent();
             }
         });
     }
@@ -147,7 +171,7 @@ public class ManageAppConfigActivity extends AppCompatActivity implements AppCon
         }
         else if (requestCode == RESULT_CODE_EDIT_CONFIG && resultCode == RESULT_OK)
         {
-            populateContent();
+            prepareContent();
         }
         else if (requestCode >= RESULT_CODE_SELECT_ENUM && requestCode < RESULT_CODE_SELECT_ENUM + 1000 && resultCode == RESULT_OK)
         {
@@ -183,6 +207,7 @@ public class ManageAppConfigActivity extends AppCompatActivity implements AppCon
     {
         super.onPause();
         AppConfigStorage.instance.removeChangedConfigListener(this);
+        AppConfigStorage.instance.flush();
     }
 
     @Override
@@ -193,10 +218,20 @@ public class ManageAppConfigActivity extends AppCompatActivity implements AppCon
         {
             latestEditValues = fetchEditedValues();
         }
-        populateContent();
+        prepareContent();
         AppConfigStorage.instance.addChangedConfigListener(this);
     }
 
+    @Override
+    protected void onDestroy()
+    {
+        super.onDestroy();
+        if (preparationToken != null)
+        {
+            preparationToken.cancel();
+        }
+    }
+
 
     // ---
     // Menu handling
@@ -221,7 +256,7 @@ public class ManageAppConfigActivity extends AppCompatActivity implements AppCon
     @Override
     public void onChangedConfig()
     {
-        populateContent();
+        prepareContent();
     }
 
     private int dp(int dp)
@@ -236,6 +271,35 @@ public class ManageAppConfigActivity extends AppCompatActivity implements AppCon
         return cellView;
     }
 
+    private AppConfigSimpleCell obtainInfoView(AppConfigCellList sectionView, String key, String infoLabel, String infoValue)
+    {
+        View existingView = sectionView.getItemView(key);
+        if (existingView instanceof AppConfigSimpleCell)
+        {
+            ((AppConfigSimpleCell)existingView).setText(infoLabel + ": " + infoValue);
+            return (AppConfigSimpleCell)existingView;
+        }
+        return generateInfoView(infoLabel, infoValue);
+    }
+
+    private AppConfigClickableCell obtainButtonView(AppConfigCellList sectionView, String key, String label, String setting, boolean edited)
+    {
+        // Reuses the cell shown before with the same key (if available), the text is only changed when needed
+        View existingView = sectionView.getItemView(key);
+        if (existingView instanceof AppConfigClickableCell)
+        {
+            AppConfigClickableCell cellView = (AppConfigClickableCell)existingView;
+            cellView.setTag(label);
+            if (!cellView.getText().equals(setting))
+            {
+                cellView.setText(setting);
+            }
+            cellView.setValue(edited ? AppConfigResourceHelper.getString(this, "app_config_item_edited") : null);
+            return cellView;
+        }
+        return generateButtonView(label, setting, edited);
+    }
+
     private AppConfigClickableCell generateButtonView(String action, boolean edited)
     {
         return generateButtonView(null, action, edited);
@@ -319,6 +383,29 @@ public class ManageAppConfigActivity extends AppCompatActivity implements AppCon
             setSupportActionBar(bar);
         }
 
+        // Add a search bar to filter configurations and global settings
+        searchBar = new AppConfigSearchBar(this);
+        searchBar.setHint(AppConfigResourceHelper.getString(this, "app_config_search_hint"));
+        searchBar.addTextChangedListener(new TextWatcher()
+        {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after)
+            {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count)
+            {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s)
+            {
+                populateContent();
+            }
+        });
+        layout.addView(searchBar);
+
         // Add frame layout to contain the editing views or loading indicator
         FrameLayout container = new FrameLayout(this);
         container.setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
@@ -326,13 +413,24 @@ public class ManageAppConfigActivity extends AppCompatActivity implements AppCon
         layout.addView(container);
 
         // Add managing view for configuration selection and global settings editing
-        ScrollView scrollView = new ScrollView(this);
+        scrollView = new ScrollView(this);
         scrollView.setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
         managingView = new AppConfigCellList(this);
         managingView.setVisibility(View.GONE);
         scrollView.addView(managingView);
         container.addView(scrollView);
 
+        // Add a recycling list view to use instead when there are many configurations, other sections are placed in its footer
+        listView = new ListView(this);
+        listView.setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        listView.setDivider(null);
+        listView.setItemsCanFocus(true);
+        listView.setVisibility(View.GONE);
+        listFooterView = new AppConfigCellList(this);
+        listView.addFooterView(listFooterView, null, false);
+        listView.setAdapter(listAdapter = new AppConfigCellListAdapter(this));
+        container.addView(listView);
+
         // Add spinner view for loading
         spinnerView = new LinearLayout(this);
         spinnerView.setBackgroundColor(Color.WHITE);
@@ -368,9 +466,9 @@ public class ManageAppConfigActivity extends AppCompatActivity implements AppCon
         return layout;
     }
 
-    private void generateEditingContent(String category, ArrayList<String> values, AppConfigStorageItem config, AppConfigBaseModel baseModel)
+    private void generateEditingContent(AppConfigCellList sectionView, String category, List<AppConfigSettingRow> rows, Set<String> shownValues)
     {
-        // Start section
+        // Determine section title
         String title = AppConfigResourceHelper.getString(this, "app_config_header_global_prefix");
         if (category != null)
         {
@@ -383,306 +481,334 @@ public class ManageAppConfigActivity extends AppCompatActivity implements AppCon
                 title += ": " + AppConfigResourceHelper.getString(this, "app_config_header_edit_other");
             }
         }
-        managingView.startSection(title);
 
-        // Fetch objects and filter by category
-        ArrayList<String> editValues = new ArrayList<>();
-        ArrayList<Object> editObjects = new ArrayList<>();
-        for (String value : values)
+        // Check for search matches
+        boolean showSection = shownValues == null;
+        for (AppConfigSettingRow row : rows)
         {
-            boolean belongsToCategory = true;
-            if (category != null && baseModel != null)
-            {
-                belongsToCategory = baseModel.valueBelongsToCategory(value, category);
-            }
-            if (belongsToCategory && !value.equals("name"))
-            {
-                editValues.add(value);
-                editObjects.add(baseModel != null ? baseModel.getCurrentValue(value) : config.get(value));
-            }
+            showSection |= shownValues != null && shownValues.contains(row.getKey());
         }
 
-        // Add editing views
-        for (int i = 0; i < editValues.size(); i++)
+        // Start section, when searching it's only shown if it contains a match
+        if (showSection)
         {
-            final String value = editValues.get(i);
-            View layoutView = null;
-            final Object result = editObjects.get(i);
-            if (result != null)
+            sectionView.startSection(title);
+        }
+
+        // Add editing views, views are kept (also when filtered out by searching) and only changed when their value changed since they were shown
+        for (final AppConfigSettingRow row : rows)
+        {
+            final String value = row.getKey();
+            View layoutView;
+            View existingView = editorViews.get(value);
+            boolean changed = !isEqual(renderedValues.get(value), row.getValue());
+            if (row.getType() == AppConfigSettingRow.Type.SWITCH)
             {
-                if (result instanceof Boolean)
+                if (existingView instanceof AppConfigSwitchCell)
                 {
-                    layoutView = generateSwitchView(value, (Boolean)result);
+                    layoutView = existingView;
+                    if (changed)
+                    {
+                        ((AppConfigSwitchCell)layoutView).setChecked((Boolean)row.getValue());
+                    }
                 }
-                else if (result.getClass().isEnum())
+                else
+                {
+                    layoutView = generateSwitchView(value, (Boolean)row.getValue());
+                }
+            }
+            else if (row.getType() == AppConfigSettingRow.Type.CHOICE)
+            {
+                final int index = fieldViews.size();
+                if (existingView instanceof AppConfigClickableCell)
                 {
-                    final int index = fieldViews.size();
-                    layoutView = generateButtonView(value, value + ": " + result.toString(), false);
-                    layoutView.setOnClickListener(new View.OnClickListener()
+                    layoutView = existingView;
+                    if (changed)
                     {
-                        @Override
-                        public void onClick(View v)
-                        {
-                            Object constants[] = result.getClass().getEnumConstants();
-                            ArrayList<String> enumValues = new ArrayList<>();
-                            for (int i = 0; i < constants.length; i++)
-                            {
-                                enumValues.add(constants[i].toString());
-                            }
-                            if (enumValues.size() > 0)
-                            {
-                                AppConfigStringChoiceActivity.startWithResult(
-                                        ManageAppConfigActivity.this,
-                                        AppConfigResourceHelper.getString(ManageAppConfigActivity.this, "app_config_title_choose_enum_prefix") + " " + value,
-                                        AppConfigResourceHelper.getString(ManageAppConfigActivity.this, "app_config_header_choose_enum"),
-                                        enumValues,
-                                        RESULT_CODE_SELECT_ENUM + index
-                                );
-                            }
-                        }
-                    });
+                        ((AppConfigClickableCell)layoutView).setText(value + ": " + row.getText());
+                    }
                 }
-                else if (result instanceof Integer || result instanceof Long)
+                else
                 {
-                    layoutView = generateEditTextView(value, "" + result, true);
+                    layoutView = generateButtonView(value, value + ": " + row.getText(), false);
                 }
-                else if (result instanceof String)
+                layoutView.setOnClickListener(new View.OnClickListener()
+                {
+                    @Override
+                    public void onClick(View v)
+                    {
+                        if (row.getChoices().size() > 0)
+                        {
+                            AppConfigStringChoiceActivity.startWithResult(
+                                    ManageAppConfigActivity.this,
+                                    AppConfigResourceHelper.getString(ManageAppConfigActivity.this, "app_config_title_choose_enum_prefix") + " " + value,
+                                    AppConfigResourceHelper.getString(ManageAppConfigActivity.this, "app_config_header_choose_enum"),
+                                    new ArrayList<>(row.getChoices()),
+                                    RESULT_CODE_SELECT_ENUM + index
+                            );
+                        }
+                    }
+                });
+            }
+            else
+            {
+                boolean limitNumbers = row.getType() == AppConfigSettingRow.Type.NUMBER;
+                if (existingView instanceof AppConfigEditableCell && ((AppConfigEditableCell)existingView).isNumberLimit() == limitNumbers)
                 {
-                    layoutView = generateEditTextView(value, (String)result, false);
+                    layoutView = existingView;
+                    if (changed)
+                    {
+                        ((AppConfigEditableCell)layoutView).setValue(row.getText());
+                    }
                 }
-                if (layoutView != null)
+                else
                 {
-                    managingView.addSectionItem(layoutView);
-                    fieldViews.add(layoutView.findViewWithTag(value));
+                    layoutView = generateEditTextView(value, row.getText(), limitNumbers);
                 }
             }
+            if (shownValues == null || shownValues.contains(value))
+            {
+                sectionView.addSectionItem(value, layoutView);
+            }
+            fieldViews.add(layoutView.findViewWithTag(value));
+            editorViews.put(value, layoutView);
+            renderedValues.put(value, row.getValue());
         }
 
         // End section
-        managingView.endSection();
+        if (showSection)
+        {
+            sectionView.endSection();
+        }
     }
 
-    private void populateContent()
+    private ArrayList<AppConfigCellListAdapter.Row> generateConfigRows(List<String> configs, Set<String> shownConfigs)
     {
-        // Show/hide spinner depending on the config being loaded
-        spinnerView.setVisibility(AppConfigStorage.instance.isLoaded() ? View.GONE : View.VISIBLE);
-        managingView.setVisibility(AppConfigStorage.instance.isLoaded() ? View.VISIBLE : View.GONE);
-        if (!AppConfigStorage.instance.isLoaded())
+        // Only rows are created here, views are created by the list (when visible) or with addRows
+        ArrayList<AppConfigCellListAdapter.Row> rows = new ArrayList<>();
+        if (configs.size() == 0)
         {
-            return;
+            return rows;
         }
+        String editedText = AppConfigResourceHelper.getString(this, "app_config_item_edited");
 
-        // Clear all views to re-populate
-        managingView.removeAllViews();
-        fieldViews.clear();
+        // When searching, only add sections with matching configurations
+        if (shownConfigs != null)
+        {
+            addSearchedConfigRows(rows, AppConfigResourceHelper.getString(this, "app_config_header_list"), configs, shownConfigs, false);
+            addSearchedConfigRows(rows, AppConfigResourceHelper.getString(this, "app_config_header_list_custom"), preparedContent.customConfigs, shownConfigs, true);
+            return rows;
+        }
 
         // Add last selected configuration (if present)
-        ArrayList<String> configs = AppConfigStorage.instance.configList();
-        if (configs.size() > 0)
+        rows.add(AppConfigCellListAdapter.Row.header(AppConfigResourceHelper.getString(this, "app_config_header_list_last_selection")));
+        int selectId = AppConfigResourceHelper.getIdentifier(this, "app_config_activity_manage_select_current");
+        if (preparedContent.selectedConfigName != null)
         {
-            // Start section
-            managingView.startSection(AppConfigResourceHelper.getString(this, "app_config_header_list_last_selection"));
-
-            // Determine last selection
-            String buttonName;
-            boolean isOverride = false;
-            boolean hasLastSelection = false;
-            if (AppConfigStorage.instance.getSelectedConfig() != null)
+            final String configName = preparedContent.selectedConfigName;
+            View.OnClickListener clickListener = new View.OnClickListener()
             {
-                buttonName = AppConfigStorage.instance.getSelectedConfigName();
-                isOverride = AppConfigStorage.instance.isConfigOverride(buttonName);
-                hasLastSelection = true;
-            }
-            else
-            {
-                buttonName = AppConfigResourceHelper.getString(this, "app_config_item_none");
-            }
-
-            // Add button
-            AppConfigClickableCell selectButton = generateButtonView(buttonName, isOverride);
-            selectButton.setId(AppConfigResourceHelper.getIdentifier(this, "app_config_activity_manage_select_current"));
-            managingView.addSectionItem(selectButton);
-            if (hasLastSelection)
-            {
-                selectButton.setOnClickListener(new View.OnClickListener()
-                {
-                    @Override
-                    public void onClick(View v)
-                    {
-                        setResult(RESULT_OK);
-                        finish();
-                    }
-                });
-                final String configName = buttonName;
-                selectButton.setOnLongClickListener(new View.OnLongClickListener()
+                @Override
+                public void onClick(View v)
                 {
-                    @Override
-                    public boolean onLongClick(View v)
-                    {
-                        EditAppConfigActivity.startWithResult(ManageAppConfigActivity.this, configName, false, RESULT_CODE_EDIT_CONFIG);
-                        return true;
-                    }
-                });
-            }
-
-            // End section
-            managingView.endSection();
+                    setResult(RESULT_OK);
+                    finish();
+                }
+            };
+            rows.add(AppConfigCellListAdapter.Row.cell("selectCurrent", configName, preparedContent.overriddenConfigs.contains(configName) ? editedText : null, null, selectId, clickListener, generateEditListener(configName)));
         }
+        else
+        {
+            rows.add(AppConfigCellListAdapter.Row.cell("selectCurrent", AppConfigResourceHelper.getString(this, "app_config_item_none"), null, null, selectId, null, null));
+        }
+        rows.add(AppConfigCellListAdapter.Row.sectionEnd());
 
         // Add list of configurations
-        if (configs.size() > 0)
+        rows.add(AppConfigCellListAdapter.Row.header(AppConfigResourceHelper.getString(this, "app_config_header_list")));
+        for (String configName : configs)
         {
-            // Start section
-            managingView.startSection(AppConfigResourceHelper.getString(this, "app_config_header_list"));
+            rows.add(AppConfigCellListAdapter.Row.cell("config: " + configName, configName, preparedContent.overriddenConfigs.contains(configName) ? editedText : null, "config: " + configName, View.NO_ID, generateSelectListener(configName), generateEditListener(configName)));
+        }
+        rows.add(AppConfigCellListAdapter.Row.sectionEnd());
 
-            // Add buttons
-            for (final String configName : configs)
+        // Add area for custom configurations, and adding them
+        rows.add(AppConfigCellListAdapter.Row.header(AppConfigResourceHelper.getString(this, "app_config_header_list_custom")));
+        for (String configName : preparedContent.customConfigs)
+        {
+            rows.add(AppConfigCellListAdapter.Row.cell("config: " + configName, configName, null, "config: " + configName, View.NO_ID, generateSelectListener(configName), generateEditListener(configName)));
+        }
+        View.OnClickListener newListener = new View.OnClickListener()
+        {
+            @Override
+            public void onClick(View v)
             {
-                AppConfigClickableCell configButton = generateButtonView(configName, AppConfigStorage.instance.isConfigOverride(configName));
-                configButton.setTag("config: " + configName);
-                managingView.addSectionItem(configButton);
-                configButton.setOnClickListener(new View.OnClickListener()
-                {
-                    @Override
-                    public void onClick(View v)
-                    {
-                        saveGlobalData();
-                        AppConfigStorage.instance.selectConfig(ManageAppConfigActivity.this, configName);
-                        setResult(RESULT_OK);
-                        finish();
-                    }
-                });
-                configButton.setOnLongClickListener(new View.OnLongClickListener()
-                {
-                    @Override
-                    public boolean onLongClick(View v)
-                    {
-                        EditAppConfigActivity.startWithResult(ManageAppConfigActivity.this, configName, false, RESULT_CODE_EDIT_CONFIG);
-                        return true;
-                    }
-                });
+                ArrayList<String> configs = AppConfigStorage.instance.configList();
+                AppConfigStringChoiceActivity.startWithResult(ManageAppConfigActivity.this, AppConfigResourceHelper.getString(ManageAppConfigActivity.this, "app_config_title_edit_new"), AppConfigResourceHelper.getString(ManageAppConfigActivity.this, "app_config_header_choose_custom_copy"), configs, RESULT_CODE_CUSTOM_COPY_FROM);
             }
+        };
+        rows.add(AppConfigCellListAdapter.Row.cell("add", AppConfigResourceHelper.getString(this, "app_config_action_add"), null, null, AppConfigResourceHelper.getIdentifier(this, "app_config_activity_manage_new_custom"), newListener, null));
+        rows.add(AppConfigCellListAdapter.Row.sectionEnd());
+        return rows;
+    }
 
-            // End section
-            managingView.endSection();
+    private void addSearchedConfigRows(ArrayList<AppConfigCellListAdapter.Row> rows, String title, List<String> configs, Set<String> shownConfigs, boolean customConfigs)
+    {
+        // Adds a section with the matching configurations, nothing is added without matches
+        String editedText = AppConfigResourceHelper.getString(this, "app_config_item_edited");
+        boolean addedHeader = false;
+        for (String configName : configs)
+        {
+            if (shownConfigs.contains(configName))
+            {
+                if (!addedHeader)
+                {
+                    rows.add(AppConfigCellListAdapter.Row.header(title));
+                    addedHeader = true;
+                }
+                rows.add(AppConfigCellListAdapter.Row.cell("config: " + configName, configName, !customConfigs && preparedContent.overriddenConfigs.contains(configName) ? editedText : null, "config: " + configName, View.NO_ID, generateSelectListener(configName), generateEditListener(configName)));
+            }
         }
+        if (addedHeader)
+        {
+            rows.add(AppConfigCellListAdapter.Row.sectionEnd());
+        }
+    }
 
-        // Add area for custom configurations, and adding them
-        if (configs.size() > 0)
+    private View.OnClickListener generateSelectListener(final String configName)
+    {
+        return new View.OnClickListener()
         {
-            // Start section
-            managingView.startSection(AppConfigResourceHelper.getString(this, "app_config_header_list_custom"));
+            @Override
+            public void onClick(View v)
+            {
+                saveGlobalDataAndSelect(configName);
+                setResult(RESULT_OK);
+                finish();
+            }
+        };
+    }
 
-            // Add buttons
-            ArrayList<String> customConfigs = AppConfigStorage.instance.customConfigList();
-            for (final String configName : customConfigs)
+    private View.OnLongClickListener generateEditListener(final String configName)
+    {
+        return new View.OnLongClickListener()
+        {
+            @Override
+            public boolean onLongClick(View v)
             {
-                if (AppConfigStorage.instance.isCustomConfig(configName))
-                {
-                    AppConfigClickableCell configButton = generateButtonView(configName, false);
-                    configButton.setTag("config: " + configName);
-                    managingView.addSectionItem(configButton);
-                    configButton.setOnClickListener(new View.OnClickListener()
-                    {
-                        @Override
-                        public void onClick(View v)
-                        {
-                            saveGlobalData();
-                            AppConfigStorage.instance.selectConfig(ManageAppConfigActivity.this, configName);
-                            setResult(RESULT_OK);
-                            finish();
-                        }
-                    });
-                    configButton.setOnLongClickListener(new View.OnLongClickListener()
-                    {
-                        @Override
-                        public boolean onLongClick(View v)
-                        {
-                            EditAppConfigActivity.startWithResult(ManageAppConfigActivity.this, configName, false, RESULT_CODE_EDIT_CONFIG);
-                            return true;
-                        }
-                    });
-                }
+                EditAppConfigActivity.startWithResult(ManageAppConfigActivity.this, configName, false, RESULT_CODE_EDIT_CONFIG);
+                return true;
             }
+        };
+    }
 
-            // Add new custom config button
-            AppConfigClickableCell newButton = generateButtonView(AppConfigResourceHelper.getString(this, "app_config_action_add"), false);
-            newButton.setId(AppConfigResourceHelper.getIdentifier(this, "app_config_activity_manage_new_custom"));
-            managingView.addSectionItem(newButton);
-            newButton.setOnClickListener(new View.OnClickListener()
+    private void addRows(AppConfigCellList sectionView, ArrayList<AppConfigCellListAdapter.Row> rows)
+    {
+        // Creates the views of all rows directly for the scroll view, or updates them if they were shown before
+        for (AppConfigCellListAdapter.Row row : rows)
+        {
+            if (row.type == AppConfigCellListAdapter.Row.TYPE_HEADER)
             {
-                @Override
-                public void onClick(View v)
-                {
-                    ArrayList<String> configs = AppConfigStorage.instance.configList();
-                    AppConfigStringChoiceActivity.startWithResult(ManageAppConfigActivity.this, AppConfigResourceHelper.getString(ManageAppConfigActivity.this, "app_config_title_edit_new"), AppConfigResourceHelper.getString(ManageAppConfigActivity.this, "app_config_header_choose_custom_copy"), configs, RESULT_CODE_CUSTOM_COPY_FROM);
-                }
-            });
+                sectionView.startSection(row.text);
+            }
+            else if (row.type == AppConfigCellListAdapter.Row.TYPE_SECTION_END)
+            {
+                sectionView.endSection();
+            }
+            else
+            {
+                AppConfigClickableCell cellView = obtainButtonView(sectionView, row.key, null, row.text, row.value != null);
+                cellView.setId(row.id);
+                cellView.setTag(row.tag);
+                cellView.setOnClickListener(row.clickListener);
+                cellView.setOnLongClickListener(row.longClickListener);
+                cellView.setClickable(row.clickListener != null);
+                cellView.setLongClickable(row.longClickListener != null);
+                sectionView.addSectionItem(row.key, cellView);
+            }
+        }
+    }
 
-            // End section
-            managingView.endSection();
+    private void populateContent()
+    {
+        // Show/hide spinner depending on the content being prepared, only the prepared content is used here
+        spinnerView.setVisibility(preparedContent != null ? View.GONE : View.VISIBLE);
+        managingView.setVisibility(preparedContent != null ? View.VISIBLE : View.GONE);
+        if (preparedContent == null)
+        {
+            listView.setVisibility(View.GONE);
+            return;
+        }
+
+        // Use the recycling list when there are many configurations, the other sections are added below them
+        List<String> configs = preparedContent.configs;
+        boolean virtualized = configs.size() >= VIRTUALIZED_LIST_THRESHOLD;
+        AppConfigCellList sectionView = virtualized ? listFooterView : managingView;
+        scrollView.setVisibility(virtualized ? View.GONE : View.VISIBLE);
+        listView.setVisibility(virtualized ? View.VISIBLE : View.GONE);
+
+        // Clear the unused view, the other one is updated with only the changes to keep the focus and scroll position
+        if (virtualized)
+        {
+            managingView.removeAllViews();
+        }
+        else
+        {
+            listFooterView.removeAllViews();
         }
+        sectionView.beginUpdate();
+        fieldViews.clear();
+
+        // Find matches in the search index when searching, only the matching keys are compared to the shown items
+        String query = searchBar.getQuery();
+        AppConfigSearchIndex searchIndex = obtainSearchIndex(query);
+        Set<String> shownConfigs = searchIndex != null ? searchIndex.search(AppConfigSearchIndex.GROUP_CONFIGS, query) : null;
+        Set<String> shownValues = searchIndex != null ? searchIndex.search(AppConfigSearchIndex.GROUP_GLOBAL_SETTINGS, query) : null;
+        boolean searching = shownConfigs != null;
 
-        // Determine global values and categories
-        AppConfigStorageItem config = AppConfigStorage.instance.getGlobalConfig();
-        if (latestEditValues != null)
+        // Add the configuration sections
+        ArrayList<AppConfigCellListAdapter.Row> configRows = generateConfigRows(configs, shownConfigs);
+        if (virtualized)
         {
-            config = latestEditValues;
+            listAdapter.setRows(configRows);
         }
-        ArrayList<String> values = config.valueList();
-        ArrayList<String> categories = new ArrayList<>();
-        AppConfigBaseModel baseModel = null;
-        if (AppConfigStorage.instance.getConfigManager() != null)
+        else
         {
-            baseModel = AppConfigStorage.instance.getConfigManager().getBaseModelInstance();
-            baseModel.applyCustomSettings("Global", config);
-            values = AppConfigStorage.instance.getConfigManager().getBaseModelInstance().globalValueList();
-            categories = baseModel.getGlobalCategories();
+            listAdapter.setRows(new ArrayList<AppConfigCellListAdapter.Row>());
+            addRows(managingView, configRows);
         }
 
         // Add global editing fields to view (if present)
-        if (values.size() > 0)
+        for (String category : preparedContent.globalCategoryRows.keySet())
         {
-            if (categories.size() > 0)
-            {
-                for (String category : categories)
-                {
-                    generateEditingContent(category, values, config, baseModel);
-                }
-            }
-            else
+            generateEditingContent(sectionView, category, preparedContent.globalCategoryRows.get(category), shownValues);
+        }
+
+        // Show that nothing was found, other sections are left out when searching
+        if (searching)
+        {
+            if (shownConfigs.isEmpty() && shownValues.isEmpty())
             {
-                generateEditingContent(null, values, config, baseModel);
+                sectionView.startSection(AppConfigResourceHelper.getString(this, "app_config_header_list_search"));
+                sectionView.addSectionItem("noResults", obtainInfoView(sectionView, "noResults", AppConfigResourceHelper.getString(this, "app_config_item_no_results"), query.trim()));
+                sectionView.endSection();
             }
+            sectionView.endUpdate();
+            return;
         }
 
         // Add plugins
-        if (AppConfigStorage.instance.getConfigManager() != null && AppConfigStorage.instance.getConfigManager().getPlugins() != null && AppConfigStorage.instance.getConfigManager().getPlugins().size() > 0)
+        if (preparedContent.plugins.size() > 0)
         {
             // Start section
-            managingView.startSection(AppConfigResourceHelper.getString(this, "app_config_header_list_plugins"));
+            sectionView.startSection(AppConfigResourceHelper.getString(this, "app_config_header_list_plugins"));
 
-            // Add plugins
-            for (final AppConfigPlugin plugin : AppConfigStorage.instance.getConfigManager().getPlugins())
+            // Add plugins, their texts were determined when the prepared content was received
+            for (int i = 0; i < preparedContent.plugins.size(); i++)
             {
-                // Determine text for plugin
-                String buttonText = plugin.displayName();
-                if (buttonText != null)
-                {
-                    if (plugin.displayValue() != null && plugin.displayValue().length() > 0)
-                    {
-                        buttonText += ": " + plugin.displayValue();
-                    }
-                }
-                else
-                {
-                    buttonText = plugin.displayValue();
-                }
-
-                // Add plugin
-                AppConfigClickableCell pluginButton = generateButtonView(buttonText, false);
-                pluginButton.setTag("plugin: " + plugin.displayName());
-                managingView.addSectionItem(pluginButton);
+                final AppConfigPlugin plugin = preparedContent.plugins.get(i);
+                String key = "plugin: " + plugin.displayName();
+                AppConfigClickableCell pluginButton = obtainButtonView(sectionView, key, key, preparedContent.pluginTexts.get(i), false);
+                sectionView.addSectionItem(key, pluginButton);
                 if (plugin.canInteract())
                 {
                     pluginButton.setOnClickListener(new View.OnClickListener()
@@ -691,21 +817,117 @@ public class ManageAppConfigActivity extends AppCompatActivity implements AppCon
                         public void onClick(View v)
                         {
                             plugin.interact(ManageAppConfigActivity.this);
-                            populateContent();
+                            prepareContent();
                         }
                     });
                 }
+                else
+                {
+                    pluginButton.setOnClickListener(null);
+                    pluginButton.setClickable(false);
+                }
             }
 
             // End section
-            managingView.endSection();
+            sectionView.endSection();
+        }
+
+        // Add a summary of the recorded metrics, only when they are enabled (intended for development builds)
+        if (preparedContent.metrics.size() > 0)
+        {
+            sectionView.startSection(AppConfigResourceHelper.getString(this, "app_config_header_list_metrics"));
+            for (AppConfigMetrics.Entry entry : preparedContent.metrics)
+            {
+                sectionView.addSectionItem(entry.getName(), obtainInfoView(sectionView, entry.getName(), entry.getName(), entry.getSummary()));
+            }
+            sectionView.endSection();
         }
 
         // Add build information
-        managingView.startSection(AppConfigResourceHelper.getString(this, "app_config_header_list_build_info"));
-        managingView.addSectionItem(generateInfoView(AppConfigResourceHelper.getString(this, "app_config_field_build"), "" + buildNr));
-        managingView.addSectionItem(generateInfoView(AppConfigResourceHelper.getString(this, "app_config_field_api_level"), "" + Build.VERSION.SDK_INT));
-        managingView.endSection();
+        sectionView.startSection(AppConfigResourceHelper.getString(this, "app_config_header_list_build_info"));
+        sectionView.addSectionItem("build", obtainInfoView(sectionView, "build", AppConfigResourceHelper.getString(this, "app_config_field_build"), "" + buildNr));
+        sectionView.addSectionItem("apiLevel", obtainInfoView(sectionView, "apiLevel", AppConfigResourceHelper.getString(this, "app_config_field_api_level"), "" + Build.VERSION.SDK_INT));
+        sectionView.endSection();
+
+        // Apply the differences with the previous content
+        sectionView.endUpdate();
+    }
+
+    private void prepareContent()
+    {
+        // Reading the configurations, the model and the plugins is done in the background, replacing a preparation which is still busy
+        if (!AppConfigStorage.instance.isLoaded())
+        {
+            return;
+        }
+        if (preparationToken != null)
+        {
+            preparationToken.cancel();
+        }
+        final AppConfigCancellationToken token = new AppConfigCancellationToken();
+        final AppConfigStorageItem editValues = latestEditValues;
+        final AppConfigBaseManager manager = AppConfigStorage.instance.getConfigManager();
+        preparationToken = token;
+        AppConfigExecutors.getBackgroundExecutor().execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                final PreparedContent content = PreparedContent.prepare(AppConfigStorage.instance.getState(), manager, editValues, token);
+                if (content == null)
+                {
+                    return;
+                }
+                runOnUiThread(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        // Dropped when the configurations changed since the preparation started
+                        if (token.isCancelled())
+                        {
+                            return;
+                        }
+                        content.addPlugins(manager);
+                        preparedContent = content;
+                        populateContent();
+                        if (initialEditValues == null)
+                        {
+                            initialEditValues = fetchEditedValues();
+                            latestEditValues = initialEditValues;
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private AppConfigSearchIndex obtainSearchIndex(String query)
+    {
+        // Uses the latest index, when the configurations changed the content is updated again once the new index is ready
+        if (query.trim().length() == 0)
+        {
+            return null;
+        }
+        if (!waitingForSearchIndex && !AppConfigStorage.instance.buildSearchIndex(null).isDone())
+        {
+            waitingForSearchIndex = true;
+            AppConfigStorage.instance.buildSearchIndex(null, new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    waitingForSearchIndex = false;
+                    populateContent();
+                }
+            });
+        }
+        return AppConfigStorage.instance.getSearchIndex(null);
+    }
+
+    private static boolean isEqual(Object value, Object otherValue)
+    {
+        return value == null ? otherValue == null : value.equals(otherValue);
     }
 
 
@@ -758,4 +980,89 @@ public class ManageAppConfigActivity extends AppCompatActivity implements AppCon
         AppConfigStorageItem item = fetchEditedValues();
         AppConfigStorage.instance.updateGlobalConfig(ManageAppConfigActivity.this, item);
     }
+
+    private void saveGlobalDataAndSelect(String configName)
+    {
+        // Changes are committed together, afterwards the global values are no longer seen as changed when finishing
+        AppConfigStorageItem item = fetchEditedValues();
+        AppConfigStorage.instance.edit().updateGlobalConfig(item).selectConfig(configName).commit(ManageAppConfigActivity.this);
+        initialEditValues = item;
+    }
+
+
+    // ---
+    // Content prepared in the background, the configuration names and global settings (plugin texts are added on the main thread)
+    // ---
+
+    private static class PreparedContent
+    {
+        final List<String> configs;
+        final List<String> customConfigs = new ArrayList<>();
+        final Set<String> overriddenConfigs = new HashSet<>();
+        final String selectedConfigName;
+        final LinkedHashMap<String, List<AppConfigSettingRow>> globalCategoryRows;
+        final List<AppConfigPlugin> plugins = new ArrayList<>();
+        final List<String> pluginTexts = new ArrayList<>();
+        final List<AppConfigMetrics.Entry> metrics;
+
+        private PreparedContent(AppConfigState state, List<AppConfigSettingRow> globalRows)
+        {
+            configs = state.configList();
+            for (String configName : configs)
+            {
+                if (state.isConfigOverride(configName))
+                {
+                    overriddenConfigs.add(configName);
+                }
+            }
+            for (String configName : state.customConfigList())
+            {
+                if (state.isCustomConfig(configName))
+                {
+                    customConfigs.add(configName);
+                }
+            }
+            selectedConfigName = state.getSelectedConfig() != null ? state.getSelectedConfigName() : null;
+            globalCategoryRows = AppConfigSettingRow.groupByCategory(globalRows);
+            metrics = AppConfigMetrics.isEnabled() ? AppConfigMetrics.snapshot().getEntries() : Collections.<AppConfigMetrics.Entry>emptyList();
+        }
+
+        static PreparedContent prepare(AppConfigState state, AppConfigBaseManager manager, AppConfigStorageItem editValues, AppConfigCancellationToken token)
+        {
+            // Global settings show the values edited before (if available), returns null when cancelled
+            AppConfigStorageItem config = editValues != null ? editValues : state.getGlobalConfig();
+            List<AppConfigSettingRow> globalRows = AppConfigSettingRow.prepareList(manager != null ? manager.getBaseModelInstance() : null, "Global", config, true, token);
+            if (globalRows == null)
+            {
+                return null;
+            }
+            return new PreparedContent(state, globalRows);
+        }
+
+        void addPlugins(AppConfigBaseManager manager)
+        {
+            // Called on the main thread, plugins can depend on it to determine their value
+            if (manager != null && manager.getPlugins() != null)
+            {
+                for (AppConfigPlugin plugin : manager.getPlugins())
+                {
+                    String buttonText = plugin.displayName();
+                    String displayValue = plugin.displayValue();
+                    if (buttonText != null)
+                    {
+                        if (displayValue != null && displayValue.length() > 0)
+                        {
+                            buttonText += ": " + displayValue;
+                        }
+                    }
+                    else
+                    {
+                        buttonText = displayValue;
+                    }
+                    plugins.add(plugin);
+                    pluginTexts.add(buttonText);
+                }
+            }
+        }
+    }
 }
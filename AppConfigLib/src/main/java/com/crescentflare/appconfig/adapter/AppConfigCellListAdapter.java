@@ -0,0 +1,238 @@
+package com.crescentflare.appconfig.adapter;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AbsListView;
+import android.widget.BaseAdapter;
+import android.widget.LinearLayout;
+import android.widget.ListAdapter;
+import android.widget.TextView;
+
+import com.crescentflare.appconfig.view.AppConfigCellList;
+import com.crescentflare.appconfig.view.AppConfigClickableCell;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Library adapter: sectioned cell list
+ * List view adapter showing the same sections as the cell container, views are recycled and only bound when visible
+ */
+public class AppConfigCellListAdapter extends BaseAdapter implements ListAdapter
+{
+    // ---
+    // Members
+    // ---
+
+    private Context context;
+    private List<Row> rows = new ArrayList<>();
+
+
+    // ---
+    // Initialization
+    // ---
+
+    public AppConfigCellListAdapter(Context context)
+    {
+        this.context = context;
+    }
+
+
+    // ---
+    // Enabled check
+    // ---
+
+    @Override
+    public boolean areAllItemsEnabled()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isEnabled(int i)
+    {
+        // Cells handle clicks themselves, the list doesn't select rows
+        return false;
+    }
+
+
+    // ---
+    // Item handling
+    // ---
+
+    @Override
+    public int getCount()
+    {
+        return rows.size();
+    }
+
+    @Override
+    public Object getItem(int i)
+    {
+        return rows.get(i);
+    }
+
+    @Override
+    public long getItemId(int i)
+    {
+        return i;
+    }
+
+    @Override
+    public boolean hasStableIds()
+    {
+        return false;
+    }
+
+    @Override
+    public int getViewTypeCount()
+    {
+        return 3;
+    }
+
+    @Override
+    public int getItemViewType(int i)
+    {
+        return rows.get(i).type;
+    }
+
+
+    // ---
+    // View handling
+    // ---
+
+    private View generateView(int type)
+    {
+        ViewHolder viewHolder = new ViewHolder();
+        LinearLayout createdView = new LinearLayout(context);
+        createdView.setOrientation(LinearLayout.VERTICAL);
+        createdView.setLayoutParams(new AbsListView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        if (type == Row.TYPE_SECTION_END)
+        {
+            createdView.addView(AppConfigCellList.createDividerView(context));
+            createdView.addView(AppConfigCellList.createGradientView(context));
+        }
+        else
+        {
+            createdView.addView(viewHolder.dividerView = AppConfigCellList.createDividerView(context));
+            if (type == Row.TYPE_HEADER)
+            {
+                LinearLayout headerView = new LinearLayout(context);
+                headerView.setOrientation(LinearLayout.VERTICAL);
+                headerView.setBackgroundColor(Color.WHITE);
+                headerView.addView(viewHolder.labelView = AppConfigCellList.createHeaderLabelView(context, ""));
+                createdView.addView(headerView);
+            }
+            else
+            {
+                createdView.addView(viewHolder.cellView = new AppConfigClickableCell(context));
+                viewHolder.cellView.setBackgroundColor(Color.WHITE);
+            }
+        }
+        createdView.setTag(viewHolder);
+        return createdView;
+    }
+
+    @Override
+    public View getView(int i, View view, ViewGroup viewGroup)
+    {
+        Row row = rows.get(i);
+        if (view == null)
+        {
+            view = generateView(row.type);
+        }
+        ViewHolder viewHolder = (ViewHolder)view.getTag();
+        if (row.type == Row.TYPE_HEADER)
+        {
+            viewHolder.dividerView.setVisibility(i > 0 ? View.VISIBLE : View.GONE);
+            viewHolder.labelView.setText(row.text);
+        }
+        else if (row.type == Row.TYPE_CELL)
+        {
+            viewHolder.dividerView.setVisibility(i > 0 && rows.get(i - 1).type == Row.TYPE_CELL ? View.VISIBLE : View.GONE);
+            viewHolder.cellView.setId(row.id);
+            viewHolder.cellView.setTag(row.tag);
+            viewHolder.cellView.setText(row.text);
+            viewHolder.cellView.setValue(row.value);
+            viewHolder.cellView.setOnClickListener(row.clickListener);
+            viewHolder.cellView.setOnLongClickListener(row.longClickListener);
+            viewHolder.cellView.setClickable(row.clickListener != null);
+            viewHolder.cellView.setLongClickable(row.longClickListener != null);
+        }
+        return view;
+    }
+
+
+    // ---
+    // Update rows and notify data change
+    // ---
+
+    public void setRows(List<Row> rows)
+    {
+        this.rows = rows;
+        notifyDataSetChanged();
+    }
+
+
+    // ---
+    // Row of the list: a section header, a clickable cell or the end of a section
+    // ---
+
+    public static class Row
+    {
+        public static final int TYPE_HEADER = 0;
+        public static final int TYPE_CELL = 1;
+        public static final int TYPE_SECTION_END = 2;
+
+        public final int type;
+        public final String key;
+        public final String text;
+        public final String value;
+        public final Object tag;
+        public final int id;
+        public final View.OnClickListener clickListener;
+        public final View.OnLongClickListener longClickListener;
+
+        private Row(int type, String key, String text, String value, Object tag, int id, View.OnClickListener clickListener, View.OnLongClickListener longClickListener)
+        {
+            this.type = type;
+            this.key = key;
+            this.text = text;
+            this.value = value;
+            this.tag = tag;
+            this.id = id;
+            this.clickListener = clickListener;
+            this.longClickListener = longClickListener;
+        }
+
+        public static Row header(String text)
+        {
+            return new Row(TYPE_HEADER, null, text, null, null, View.NO_ID, null, null);
+        }
+
+        public static Row cell(String key, String text, String value, Object tag, int id, View.OnClickListener clickListener, View.OnLongClickListener longClickListener)
+        {
+            // The key identifies the cell within its section, for updating only the changed cells of a cell container
+            return new Row(TYPE_CELL, key, text, value, tag, id, clickListener, longClickListener);
+        }
+
+        public static Row sectionEnd()
+        {
+            return new Row(TYPE_SECTION_END, null, null, null, null, View.NO_ID, null, null);
+        }
+    }
+
+
+    // ---
+    // Listview tag to easily access subviews
+    // ---
+
+    public static class ViewHolder
+    {
+        public View dividerView = null;
+        public TextView labelView = null;
+        public AppConfigClickableCell cellView = null;
+    }
+}
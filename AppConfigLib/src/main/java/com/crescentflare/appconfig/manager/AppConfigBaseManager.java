@@ -7,6 +7,7 @@ import com.crescentflare.appconfig.plugin.AppConfigPlugin;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Library manager: base manager for app customization
@@ -18,8 +19,8 @@ public class AppConfigBaseManager
     // Members
     // ---
 
-    AppConfigBaseModel currentConfig = null;
     List<AppConfigPlugin> plugins = new ArrayList<>();
+    private final AtomicReference<AppliedConfig> appliedConfig = new AtomicReference<>(new AppliedConfig(null, 0));
 
 
     // ---
@@ -38,11 +39,24 @@ public class AppConfigBaseManager
 
     protected AppConfigBaseModel getCurrentConfigInstance()
     {
-        if (currentConfig == null)
+        AppConfigBaseModel model = appliedConfig.get().getModel();
+        if (model == null)
         {
             return getBaseModelInstance();
         }
-        return currentConfig;
+        return model;
+    }
+
+    public long getConfigVersion()
+    {
+        // Increases each time a new configuration is applied, the model can be cached until it changes
+        return appliedConfig.get().getVersion();
+    }
+
+    public AppliedConfig getAppliedConfig()
+    {
+        // The model together with its version, use this to cache the model (the version and model can't be out of step)
+        return appliedConfig.get();
     }
 
 
@@ -52,12 +66,21 @@ public class AppConfigBaseManager
 
     public void applyCurrentConfig(String configName, AppConfigStorageItem item, AppConfigStorageItem globalItem)
     {
-        currentConfig = getBaseModelInstance();
+        // The model is completely filled before it's published together with the increased version
+        long startTime = AppConfigMetrics.start();
+        AppConfigBaseModel model = getBaseModelInstance();
         if (item != null)
         {
-            currentConfig.applyCustomSettings(configName, item);
-            currentConfig.applyCustomSettings(configName, globalItem);
+            model.applyCustomSettings(configName, item);
+            model.applyCustomSettings(configName, globalItem);
         }
+        AppliedConfig previousConfig;
+        do
+        {
+            previousConfig = appliedConfig.get();
+        }
+        while (!appliedConfig.compareAndSet(previousConfig, new AppliedConfig(model, previousConfig.getVersion() + 1)));
+        AppConfigMetrics.stop(AppConfigMetrics.APPLY_CURRENT_CONFIG, startTime);
     }
 
 
@@ -84,4 +107,32 @@ public class AppConfigBaseManager
     {
         plugins = new ArrayList<>();
     }
+
+
+    // ---
+    // The applied model with its version, published as one value
+    // ---
+
+    public static class AppliedConfig
+    {
+        private final AppConfigBaseModel model;
+        private final long version;
+
+        private AppliedConfig(AppConfigBaseModel model, long version)
+        {
+            this.model = model;
+            this.version = version;
+        }
+
+        public AppConfigBaseModel getModel()
+        {
+            // Null when no configuration was applied yet
+            return model;
+        }
+
+        public long getVersion()
+        {
+            return version;
+        }
+    }
 }
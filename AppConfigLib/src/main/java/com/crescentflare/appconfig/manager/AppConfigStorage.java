@@ -2,28 +2,42 @@ package com.crescentflare.appconfig.manager;
 
 
 import android.content.Context;
-import android.content.SharedPreferences;
+import android.content.pm.PackageManager;
+import android.content.res.AssetFileDescriptor;
 import android.os.Handler;
+import android.os.Looper;
 
+import com.crescentflare.appconfig.model.AppConfigLayeredStorageItem;
+import com.crescentflare.appconfig.model.AppConfigModelDescriptor;
 import com.crescentflare.appconfig.model.AppConfigStorageItem;
+import com.crescentflare.appconfig.persistence.AppConfigPersistence;
+import com.crescentflare.appconfig.persistence.AppConfigSharedPreferencesPersistence;
+import com.crescentflare.appconfig.persistence.AppConfigWriteBehindPersistence;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
-import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Library manager: storage class
  * Contains app config storage and provides the main interface
+ * The configurations are kept in an immutable state which is replaced on changes, reading is safe from any thread
  */
 public class AppConfigStorage
 {
@@ -31,10 +45,7 @@ public class AppConfigStorage
     // Constants
     // ---
 
-    private static final String PREFERENCE_FILE_NAME = "custom.app.config";
-    private static final String SELECTED_PREFIX = "selected.";
-    private static final String CUSTOM_PREFIX = "custom.";
-    private static final String GLOBAL_PREFIX = "global.";
+    private static final long DEFAULT_WRITE_DELAY = 0;
 
 
     // ---
@@ -42,23 +53,36 @@ public class AppConfigStorage
     // ---
 
     public static AppConfigStorage instance = new AppConfigStorage();
-    private AppConfigBaseManager configManager = null;
-    private LinkedHashMap<String, AppConfigStorageItem> storedConfigs = new LinkedHashMap<>();
-    private LinkedHashMap<String, AppConfigStorageItem> customConfigs = new LinkedHashMap<>();
-    private AppConfigStorageItem globalConfig = new AppConfigStorageItem();
-    private ArrayList<ChangedConfigListener> changedConfigListeners = new ArrayList<>();
+    private static Executor mainThreadExecutor = null;
+    private final AtomicReference<AppConfigState> state = new AtomicReference<>(new AppConfigState());
+    private final Object writeLock = new Object();
+    private final CopyOnWriteArrayList<ChangedConfigListener> changedConfigListeners = new CopyOnWriteArrayList<>();
+    private final CopyOnWriteArrayList<ValuesSubscription> changedConfigValuesListeners = new CopyOnWriteArrayList<>();
+    private final AppConfigSourceCache sourceCache = new AppConfigSourceCache();
+    private final AppConfigFuture<AppConfigBaseManager> initialization = new AppConfigFuture<>();
+    private final Object loadingLock = new Object();
+    private AppConfigFuture<AppConfigState> loadingFuture = null;
+    private final Object searchIndexLock = new Object();
+    private AppConfigFuture<AppConfigSearchIndex> searchIndexFuture = null;
+    private AppConfigState searchIndexState = null;
+    private String searchIndexConfig = null;
+    private AppConfigSearchIndex searchIndex = null;
+    private volatile AppConfigBaseManager configManager = null;
+    private AppConfigWriteBehindPersistence persistence = null;
+    private long writeDelay = DEFAULT_WRITE_DELAY;
     private String loadFromAssetFile = null;
-    private String selectedItem = "";
-    private boolean customConfigLoaded = false;
-    private boolean initialized = false;
+    private int lazyLoadingCacheSize = 0;
+    private volatile boolean customConfigLoaded = false;
+    private volatile boolean initialized = false;
 
 
     // ---
     // Initialization
     // ---
 
-    private AppConfigStorage()
+    AppConfigStorage()
     {
+        // Use the shared instance, only unit tests create their own
     }
 
     public void init(Context context)
@@ -68,14 +92,68 @@ public class AppConfigStorage
 
     public void init(Context context, AppConfigBaseManager manager)
     {
+        init(context, manager, null);
+    }
+
+    public void init(Context context, AppConfigBaseManager manager, AppConfigPersistence persistence)
+    {
+        // Stores in the shared preferences of the application if no persistence backend is given
+        configManager = manager;
+        this.persistence = new AppConfigWriteBehindPersistence(persistence != null ? persistence : new AppConfigSharedPreferencesPersistence(context), writeDelay);
+        initFromPreferences(context);
+    }
+
+    public AppConfigFuture<AppConfigBaseManager> initAsync(Context context)
+    {
+        return initAsync(context, null);
+    }
+
+    public AppConfigFuture<AppConfigBaseManager> initAsync(Context context, AppConfigBaseManager manager)
+    {
+        return initAsync(context, manager, null);
+    }
+
+    public AppConfigFuture<AppConfigBaseManager> initAsync(Context context, AppConfigBaseManager manager, AppConfigPersistence persistence)
+    {
+        // The selected and global configuration are read and applied on the background thread, loading from source is done afterwards
+        final Context applicationContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
         configManager = manager;
-        loadSelectedItemFromPreferences(context);
-        loadGlobalConfigFromPreferences(context);
-        if (configManager != null)
+        this.persistence = new AppConfigWriteBehindPersistence(persistence != null ? persistence : new AppConfigSharedPreferencesPersistence(applicationContext), writeDelay);
+        AppConfigExecutors.getBackgroundExecutor().execute(new Runnable()
         {
-            configManager.applyCurrentConfig(selectedItem, getSelectedConfigNotNull(), globalConfig);
+            @Override
+            public void run()
+            {
+                try
+                {
+                    initFromPreferences(applicationContext);
+                }
+                catch (RuntimeException exception)
+                {
+                    initialization.fail(exception);
+                }
+            }
+        });
+        return initialization;
+    }
+
+    private void initFromPreferences(Context context)
+    {
+        long startTime = AppConfigMetrics.start();
+        AppConfigState previousState;
+        AppConfigState newState;
+        synchronized (writeLock)
+        {
+            previousState = state.get();
+            loadSelectedItemFromPreferences(context);
+            loadGlobalConfigFromPreferences(context);
+            newState = state.get();
+            applyCurrentConfig(newState);
         }
+        notifyChangedConfig(previousState, newState, false);
+        AppConfigMetrics.stop(AppConfigMetrics.INIT, startTime);
         initialized = true;
+        initialization.complete(configManager);
     }
 
     public boolean isInitialized()
@@ -83,6 +161,29 @@ public class AppConfigStorage
         return initialized;
     }
 
+    public AppConfigFuture<AppConfigBaseManager> whenInitialized()
+    {
+        // Completes with the manager (if given) after the current configuration is applied
+        return initialization;
+    }
+
+    public boolean awaitInitialized(long timeout, TimeUnit unit)
+    {
+        try
+        {
+            initialization.get(timeout, unit);
+            return true;
+        }
+        catch (InterruptedException ignored)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException | TimeoutException ignored)
+        {
+        }
+        return false;
+    }
+
     public boolean isLoaded()
     {
         return customConfigLoaded;
@@ -100,70 +201,52 @@ public class AppConfigStorage
 
 
     // ---
-    // Obtain from storage
+    // Obtain from storage, a snapshot of the state can be used to read several values consistently
     // ---
 
+    public AppConfigState getState()
+    {
+        return state.get();
+    }
+
     public AppConfigStorageItem getConfig(String config)
     {
-        if (customConfigs.containsKey(config))
-        {
-            return customConfigs.get(config);
-        }
-        if (storedConfigs.containsKey(config))
-        {
-            return storedConfigs.get(config);
-        }
-        return null;
+        return state.get().getConfig(config);
     }
 
     public AppConfigStorageItem getConfigNotNull(String config)
     {
-        AppConfigStorageItem item = getConfig(config);
-        if (item == null)
-        {
-            item = new AppConfigStorageItem();
-        }
-        return item;
+        return state.get().getConfigNotNull(config);
     }
 
     public AppConfigStorageItem getSelectedConfig()
     {
-        return getConfig(selectedItem);
+        return state.get().getSelectedConfig();
     }
 
     public AppConfigStorageItem getSelectedConfigNotNull()
     {
-        return getConfigNotNull(selectedItem);
+        return state.get().getSelectedConfigNotNull();
     }
 
     public AppConfigStorageItem getGlobalConfig()
     {
-        return globalConfig;
+        return state.get().getGlobalConfig();
     }
 
     public String getSelectedConfigName()
     {
-        return selectedItem;
+        return state.get().getSelectedConfigName();
     }
 
     public ArrayList<String> configList()
     {
-        return nameListOfConfigMap(storedConfigs);
+        return state.get().configList();
     }
 
     public ArrayList<String> customConfigList()
     {
-        return nameListOfConfigMap(customConfigs);
-    }
-
-    private ArrayList<String> nameListOfConfigMap(LinkedHashMap<String, AppConfigStorageItem> map)
-    {
-        ArrayList<String> list = new ArrayList<>();
-        for (String key : map.keySet())
-        {
-            list.add(key);
-        }
-        return list;
+        return state.get().customConfigList();
     }
 
 
@@ -173,26 +256,36 @@ public class AppConfigStorage
 
     public void putConfig(String config, AppConfigStorageItem item)
     {
-        removeConfig(config);
-        if (item != null)
+        AppConfigState previousState;
+        AppConfigState newState;
+        boolean changedSelection;
+        synchronized (writeLock)
         {
-            storedConfigs.put(config, item);
+            previousState = state.get();
+            newState = previousState.withoutConfig(config);
+            if (item != null)
+            {
+                AppConfigStoredConfigs storedConfigs = newState.copyStoredConfigs();
+                storedConfigs.put(config, item);
+                newState = newState.withStoredConfigs(storedConfigs);
+            }
+            changedSelection = publishState(previousState, newState);
         }
+        notifyChangedConfig(previousState, newState, changedSelection);
     }
 
     public void putCustomConfig(String config, AppConfigStorageItem item)
     {
-        if (customConfigs.containsKey(config))
+        AppConfigState previousState;
+        AppConfigState newState;
+        boolean changedSelection;
+        synchronized (writeLock)
         {
-            removeConfig(config);
-        }
-        if (item != null)
-        {
-            if (!storedConfigs.containsKey(config) || !storedConfigs.get(config).equals(item))
-            {
-                customConfigs.put(config, item);
-            }
+            previousState = state.get();
+            newState = previousState.withCustomConfig(config, item);
+            changedSelection = publishState(previousState, newState);
         }
+        notifyChangedConfig(previousState, newState, changedSelection);
     }
 
 
@@ -202,128 +295,211 @@ public class AppConfigStorage
 
     public boolean removeConfig(String config)
     {
-        boolean removed = false;
-        if (customConfigs.containsKey(config))
-        {
-            customConfigs.remove(config);
-            removed = true;
-        }
-        else if (storedConfigs.containsKey(config))
+        AppConfigState previousState;
+        AppConfigState newState;
+        boolean changedSelection;
+        synchronized (writeLock)
         {
-            storedConfigs.remove(config);
-            removed = true;
-        }
-        if (removed && config.equals(selectedItem))
-        {
-            selectedItem = "";
-            if (configManager != null)
+            previousState = state.get();
+            newState = previousState.withoutConfig(config);
+            if (newState == previousState)
             {
-                configManager.applyCurrentConfig(selectedItem, getSelectedConfigNotNull(), globalConfig);
-            }
-            for (ChangedConfigListener listener : changedConfigListeners)
-            {
-                listener.onChangedConfig();
+                return false;
             }
+            changedSelection = publishState(previousState, newState);
         }
-        return removed;
+        notifyChangedConfig(previousState, newState, changedSelection);
+        return true;
     }
 
     public void selectConfig(Context context, String config)
     {
-        if (customConfigs.containsKey(config))
-        {
-            selectedItem = config;
-        }
-        else if (storedConfigs.containsKey(config))
-        {
-            selectedItem = config;
-        }
-        else
-        {
-            selectedItem = "";
-        }
-        storeSelectedItemInPreferences(context);
-        if (configManager != null)
-        {
-            configManager.applyCurrentConfig(selectedItem, getSelectedConfigNotNull(), globalConfig);
-        }
-        for (ChangedConfigListener listener : changedConfigListeners)
+        AppConfigState previousState;
+        AppConfigState newState;
+        synchronized (writeLock)
         {
-            listener.onChangedConfig();
+            previousState = state.get();
+            newState = previousState.withSelectedConfig(config);
+            newState = setState(newState);
+            storeSelectedItemInPreferences(context, newState);
+            applyCurrentConfig(newState);
         }
+        notifyChangedConfig(previousState, newState, true);
     }
 
     public void updateGlobalConfig(Context context, AppConfigStorageItem item)
     {
-        globalConfig = item;
-        storeGlobalConfigInPreferences(context);
-        if (configManager != null)
-        {
-            configManager.applyCurrentConfig(selectedItem, getSelectedConfigNotNull(), globalConfig);
-        }
-        for (ChangedConfigListener listener : changedConfigListeners)
+        AppConfigState previousState;
+        AppConfigState newState;
+        synchronized (writeLock)
         {
-            listener.onChangedConfig();
+            previousState = state.get();
+            newState = previousState.withGlobalConfig(item);
+            newState = setState(newState);
+            storeGlobalConfigInPreferences(context, newState);
+            applyCurrentConfig(newState);
         }
+        notifyChangedConfig(previousState, newState, true);
     }
 
     public boolean isCustomConfig(String config)
     {
-        return customConfigs.containsKey(config) && !storedConfigs.containsKey(config);
+        return state.get().isCustomConfig(config);
     }
 
     public boolean isConfigOverride(String config)
     {
-        return customConfigs.containsKey(config) && storedConfigs.containsKey(config);
+        return state.get().isConfigOverride(config);
     }
 
     public void clearAllToDefaults(Context context)
     {
-        for (String config : customConfigs.keySet())
+        AppConfigState previousState;
+        AppConfigState newState;
+        synchronized (writeLock)
         {
-            removeCustomItemFromPreferences(context, config);
-        }
-        customConfigs.clear();
-        selectedItem = "";
-        storeSelectedItemInPreferences(context);
-        globalConfig = new AppConfigStorageItem();
-        storeGlobalConfigInPreferences(context);
-        if (configManager != null)
-        {
-            configManager.applyCurrentConfig(selectedItem, getSelectedConfigNotNull(), globalConfig);
+            previousState = state.get();
+            newState = previousState
+                    .withCustomConfigs(new LinkedHashMap<String, AppConfigStorageItem>())
+                    .withSelectedConfigName("")
+                    .withGlobalConfig(new AppConfigStorageItem());
+            newState = setState(newState);
+            AppConfigWriteBehindPersistence persistence = getPersistence(context);
+            persistence.beginBatch();
+            try
+            {
+                for (String config : previousState.customConfigList())
+                {
+                    removeCustomItemFromPreferences(context, config);
+                }
+                storeSelectedItemInPreferences(context, newState);
+                storeGlobalConfigInPreferences(context, newState);
+            }
+            finally
+            {
+                persistence.endBatch();
+            }
+            applyCurrentConfig(newState);
         }
-        for (ChangedConfigListener listener : changedConfigListeners)
+        notifyChangedConfig(previousState, newState, true);
+    }
+
+    public void manuallyChangeCurrentConfig(Context context, String key, String value)
+    {
+        AppConfigState previousState;
+        AppConfigState newState;
+        synchronized (writeLock)
         {
-            listener.onChangedConfig();
+            previousState = state.get();
+            newState = previousState.withChangedSelectedValue(key, value);
+            newState = setState(newState);
+            storeSelectedItemInPreferences(context, newState);
+            applyCurrentConfig(newState);
         }
+        notifyChangedConfig(previousState, newState, true);
     }
 
-    public void manuallyChangeCurrentConfig(Context context, String key, String value)
+    public void manuallyChangeGlobalConfig(Context context, String key, String value)
     {
-        getSelectedConfigNotNull().putString(key, value);
-        storeSelectedItemInPreferences(context);
-        if (configManager != null)
+        AppConfigState previousState;
+        AppConfigState newState;
+        synchronized (writeLock)
         {
-            configManager.applyCurrentConfig(selectedItem, getSelectedConfigNotNull(), globalConfig);
+            previousState = state.get();
+            newState = previousState.withChangedGlobalValue(key, value);
+            newState = setState(newState);
+            storeGlobalConfigInPreferences(context, newState);
+            applyCurrentConfig(newState);
         }
-        for (ChangedConfigListener listener : changedConfigListeners)
+        notifyChangedConfig(previousState, newState, true);
+    }
+
+    private boolean publishState(AppConfigState previousState, AppConfigState newState)
+    {
+        // Should be called while holding the write lock, applies the configuration when the selection was reset
+        newState = setState(newState);
+        if (!newState.getSelectedConfigName().equals(previousState.getSelectedConfigName()))
         {
-            listener.onChangedConfig();
+            applyCurrentConfig(newState);
+            return true;
         }
+        return false;
     }
 
-    public void manuallyChangeGlobalConfig(Context context, String key, String value)
+    private AppConfigState setState(AppConfigState newState)
     {
-        globalConfig.putString(key, value);
-        storeGlobalConfigInPreferences(context);
-        if (configManager != null)
+        // Should be called while holding the write lock, the published state pins its selected configuration
+        AppConfigState pinnedState = newState.withPinnedSelection();
+        state.set(pinnedState);
+        return pinnedState;
+    }
+
+    private void applyCurrentConfig(AppConfigState state)
+    {
+        AppConfigBaseManager manager = configManager;
+        if (manager != null)
         {
-            configManager.applyCurrentConfig(selectedItem, getSelectedConfigNotNull(), globalConfig);
+            manager.applyCurrentConfig(state.getSelectedConfigName(), state.getSelectedConfigNotNull(), state.getGlobalConfig());
         }
-        for (ChangedConfigListener listener : changedConfigListeners)
+    }
+
+
+    // ---
+    // Combined changes
+    // ---
+
+    public Editor edit()
+    {
+        return new Editor();
+    }
+
+    private void commitChanges(Context context, AppConfigStateChanges changes)
+    {
+        AppConfigState previousState;
+        AppConfigState newState;
+        synchronized (writeLock)
         {
-            listener.onChangedConfig();
+            // Apply changes to a new state in order
+            previousState = state.get();
+            newState = changes.apply(previousState);
+            if (newState == previousState)
+            {
+                return;
+            }
+            newState = setState(newState);
+
+            // Only store changed sections, they're persisted together
+            AppConfigWriteBehindPersistence persistence = getPersistence(context);
+            persistence.beginBatch();
+            try
+            {
+                for (String config : newState.changedCustomConfigs(previousState))
+                {
+                    if (newState.hasCustomConfig(config))
+                    {
+                        storeCustomItemInPreferences(context, newState, config);
+                    }
+                    else
+                    {
+                        removeCustomItemFromPreferences(context, config);
+                    }
+                }
+                if (newState.isSelectedConfigChanged(previousState))
+                {
+                    storeSelectedItemInPreferences(context, newState);
+                }
+                if (newState.isGlobalConfigChanged(previousState))
+                {
+                    storeGlobalConfigInPreferences(context, newState);
+                }
+            }
+            finally
+            {
+                persistence.endBatch();
+            }
+            applyCurrentConfig(newState);
         }
+        notifyChangedConfig(previousState, newState, true);
     }
 
 
@@ -336,99 +512,210 @@ public class AppConfigStorage
         loadFromAssetFile = fileName;
     }
 
-    public void loadFromSource(final Context context, final Runnable runnable)
+    public AppConfigSourceCache getSourceCache()
+    {
+        return sourceCache;
+    }
+
+    public void setLazyLoading(int cacheSize)
     {
-        final Handler handler = new Handler();
+        // When enabled, configurations from a binary asset file are only created when needed, a limited number of them is cached
+        lazyLoadingCacheSize = cacheSize;
+    }
+
+    public AppConfigFuture<AppConfigState> loadFromSource(Context context)
+    {
+        // Callers share the load which is in progress (if any)
+        final AppConfigFuture<AppConfigState> future;
+        synchronized (loadingLock)
+        {
+            if (loadingFuture != null && !loadingFuture.isDone())
+            {
+                return loadingFuture;
+            }
+            future = new AppConfigFuture<>();
+            loadingFuture = future;
+        }
+
+        // Load on the shared background thread, the result is applied on the main thread (which also notifies listeners)
+        // Don't wait for the result on the main thread, use loadFromSourceNotThreaded() to load synchronously
+        final Context applicationContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
         final String assetFile = loadFromAssetFile;
-        Thread thread = new Thread(new Runnable()
+        AppConfigExecutors.getBackgroundExecutor().execute(new Runnable()
         {
             @Override
             public void run()
             {
-                final LinkedHashMap<String, AppConfigStorageItem> loadedConfigs = loadFromSourceInternal(context, assetFile);
-                handler.post(new Runnable()
+                final AppConfigStoredConfigs loadedConfigs;
+                try
+                {
+                    loadedConfigs = loadFromSourceInternal(applicationContext, assetFile);
+                }
+                catch (RuntimeException exception)
+                {
+                    future.fail(exception);
+                    return;
+                }
+                getMainThreadExecutor().execute(new Runnable()
                 {
                     @Override
                     public void run()
                     {
-                        if (loadedConfigs != null)
+                        try
                         {
-                            storedConfigs = loadedConfigs;
-                            loadFromAssetFile = null;
+                            mergeLoadedConfigs(applicationContext, loadedConfigs);
+                            future.complete(state.get());
                         }
-                        if (!customConfigLoaded)
+                        catch (RuntimeException exception)
                         {
-                            loadCustomItemsFromPreferences(context);
-                            customConfigLoaded = true;
+                            future.fail(exception);
                         }
-                        runnable.run();
                     }
                 });
             }
         });
-        thread.start();
+        return future;
     }
 
     public void loadFromSourceNotThreaded(Context context)
     {
-        final LinkedHashMap<String, AppConfigStorageItem> loadedConfigs = loadFromSourceInternal(context, loadFromAssetFile);
-        if (loadedConfigs != null)
+        // Loads and merges on the calling thread, waits for a load in progress instead when it's not called from the main thread
+        // (the main thread can't wait, that load merges its result on the main thread)
+        final AppConfigFuture<AppConfigState> future;
+        AppConfigFuture<AppConfigState> inProgressFuture = null;
+        synchronized (loadingLock)
         {
-            storedConfigs = loadFromSourceInternal(context, loadFromAssetFile);
-            loadFromAssetFile = null;
-            if (!customConfigLoaded)
+            if (loadingFuture != null && !loadingFuture.isDone())
+            {
+                inProgressFuture = loadingFuture;
+                future = null;
+            }
+            else
+            {
+                future = new AppConfigFuture<>();
+                loadingFuture = future;
+            }
+        }
+        if (inProgressFuture != null && Looper.myLooper() != Looper.getMainLooper())
+        {
+            try
+            {
+                inProgressFuture.get();
+                return;
+            }
+            catch (InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            catch (ExecutionException ignored)
             {
-                loadCustomItemsFromPreferences(context);
-                customConfigLoaded = true;
+                // Try again below
             }
         }
+
+        // Load and merge directly
+        Context applicationContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+        try
+        {
+            mergeLoadedConfigs(applicationContext, loadFromSourceInternal(applicationContext, loadFromAssetFile));
+            if (future != null)
+            {
+                future.complete(state.get());
+            }
+        }
+        catch (RuntimeException exception)
+        {
+            if (future != null)
+            {
+                future.fail(exception);
+            }
+            throw exception;
+        }
+    }
+
+    public AppConfigFuture<AppConfigState> loadFromSource(Context context, Runnable runnable)
+    {
+        return loadFromSource(context, runnable, getMainThreadExecutor());
+    }
+
+    public AppConfigFuture<AppConfigState> loadFromSource(Context context, Runnable runnable, Executor executor)
+    {
+        AppConfigFuture<AppConfigState> future = loadFromSource(context);
+        future.addListener(runnable, executor);
+        return future;
+    }
+
+    private void mergeLoadedConfigs(Context context, AppConfigStoredConfigs loadedConfigs)
+    {
+        long startTime = AppConfigMetrics.start();
+        if (loadedConfigs != null)
+        {
+            replaceStoredConfigs(loadedConfigs);
+            loadFromAssetFile = null;
+        }
+        if (!customConfigLoaded)
+        {
+            loadCustomItemsFromPreferences(context);
+            customConfigLoaded = true;
+        }
+        AppConfigMetrics.stop(AppConfigMetrics.LOAD_SOURCE_MERGE, startTime);
+    }
+
+    private void replaceStoredConfigs(AppConfigStoredConfigs storedConfigs)
+    {
+        synchronized (writeLock)
+        {
+            setState(state.get().withStoredConfigs(storedConfigs));
+        }
     }
 
-    private LinkedHashMap<String, AppConfigStorageItem> loadFromSourceInternal(Context context, String assetFile)
+    private AppConfigStoredConfigs loadFromSourceInternal(Context context, String assetFile)
     {
         // Return early if specified asset file is not supported or empty
-        if (assetFile == null || !assetFile.endsWith(".json"))
+        boolean binaryFile = assetFile != null && assetFile.endsWith(AppConfigBinaryFormat.FILE_EXTENSION);
+        if (assetFile == null || (!binaryFile && !assetFile.endsWith(".json")))
         {
             return null;
         }
 
-        // Create default item from model (if it exists)
-        AppConfigStorageItem defaultItem = null;
-        if (configManager != null)
+        // Use the cached configurations if the same source was loaded before
+        String cacheKey = AppConfigSourceCache.key(assetFile, getSourceVersion(context), lazyLoadingCacheSize, configManager != null ? configManager.getClass().getName() : null);
+        AppConfigStoredConfigs loadedConfigs = sourceCache.get(cacheKey);
+        if (loadedConfigs != null)
         {
-            ArrayList<String> values = configManager.getBaseModelInstance().configurationValueList();
-            if (values.size() > 0)
+            return loadedConfigs;
+        }
+        loadedConfigs = loadFromAsset(context, assetFile, binaryFile);
+        if (loadedConfigs == null)
+        {
+            return new AppConfigStoredConfigs();
+        }
+        sourceCache.put(cacheKey, loadedConfigs);
+        return loadedConfigs;
+    }
+
+    private AppConfigStoredConfigs loadFromAsset(Context context, String assetFile, boolean binaryFile)
+    {
+        // Use the pre-compiled binary file when possible, otherwise fall back to the JSON file next to it
+        AppConfigStorageItem defaultItem = AppConfigSourceLoader.createDefaultItem(configManager != null ? configManager.getBaseModelInstance() : null);
+        if (binaryFile)
+        {
+            long startTime = AppConfigMetrics.start();
+            ByteBuffer buffer = mapAsset(context, assetFile);
+            AppConfigMetrics.stop(AppConfigMetrics.LOAD_SOURCE_READ, startTime);
+            startTime = AppConfigMetrics.start();
+            AppConfigStoredConfigs loadedConfigs = AppConfigSourceLoader.loadBinary(buffer, defaultItem, lazyLoadingCacheSize);
+            AppConfigMetrics.stop(AppConfigMetrics.LOAD_SOURCE_PARSE, startTime);
+            if (loadedConfigs != null)
             {
-                defaultItem = new AppConfigStorageItem();
-                for (String value : values)
-                {
-                    if (value.equals("name"))
-                    {
-                        continue;
-                    }
-                    Object setting = configManager.getBaseModelInstance().getCurrentValue(value);
-                    if (setting instanceof Long)
-                    {
-                        defaultItem.putLong(value, (Long)setting);
-                    }
-                    else if (setting instanceof Integer)
-                    {
-                        defaultItem.putInt(value, (Integer)setting);
-                    }
-                    else if (setting instanceof Boolean)
-                    {
-                        defaultItem.putBoolean(value, (Boolean)setting);
-                    }
-                    else
-                    {
-                        defaultItem.putString(value, setting.toString());
-                    }
-                }
+                return loadedConfigs;
             }
+            assetFile = assetFile.substring(0, assetFile.length() - AppConfigBinaryFormat.FILE_EXTENSION.length()) + ".json";
         }
 
         // Prepare input stream for loading
-        LinkedHashMap<String, AppConfigStorageItem> loadedConfigs = new LinkedHashMap<>();
+        long startTime = AppConfigMetrics.start();
         InputStream inputStream = null;
         try
         {
@@ -437,317 +724,334 @@ public class AppConfigStorage
         catch (IOException ignored)
         {
         }
+        AppConfigMetrics.stop(AppConfigMetrics.LOAD_SOURCE_READ, startTime);
 
-        // Load file
-        String result = "{}";
-        if (inputStream != null)
+        // Parse the configurations while streaming the file (which includes reading it)
+        if (inputStream == null)
         {
-            StringBuilder stringBuilder = new StringBuilder();
-            try
-            {
-                BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-                String line = null;
-                String ls = System.getProperty("line.separator");
-                while ((line = reader.readLine()) != null)
-                {
-                    stringBuilder.append(line);
-                    stringBuilder.append(ls);
-                }
-            }
-            catch (IOException ignored){ }
-            result = stringBuilder.toString();
+            return null;
         }
-
-        // Parse JSON
+        startTime = AppConfigMetrics.start();
         try
         {
-            JSONArray configArray = new JSONArray(result);
-            for (int i = 0; i < configArray.length(); i++)
-            {
-                addStorageItemFromJson(loadedConfigs, configArray.optJSONObject(i), defaultItem);
-            }
+            return AppConfigSourceLoader.loadJson(new InputStreamReader(inputStream), defaultItem);
         }
-        catch (JSONException ignored)
+        finally
         {
+            closeQuietly(inputStream);
+            AppConfigMetrics.stop(AppConfigMetrics.LOAD_SOURCE_PARSE, startTime);
         }
-        return loadedConfigs;
     }
 
-    private void addStorageItemFromJson(HashMap<String, AppConfigStorageItem> loadedConfigs, JSONObject json, AppConfigStorageItem parent)
+    private long getSourceVersion(Context context)
     {
-        // Add item
-        AppConfigStorageItem addItem = new AppConfigStorageItem();
-        Iterator<String> iterator = json.keys();
-        addItem.copyValues(parent);
-        while (iterator.hasNext())
+        // Assets can only change when the app is updated
+        try
         {
-            String key = iterator.next();
-            if (!key.equals("subConfigs") && !key.equals("name") && !json.isNull(key))
-            {
-                addItem.put(key, json.opt(key));
-            }
+            return context.getPackageManager().getPackageInfo(context.getPackageName(), 0).lastUpdateTime;
         }
-        if (json.has("name"))
+        catch (PackageManager.NameNotFoundException ignored)
         {
-            loadedConfigs.put(json.optString("name"), addItem);
         }
+        return 0;
+    }
 
-        // Find sub configurations with overrided values
-        JSONArray subConfigs = json.optJSONArray("subConfigs");
-        if (subConfigs != null)
+    private ByteBuffer mapAsset(Context context, String assetFile)
+    {
+        // Map the file directly if it's stored uncompressed
+        AssetFileDescriptor descriptor = null;
+        try
+        {
+            descriptor = context.getAssets().openFd(assetFile);
+        }
+        catch (IOException ignored)
+        {
+        }
+        if (descriptor != null)
         {
-            for (int i = 0; i < subConfigs.length(); i++)
+            FileInputStream inputStream = null;
+            try
+            {
+                inputStream = descriptor.createInputStream();
+                return inputStream.getChannel().map(FileChannel.MapMode.READ_ONLY, descriptor.getStartOffset(), descriptor.getLength());
+            }
+            catch (IOException ignored)
             {
-                addStorageItemFromJson(loadedConfigs, subConfigs.optJSONObject(i), addItem);
+            }
+            finally
+            {
+                closeQuietly(inputStream);
             }
         }
-    }
-
-
-    // ---
-    // Preferences handling
-    // ---
 
-    public void synchronizeCustomConfigWithPreferences(Context context, String config)
-    {
-        if (customConfigs.containsKey(config))
+        // Otherwise read it into memory
+        InputStream inputStream = null;
+        try
+        {
+            inputStream = context.getAssets().open(assetFile);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            int length;
+            while ((length = inputStream.read(chunk)) > 0)
+            {
+                outputStream.write(chunk, 0, length);
+            }
+            return ByteBuffer.wrap(outputStream.toByteArray());
+        }
+        catch (IOException ignored)
         {
-            storeCustomItemInPreferences(context, config);
         }
-        else
+        finally
         {
-            removeCustomItemFromPreferences(context, config);
+            closeQuietly(inputStream);
         }
+        return null;
     }
 
-    private void loadSelectedItemFromPreferences(Context context)
+    private static synchronized Executor getMainThreadExecutor()
     {
-        String preferencesFileName = context.getPackageName() + "." + PREFERENCE_FILE_NAME;
-        SharedPreferences preferences = context.getSharedPreferences(preferencesFileName, Context.MODE_PRIVATE);
-        Map<String, ?> objectMap = preferences.getAll();
-        AppConfigStorageItem selectedItem = new AppConfigStorageItem();
-        String configurationName = "";
-        for (String key : objectMap.keySet())
+        if (mainThreadExecutor == null)
         {
-            if (key.startsWith(SELECTED_PREFIX))
+            final Handler handler = new Handler(Looper.getMainLooper());
+            mainThreadExecutor = new Executor()
             {
-                key = key.substring(SELECTED_PREFIX.length());
-                if (key.equals("name"))
-                {
-                    configurationName = (String)objectMap.get(SELECTED_PREFIX + key);
-                }
-                else
+                @Override
+                public void execute(Runnable runnable)
                 {
-                    selectedItem.put(key, objectMap.get(SELECTED_PREFIX + key));
+                    handler.post(runnable);
                 }
-            }
-        }
-        if (configurationName.length() > 0)
-        {
-            putConfig(configurationName, selectedItem);
-            this.selectedItem = configurationName;
+            };
         }
+        return mainThreadExecutor;
     }
 
-    private void storeSelectedItemInPreferences(Context context)
+    private void closeQuietly(Closeable closeable)
     {
-        String preferencesFileName = context.getPackageName() + "." + PREFERENCE_FILE_NAME;
-        SharedPreferences preferences = context.getSharedPreferences(preferencesFileName, Context.MODE_PRIVATE);
-        Map<String, ?> objectMap = preferences.getAll();
-        SharedPreferences.Editor editor = preferences.edit();
-        for (String key : objectMap.keySet())
+        if (closeable != null)
         {
-            if (key.startsWith(SELECTED_PREFIX))
+            try
             {
-                editor.remove(key);
+                closeable.close();
             }
-        }
-        if (selectedItem.length() > 0)
-        {
-            AppConfigStorageItem item = getSelectedConfigNotNull();
-            ArrayList<String> valueList = item.valueList();
-            editor.putString(SELECTED_PREFIX + "name", selectedItem);
-            for (String key : valueList)
+            catch (IOException ignored)
             {
-                Object itemValue = item.get(key);
-                if (itemValue instanceof Boolean)
-                {
-                    editor.putBoolean(SELECTED_PREFIX + key, item.getBoolean(key));
-                }
-                else if (itemValue instanceof Integer)
-                {
-                    editor.putInt(SELECTED_PREFIX + key, item.getInt(key));
-                }
-                else if (itemValue instanceof Long)
-                {
-                    editor.putLong(SELECTED_PREFIX + key, item.getLong(key));
-                }
-                else
-                {
-                    editor.putString(SELECTED_PREFIX + key, item.getStringNotNull(key));
-                }
             }
         }
-        editor.apply();
     }
 
-    private void loadCustomItemsFromPreferences(Context context)
+
+    // ---
+    // Search index
+    // ---
+
+    public AppConfigSearchIndex getSearchIndex(String config)
     {
-        LinkedHashMap<String, AppConfigStorageItem> loadedConfigs = new LinkedHashMap<>();
-        String preferencesFileName = context.getPackageName() + "." + PREFERENCE_FILE_NAME;
-        SharedPreferences preferences = context.getSharedPreferences(preferencesFileName, Context.MODE_PRIVATE);
-        Map<String, ?> objectMap = preferences.getAll();
-        customConfigs.clear();
-        for (String key : objectMap.keySet())
+        // The latest index which was built for the configuration list (config is null) or a single configuration, or null
+        // While the configurations changed it can be of a previous state
+        synchronized (searchIndexLock)
+        {
+            return searchIndex != null && isSameConfig(searchIndexConfig, config) ? searchIndex : null;
+        }
+    }
+
+    public AppConfigFuture<AppConfigSearchIndex> buildSearchIndex(final String config)
+    {
+        // Built on the shared background thread when it's needed, callers share the index (or the build in progress) until the state or configuration changes
+        final AppConfigState indexState = state.get();
+        final AppConfigFuture<AppConfigSearchIndex> future;
+        synchronized (searchIndexLock)
+        {
+            if (searchIndexFuture != null && searchIndexState == indexState && isSameConfig(searchIndexConfig, config))
+            {
+                return searchIndexFuture;
+            }
+            if (!isSameConfig(searchIndexConfig, config))
+            {
+                searchIndex = null;
+            }
+            future = new AppConfigFuture<>();
+            searchIndexFuture = future;
+            searchIndexState = indexState;
+            searchIndexConfig = config;
+        }
+        final AppConfigBaseManager manager = configManager;
+        AppConfigExecutors.getBackgroundExecutor().execute(new Runnable()
         {
-            if (key.startsWith(CUSTOM_PREFIX))
+            @Override
+            public void run()
             {
-                String customKey = key.substring(CUSTOM_PREFIX.length());
-                int dotPos = customKey.indexOf('.');
-                if (dotPos >= 0)
+                try
                 {
-                    // Add config if not already in
-                    String configName = customKey.substring(0, dotPos);
-                    String keyName = customKey.substring(dotPos + 1);
-                    if (!loadedConfigs.containsKey(configName))
+                    AppConfigModelDescriptor descriptor = manager != null ? manager.getBaseModelInstance().getDescriptor() : null;
+                    AppConfigSearchIndex index;
+                    if (config != null)
                     {
-                        loadedConfigs.put(configName, new AppConfigStorageItem());
+                        index = AppConfigSearchIndex.forConfig(config, indexState.getConfigNotNull(config), descriptor);
                     }
-
-                    // Add value
-                    AppConfigStorageItem item = loadedConfigs.get(configName);
-                    Object addObject = objectMap.get(key);
-                    if (addObject instanceof Boolean)
-                    {
-                        item.putBoolean(keyName, (Boolean)objectMap.get(key));
-                    }
-                    else if (addObject instanceof Integer)
-                    {
-                        item.putInt(keyName, (Integer) objectMap.get(key));
-                    }
-                    else if (addObject instanceof Long)
+                    else
                     {
-                        item.putLong(keyName, (Long) objectMap.get(key));
+                        index = AppConfigSearchIndex.forState(indexState, descriptor);
                     }
-                    else if (addObject instanceof String)
+                    synchronized (searchIndexLock)
                     {
-                        item.putString(keyName, (String)objectMap.get(key));
+                        if (searchIndexFuture == future)
+                        {
+                            searchIndex = index;
+                        }
                     }
+                    future.complete(index);
+                }
+                catch (RuntimeException exception)
+                {
+                    future.fail(exception);
                 }
             }
+        });
+        return future;
+    }
+
+    public AppConfigFuture<AppConfigSearchIndex> buildSearchIndex(String config, Runnable runnable)
+    {
+        AppConfigFuture<AppConfigSearchIndex> future = buildSearchIndex(config);
+        future.addListener(runnable, getMainThreadExecutor());
+        return future;
+    }
+
+    private static boolean isSameConfig(String config, String checkConfig)
+    {
+        return config == null ? checkConfig == null : config.equals(checkConfig);
+    }
+
+
+    // ---
+    // Preferences handling
+    // ---
+
+    public void setWriteDelay(long delayMillis)
+    {
+        // By default changes are written directly on a background thread, with a delay they're combined and written after it (restarting with each change)
+        // Changes which are still pending when the process ends are lost, call flush() or flushSync() when the app goes to the background
+        writeDelay = delayMillis;
+        if (persistence != null)
+        {
+            persistence.setDelay(delayMillis);
         }
-        customConfigs = loadedConfigs;
-        if (selectedItem.length() > 0)
+    }
+
+    public void flush()
+    {
+        if (persistence != null)
         {
-            selectConfig(context, selectedItem);
+            persistence.flush();
         }
     }
 
-    private void removeCustomItemFromPreferences(Context context, String config)
+    public void flushSync()
     {
-        String preferencesFileName = context.getPackageName() + "." + PREFERENCE_FILE_NAME;
-        SharedPreferences preferences = context.getSharedPreferences(preferencesFileName, Context.MODE_PRIVATE);
-        Map<String, ?> objectMap = preferences.getAll();
-        SharedPreferences.Editor editor = preferences.edit();
-        for (String key : objectMap.keySet())
+        if (persistence != null)
         {
-            if (key.startsWith(CUSTOM_PREFIX + config + "."))
-            {
-                editor.remove(key);
-            }
+            persistence.flushSync();
         }
-        editor.apply();
     }
 
-    private void storeCustomItemInPreferences(Context context, String config)
+    public void synchronizeCustomConfigWithPreferences(Context context, String config)
     {
-        if (customConfigs.containsKey(config))
+        AppConfigState currentState = state.get();
+        if (currentState.hasCustomConfig(config))
+        {
+            storeCustomItemInPreferences(context, currentState, config);
+        }
+        else
         {
-            // First remove existing item
-            String preferencesFileName = context.getPackageName() + "." + PREFERENCE_FILE_NAME;
-            SharedPreferences preferences = context.getSharedPreferences(preferencesFileName, Context.MODE_PRIVATE);
-            SharedPreferences.Editor editor = preferences.edit();
             removeCustomItemFromPreferences(context, config);
+        }
+    }
 
-            // Add new one
-            AppConfigStorageItem item = customConfigs.get(config);
-            ArrayList<String> valueList = item.valueList();
-            for (String key : valueList)
+    private void loadSelectedItemFromPreferences(Context context)
+    {
+        // Listeners are notified by the caller, after releasing the write lock
+        AppConfigPersistence persistence = getPersistence(context);
+        String configurationName = persistence.loadSelectedConfigName();
+        if (configurationName != null && configurationName.length() > 0)
+        {
+            AppConfigStorageItem item = persistence.loadSelectedConfig();
+            synchronized (writeLock)
             {
-                Object itemValue = item.get(key);
-                if (itemValue instanceof Boolean)
+                AppConfigState newState = state.get().withoutConfig(configurationName);
+                if (item != null)
                 {
-                    editor.putBoolean(CUSTOM_PREFIX + config + "." + key, item.getBoolean(key));
-                }
-                else if (itemValue instanceof Integer)
-                {
-                    editor.putInt(CUSTOM_PREFIX + config + "." + key, item.getInt(key));
-                }
-                else if (itemValue instanceof Long)
-                {
-                    editor.putLong(CUSTOM_PREFIX + config + "." + key, item.getLong(key));
-                }
-                else
-                {
-                    editor.putString(CUSTOM_PREFIX + config + "." + key, item.getStringNotNull(key));
+                    AppConfigStoredConfigs storedConfigs = newState.copyStoredConfigs();
+                    storedConfigs.put(configurationName, item);
+                    newState = newState.withStoredConfigs(storedConfigs);
                 }
+                setState(newState.withSelectedConfigName(configurationName));
             }
-            editor.apply();
         }
     }
 
-    private void loadGlobalConfigFromPreferences(Context context)
+    private void storeSelectedItemInPreferences(Context context, AppConfigState state)
     {
-        String preferencesFileName = context.getPackageName() + "." + PREFERENCE_FILE_NAME;
-        SharedPreferences preferences = context.getSharedPreferences(preferencesFileName, Context.MODE_PRIVATE);
-        Map<String, ?> objectMap = preferences.getAll();
-        AppConfigStorageItem globalConfig = new AppConfigStorageItem();
-        for (String key : objectMap.keySet())
+        getPersistence(context).storeSelectedConfig(state.getSelectedConfigName(), state.getSelectedConfigNotNull());
+    }
+
+    private void loadCustomItemsFromPreferences(Context context)
+    {
+        // Selects the configuration again, it may be replaced by a custom one
+        AppConfigState previousState;
+        AppConfigState newState;
+        synchronized (writeLock)
         {
-            if (key.startsWith(GLOBAL_PREFIX))
+            previousState = state.get();
+            newState = previousState.withCustomConfigs(getPersistence(context).loadCustomConfigs());
+            String selectedConfigName = newState.getSelectedConfigName();
+            if (selectedConfigName.length() == 0)
             {
-                key = key.substring(GLOBAL_PREFIX.length());
-                globalConfig.put(key, objectMap.get(GLOBAL_PREFIX + key));
+                newState = setState(newState);
+                return;
             }
+            newState = newState.withSelectedConfigName(newState.containsConfig(selectedConfigName) ? selectedConfigName : "");
+            newState = setState(newState);
+            storeSelectedItemInPreferences(context, newState);
+            applyCurrentConfig(newState);
         }
-        this.globalConfig = globalConfig;
+        notifyChangedConfig(previousState, newState, true);
+    }
+
+    private void removeCustomItemFromPreferences(Context context, String config)
+    {
+        getPersistence(context).removeCustomConfig(config);
     }
 
-    private void storeGlobalConfigInPreferences(Context context)
+    private void storeCustomItemInPreferences(Context context, AppConfigState state, String config)
     {
-        String preferencesFileName = context.getPackageName() + "." + PREFERENCE_FILE_NAME;
-        SharedPreferences preferences = context.getSharedPreferences(preferencesFileName, Context.MODE_PRIVATE);
-        Map<String, ?> objectMap = preferences.getAll();
-        SharedPreferences.Editor editor = preferences.edit();
-        for (String key : objectMap.keySet())
+        AppConfigStorageItem item = state.getConfig(config);
+        if (item instanceof AppConfigLayeredStorageItem)
         {
-            if (key.startsWith(GLOBAL_PREFIX))
-            {
-                editor.remove(key);
-            }
+            item = ((AppConfigLayeredStorageItem)item).flatten();
         }
-        ArrayList<String> valueList = globalConfig.valueList();
-        for (String key : valueList)
+        getPersistence(context).storeCustomConfig(config, item);
+    }
+
+    private void loadGlobalConfigFromPreferences(Context context)
+    {
+        synchronized (writeLock)
         {
-            Object itemValue = globalConfig.get(key);
-            if (itemValue instanceof Boolean)
-            {
-                editor.putBoolean(GLOBAL_PREFIX + key, globalConfig.getBoolean(key));
-            }
-            else if (itemValue instanceof Integer)
-            {
-                editor.putInt(GLOBAL_PREFIX + key, globalConfig.getInt(key));
-            }
-            else if (itemValue instanceof Long)
-            {
-                editor.putLong(GLOBAL_PREFIX + key, globalConfig.getLong(key));
-            }
-            else
-            {
-                editor.putString(GLOBAL_PREFIX + key, globalConfig.getStringNotNull(key));
-            }
+            setState(state.get().withGlobalConfig(getPersistence(context).loadGlobalConfig()));
+        }
+    }
+
+    private void storeGlobalConfigInPreferences(Context context, AppConfigState state)
+    {
+        getPersistence(context).storeGlobalConfig(state.getGlobalConfig());
+    }
+
+    private synchronized AppConfigWriteBehindPersistence getPersistence(Context context)
+    {
+        if (persistence == null)
+        {
+            persistence = new AppConfigWriteBehindPersistence(new AppConfigSharedPreferencesPersistence(context), writeDelay);
         }
-        editor.apply();
+        return persistence;
     }
 
 
@@ -757,17 +1061,66 @@ public class AppConfigStorage
 
     public void addChangedConfigListener(ChangedConfigListener listener)
     {
-        if (!changedConfigListeners.contains(listener))
+        changedConfigListeners.addIfAbsent(listener);
+    }
+
+    public void removeChangedConfigListener(ChangedConfigListener listener)
+    {
+        changedConfigListeners.remove(listener);
+    }
+
+    public void addChangedConfigValuesListener(ChangedConfigValuesListener listener)
+    {
+        addChangedConfigValuesListener(listener, (String[])null);
+    }
+
+    public void addChangedConfigValuesListener(ChangedConfigValuesListener listener, String... keys)
+    {
+        // When keys are given, the listener is only called if one of them has changed
+        removeChangedConfigValuesListener(listener);
+        changedConfigValuesListeners.add(new ValuesSubscription(listener, keys != null ? new HashSet<>(Arrays.asList(keys)) : null));
+    }
+
+    public void removeChangedConfigValuesListener(ChangedConfigValuesListener listener)
+    {
+        for (ValuesSubscription subscription : changedConfigValuesListeners)
         {
-            changedConfigListeners.add(listener);
+            if (subscription.listener == listener)
+            {
+                changedConfigValuesListeners.remove(subscription);
+            }
         }
     }
 
-    public void removeChangedConfigListener(ChangedConfigListener listener)
+    private void notifyChangedConfig(AppConfigState previousState, AppConfigState newState, boolean notifyListeners)
     {
-        if (changedConfigListeners.contains(listener))
+        // Listeners can be added or removed while notifying, they will be applied on the next change
+        if (notifyListeners)
         {
-            changedConfigListeners.remove(listener);
+            for (ChangedConfigListener listener : changedConfigListeners)
+            {
+                long startTime = AppConfigMetrics.start();
+                listener.onChangedConfig();
+                AppConfigMetrics.stop(AppConfigMetrics.CHANGED_CONFIG_LISTENER, listener, startTime);
+            }
+        }
+
+        // Only determine changed values when needed
+        if (!changedConfigValuesListeners.isEmpty())
+        {
+            AppConfigDiff diff = AppConfigDiff.between(previousState, newState);
+            if (!diff.isEmpty())
+            {
+                for (ValuesSubscription subscription : changedConfigValuesListeners)
+                {
+                    if (subscription.keys == null || diff.hasChangedAny(subscription.keys))
+                    {
+                        long startTime = AppConfigMetrics.start();
+                        subscription.listener.onChangedConfigValues(diff);
+                        AppConfigMetrics.stop(AppConfigMetrics.CHANGED_CONFIG_VALUES_LISTENER, subscription.listener, startTime);
+                    }
+                }
+            }
         }
     }
 
@@ -780,4 +1133,83 @@ public class AppConfigStorage
     {
         void onChangedConfig();
     }
+
+
+    // ---
+    // Listener for changed values of the current configuration
+    // ---
+
+    public interface ChangedConfigValuesListener
+    {
+        void onChangedConfigValues(AppConfigDiff diff);
+    }
+
+    private static class ValuesSubscription
+    {
+        final ChangedConfigValuesListener listener;
+        final Set<String> keys;
+
+        ValuesSubscription(ChangedConfigValuesListener listener, Set<String> keys)
+        {
+            this.listener = listener;
+            this.keys = keys;
+        }
+    }
+
+
+    // ---
+    // Editor to change several things at once, the model is applied and listeners are notified once when committing
+    // ---
+
+    public class Editor
+    {
+        private AppConfigStateChanges changes = new AppConfigStateChanges();
+
+        private Editor()
+        {
+        }
+
+        public Editor putCustomConfig(String config, AppConfigStorageItem item)
+        {
+            changes.putCustomConfig(config, item);
+            return this;
+        }
+
+        public Editor removeConfig(String config)
+        {
+            changes.removeConfig(config);
+            return this;
+        }
+
+        public Editor selectConfig(String config)
+        {
+            changes.selectConfig(config);
+            return this;
+        }
+
+        public Editor updateGlobalConfig(AppConfigStorageItem item)
+        {
+            changes.updateGlobalConfig(item);
+            return this;
+        }
+
+        public Editor changeCurrentConfig(String key, String value)
+        {
+            changes.changeCurrentConfig(key, value);
+            return this;
+        }
+
+        public Editor changeGlobalConfig(String key, String value)
+        {
+            changes.changeGlobalConfig(key, value);
+            return this;
+        }
+
+        public void commit(Context context)
+        {
+            AppConfigStateChanges committedChanges = changes;
+            changes = new AppConfigStateChanges();
+            commitChanges(context, committedChanges);
+        }
+    }
 }
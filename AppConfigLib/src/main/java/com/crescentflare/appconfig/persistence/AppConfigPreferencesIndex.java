@@ -0,0 +1,146 @@
+package com.crescentflare.appconfig.persistence;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Library persistence: preferences index
+ * An in-memory copy of the stored preferences, partitioned by prefix and configuration name
+ * Built once from all preferences, then kept up to date when writing, which makes it unnecessary to scan all preferences again
+ */
+class AppConfigPreferencesIndex
+{
+    // ---
+    // Members
+    // ---
+
+    private final HashMap<String, LinkedHashMap<String, LinkedHashMap<String, Object>>> partitions = new HashMap<>();
+    private final Set<String> partitionedPrefixes = new HashSet<>();
+
+
+    // ---
+    // Initialization
+    // ---
+
+    AppConfigPreferencesIndex(List<String> prefixes, List<String> partitionedPrefixes)
+    {
+        for (String prefix : prefixes)
+        {
+            partitions.put(prefix, new LinkedHashMap<String, LinkedHashMap<String, Object>>());
+        }
+        for (String prefix : partitionedPrefixes)
+        {
+            partitions.put(prefix, new LinkedHashMap<String, LinkedHashMap<String, Object>>());
+            this.partitionedPrefixes.add(prefix);
+        }
+    }
+
+    void load(Map<String, ?> preferences)
+    {
+        for (Map.Entry<String, ?> entry : preferences.entrySet())
+        {
+            String key = entry.getKey();
+            for (String prefix : partitions.keySet())
+            {
+                if (key.startsWith(prefix))
+                {
+                    // Partitioned keys are stored as <prefix><config>.<key>, others don't have a configuration name
+                    String config = "";
+                    key = key.substring(prefix.length());
+                    if (partitionedPrefixes.contains(prefix))
+                    {
+                        int dotPos = key.indexOf('.');
+                        if (dotPos < 0)
+                        {
+                            break;
+                        }
+                        config = key.substring(0, dotPos);
+                        key = key.substring(dotPos + 1);
+                    }
+                    obtainValues(prefix, config).put(key, entry.getValue());
+                    break;
+                }
+            }
+        }
+    }
+
+
+    // ---
+    // Obtain values
+    // ---
+
+    List<String> getConfigs(String prefix)
+    {
+        return new ArrayList<>(partitions.get(prefix).keySet());
+    }
+
+    Map<String, Object> getValues(String prefix, String config)
+    {
+        LinkedHashMap<String, Object> values = partitions.get(prefix).get(config);
+        if (values == null)
+        {
+            return Collections.emptyMap();
+        }
+        return Collections.unmodifiableMap(values);
+    }
+
+    String preferenceKey(String prefix, String config, String key)
+    {
+        if (partitionedPrefixes.contains(prefix))
+        {
+            return prefix + config + "." + key;
+        }
+        return prefix + key;
+    }
+
+
+    // ---
+    // Update values
+    // ---
+
+    List<String> replaceValues(String prefix, String config, Map<String, Object> values)
+    {
+        // Returns the preference keys which are no longer used and should be removed
+        List<String> removedKeys = new ArrayList<>();
+        LinkedHashMap<String, Object> previousValues = partitions.get(prefix).remove(config);
+        if (previousValues != null)
+        {
+            for (String key : previousValues.keySet())
+            {
+                if (!values.containsKey(key))
+                {
+                    removedKeys.add(preferenceKey(prefix, config, key));
+                }
+            }
+        }
+        if (values.size() > 0)
+        {
+            obtainValues(prefix, config).putAll(values);
+        }
+        return removedKeys;
+    }
+
+
+    // ---
+    // Helper
+    // ---
+
+    private LinkedHashMap<String, Object> obtainValues(String prefix, String config)
+    {
+        LinkedHashMap<String, LinkedHashMap<String, Object>> configs = partitions.get(prefix);
+        LinkedHashMap<String, Object> values = configs.get(config);
+        if (values == null)
+        {
+            values = new LinkedHashMap<>();
+            configs.put(config, values);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,238 @@
+package com.crescentflare.appconfig.persistence;
+
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Library persistence: shared preferences storage
+ * The default storage, keeps the configurations in a shared preferences file of the application (with a prefix for each type)
+ */
+public class AppConfigSharedPreferencesPersistence implements AppConfigBatchedPersistence
+{
+    // ---
+    // Constants
+    // ---
+
+    private static final String PREFERENCE_FILE_NAME = "custom.app.config";
+    private static final String SELECTED_PREFIX = "selected.";
+    private static final String CUSTOM_PREFIX = "custom.";
+    private static final String GLOBAL_PREFIX = "global.";
+
+
+    // ---
+    // Members
+    // ---
+
+    private final SharedPreferences preferences;
+    private AppConfigPreferencesIndex preferencesIndex = null;
+    private SharedPreferences.Editor batchEditor = null;
+
+
+    // ---
+    // Initialization
+    // ---
+
+    public AppConfigSharedPreferencesPersistence(Context context)
+    {
+        String preferencesFileName = context.getPackageName() + "." + PREFERENCE_FILE_NAME;
+        preferences = context.getApplicationContext().getSharedPreferences(preferencesFileName, Context.MODE_PRIVATE);
+    }
+
+
+    // ---
+    // Selected configuration
+    // ---
+
+    @Override
+    public synchronized String loadSelectedConfigName()
+    {
+        Object name = getPreferencesIndex().getValues(SELECTED_PREFIX, "").get("name");
+        return name instanceof String ? (String)name : "";
+    }
+
+    @Override
+    public synchronized AppConfigStorageItem loadSelectedConfig()
+    {
+        AppConfigStorageItem item = new AppConfigStorageItem();
+        Map<String, Object> values = getPreferencesIndex().getValues(SELECTED_PREFIX, "");
+        for (String key : values.keySet())
+        {
+            if (!key.equals("name"))
+            {
+                item.put(key, values.get(key));
+            }
+        }
+        return item;
+    }
+
+    @Override
+    public synchronized void storeSelectedConfig(String name, AppConfigStorageItem item)
+    {
+        LinkedHashMap<String, Object> values = new LinkedHashMap<>();
+        if (name != null && name.length() > 0)
+        {
+            values.put("name", name);
+            values.putAll(preferenceValues(item));
+        }
+        storePreferenceValues(SELECTED_PREFIX, "", values);
+    }
+
+
+    // ---
+    // Global configuration
+    // ---
+
+    @Override
+    public synchronized AppConfigStorageItem loadGlobalConfig()
+    {
+        return itemFromValues(getPreferencesIndex().getValues(GLOBAL_PREFIX, ""));
+    }
+
+    @Override
+    public synchronized void storeGlobalConfig(AppConfigStorageItem item)
+    {
+        storePreferenceValues(GLOBAL_PREFIX, "", preferenceValues(item));
+    }
+
+
+    // ---
+    // Custom configurations
+    // ---
+
+    @Override
+    public synchronized LinkedHashMap<String, AppConfigStorageItem> loadCustomConfigs()
+    {
+        LinkedHashMap<String, AppConfigStorageItem> loadedConfigs = new LinkedHashMap<>();
+        AppConfigPreferencesIndex preferencesIndex = getPreferencesIndex();
+        for (String configName : preferencesIndex.getConfigs(CUSTOM_PREFIX))
+        {
+            loadedConfigs.put(configName, itemFromValues(preferencesIndex.getValues(CUSTOM_PREFIX, configName)));
+        }
+        return loadedConfigs;
+    }
+
+    @Override
+    public synchronized void storeCustomConfig(String name, AppConfigStorageItem item)
+    {
+        storePreferenceValues(CUSTOM_PREFIX, name, preferenceValues(item));
+    }
+
+    @Override
+    public synchronized void removeCustomConfig(String name)
+    {
+        storePreferenceValues(CUSTOM_PREFIX, name, new LinkedHashMap<String, Object>());
+    }
+
+
+    // ---
+    // Batches
+    // ---
+
+    @Override
+    public synchronized void beginBatch()
+    {
+        if (batchEditor == null)
+        {
+            batchEditor = preferences.edit();
+        }
+    }
+
+    @Override
+    public synchronized void endBatch()
+    {
+        // Written synchronously, batches are expected to be written from a background thread
+        if (batchEditor != null)
+        {
+            batchEditor.commit();
+            batchEditor = null;
+        }
+    }
+
+
+    // ---
+    // Helpers
+    // ---
+
+    private AppConfigPreferencesIndex getPreferencesIndex()
+    {
+        // Read all preferences once, after that the index is kept up to date when storing
+        if (preferencesIndex == null)
+        {
+            preferencesIndex = new AppConfigPreferencesIndex(Arrays.asList(SELECTED_PREFIX, GLOBAL_PREFIX), Collections.singletonList(CUSTOM_PREFIX));
+            preferencesIndex.load(preferences.getAll());
+        }
+        return preferencesIndex;
+    }
+
+    private AppConfigStorageItem itemFromValues(Map<String, Object> values)
+    {
+        AppConfigStorageItem item = new AppConfigStorageItem();
+        for (String key : values.keySet())
+        {
+            item.put(key, values.get(key));
+        }
+        return item;
+    }
+
+    private LinkedHashMap<String, Object> preferenceValues(AppConfigStorageItem item)
+    {
+        LinkedHashMap<String, Object> values = new LinkedHashMap<>();
+        for (String key : item.valueList())
+        {
+            Object itemValue = item.get(key);
+            if (itemValue instanceof Boolean || itemValue instanceof Integer || itemValue instanceof Long)
+            {
+                values.put(key, itemValue);
+            }
+            else
+            {
+                values.put(key, item.getStringNotNull(key));
+            }
+        }
+        return values;
+    }
+
+    private void storePreferenceValues(String prefix, String config, Map<String, Object> values)
+    {
+        // Only the keys of the given prefix and configuration are touched
+        AppConfigPreferencesIndex preferencesIndex = getPreferencesIndex();
+        SharedPreferences.Editor editor = batchEditor != null ? batchEditor : preferences.edit();
+        for (String removeKey : preferencesIndex.replaceValues(prefix, config, values))
+        {
+            editor.remove(removeKey);
+        }
+        for (Map.Entry<String, Object> entry : values.entrySet())
+        {
+            String key = preferencesIndex.preferenceKey(prefix, config, entry.getKey());
+            Object value = entry.getValue();
+            if (value instanceof Boolean)
+            {
+                editor.putBoolean(key, (Boolean)value);
+            }
+            else if (value instanceof Integer)
+            {
+                editor.putInt(key, (Integer)value);
+            }
+            else if (value instanceof Long)
+            {
+                editor.putLong(key, (Long)value);
+            }
+            else
+            {
+                editor.putString(key, (String)value);
+            }
+        }
+        if (editor != batchEditor)
+        {
+            editor.apply();
+        }
+    }
+}
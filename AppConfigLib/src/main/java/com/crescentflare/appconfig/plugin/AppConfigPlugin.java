@@ -6,6 +6,7 @@ import android.app.Activity;
  * Library plugin: an interface to define a custom plugin
  * Plugins can be made to manage custom values or add custom interaction to the selection menu
  * For example: launching a custom activity with development tools
+ * All methods are called on the main thread
  */
 public interface AppConfigPlugin
 {
@@ -15,17 +15,36 @@ import android.widget.TextView;
 import com.crescentflare.appconfig.helper.AppConfigResourceHelper;
 import com.crescentflare.appconfig.helper.AppConfigViewHelper;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+
 /**
  * Library view: a cell container
- * Simulates a list view with cells and dividers
+ * Simulates a list view with cells and dividers, can be updated incrementally by giving items a key
  */
 public class AppConfigCellList extends LinearLayout
 {
+    // ---
+    // Constants
+    // ---
+
+    private static final int CHILD_DIVIDER = 0;
+    private static final int CHILD_HEADER = 1;
+    private static final int CHILD_GRADIENT = 2;
+    private static final int CHILD_ITEM = 3;
+
+
     // ---
     // Members
     // ---
 
+    private final ArrayList<String> childKeys = new ArrayList<>();
+    private final ArrayList<Entry> entries = new ArrayList<>();
+    private final HashMap<String, View> previousViews = new HashMap<>();
     private View previousItemView = null;
+    private String currentSection = "";
+    private int sectionItemCount = 0;
+    private boolean updating = false;
 
 
     // ---
@@ -69,81 +88,218 @@ public class AppConfigCellList extends LinearLayout
     public void startSection(String headerText)
     {
         // Add top divider if needed
-        if (getChildCount() > 0)
+        currentSection = headerText;
+        sectionItemCount = 0;
+        if (updating ? entries.size() > 0 : getChildCount() > 0)
         {
-            View topLineView = new View(getContext());
-            topLineView.setLayoutParams(new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 1));
-            topLineView.setBackgroundColor(AppConfigResourceHelper.getColor(getContext(), "app_config_section_divider_line"));
-            addView(topLineView);
+            addChild("headerDivider:" + headerText, null, CHILD_DIVIDER);
         }
 
         // Add header label
-        LinearLayout createdView = new LinearLayout(getContext());
-        TextView labelView;
-        createdView.setOrientation(LinearLayout.VERTICAL);
-        createdView.setBackgroundColor(Color.WHITE);
-        createdView.addView(labelView = new TextView(getContext()));
-        labelView.setPadding(dp(12), dp(12), dp(12), dp(12));
-        labelView.setTypeface(Typeface.DEFAULT_BOLD);
-        labelView.setTextColor(AppConfigResourceHelper.getAccentColor(getContext()));
-        labelView.setText(headerText);
-        addView(createdView);
+        addChild("header:" + headerText, null, CHILD_HEADER);
         previousItemView = null;
     }
 
     public void endSection()
     {
-        // Top line divider (edge)
-        View topLineView = new View(getContext());
-        topLineView.setLayoutParams(new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 1));
-        topLineView.setBackgroundColor(AppConfigResourceHelper.getColor(getContext(), "app_config_section_divider_line"));
-        addView(topLineView);
-
-        // Gradient divider
-        View gradientView = new View(getContext());
-        int colors[] = new int[]
-        {
-            AppConfigResourceHelper.getColor(getContext(), "app_config_section_gradient_start"),
-            AppConfigResourceHelper.getColor(getContext(), "app_config_section_gradient_end"),
-            AppConfigResourceHelper.getColor(getContext(), "app_config_background")
-        };
-        GradientDrawable drawable = new GradientDrawable(GradientDrawable.Orientation.TOP_BOTTOM, colors);
-        gradientView.setLayoutParams(new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, dp(8)));
-        AppConfigViewHelper.setBackgroundDrawable(gradientView, drawable);
-        addView(gradientView);
+        // Top line divider (edge) and gradient divider
+        addChild("endDivider:" + currentSection, null, CHILD_DIVIDER);
+        addChild("gradient:" + currentSection, null, CHILD_GRADIENT);
     }
 
     public void addSectionItem(View view)
+    {
+        addSectionItem("#" + sectionItemCount, view);
+    }
+
+    public void addSectionItem(String key, View view)
     {
         // Add divider line
+        String itemKey = currentSection + "/" + key;
         if (previousItemView != null && (!(previousItemView instanceof AppConfigEditableCell) || !(view instanceof AppConfigEditableCell)))
         {
-            View topLineView = new View(getContext());
-            topLineView.setLayoutParams(new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 1));
-            topLineView.setBackgroundColor(AppConfigResourceHelper.getColor(getContext(), "app_config_section_divider_line"));
-            addView(topLineView);
+            addChild("divider:" + itemKey, null, CHILD_DIVIDER);
         }
 
         // Add view
         view.setBackgroundColor(Color.WHITE);
-        addView(view);
+        addChild("item:" + itemKey, view, CHILD_ITEM);
         previousItemView = view;
+        sectionItemCount++;
     }
 
     @Override
     public void removeAllViews()
     {
         super.removeAllViews();
+        childKeys.clear();
+        previousItemView = null;
+    }
+
+
+    // ---
+    // Incremental updates, sections and items are added again in between, only the differences are applied to the views
+    // ---
+
+    public void beginUpdate()
+    {
+        updating = true;
+        entries.clear();
+        previousViews.clear();
+        for (int i = 0; i < childKeys.size(); i++)
+        {
+            previousViews.put(childKeys.get(i), getChildAt(i));
+        }
         previousItemView = null;
     }
 
+    public View getItemView(String key)
+    {
+        // Returns the view of an item with this key in the current section (when it was added before), to update it and add it again
+        return previousViews.get("item:" + currentSection + "/" + key);
+    }
+
+    public void endUpdate()
+    {
+        // Remove views which are no longer there or replaced, unchanged views keep their state (like focus)
+        HashMap<String, Entry> newEntries = new HashMap<>();
+        for (Entry entry : entries)
+        {
+            newEntries.put(entry.key, entry);
+        }
+        for (int i = childKeys.size() - 1; i >= 0; i--)
+        {
+            Entry entry = newEntries.get(childKeys.get(i));
+            if (entry == null || (entry.view != null && entry.view != getChildAt(i)))
+            {
+                removeViewAt(i);
+                childKeys.remove(i);
+            }
+        }
+
+        // Insert new views or move existing ones into place
+        for (int i = 0; i < entries.size(); i++)
+        {
+            Entry entry = entries.get(i);
+            if (i < childKeys.size() && childKeys.get(i).equals(entry.key))
+            {
+                continue;
+            }
+            View view = entry.view;
+            int existingIndex = i < childKeys.size() ? childKeys.subList(i, childKeys.size()).indexOf(entry.key) : -1;
+            if (existingIndex >= 0)
+            {
+                view = getChildAt(i + existingIndex);
+                removeViewAt(i + existingIndex);
+                childKeys.remove(i + existingIndex);
+            }
+            else if (view == null)
+            {
+                view = createChild(entry.type, entry.key);
+            }
+            addView(view, i);
+            childKeys.add(i, entry.key);
+        }
+        while (childKeys.size() > entries.size())
+        {
+            removeViewAt(childKeys.size() - 1);
+            childKeys.remove(childKeys.size() - 1);
+        }
+        updating = false;
+        entries.clear();
+        previousViews.clear();
+    }
+
+    private void addChild(String key, View view, int type)
+    {
+        if (updating)
+        {
+            entries.add(new Entry(key, view, type));
+        }
+        else
+        {
+            addView(view != null ? view : createChild(type, key));
+            childKeys.add(key);
+        }
+    }
+
+    private View createChild(int type, String key)
+    {
+        if (type == CHILD_HEADER)
+        {
+            LinearLayout createdView = new LinearLayout(getContext());
+            createdView.setOrientation(LinearLayout.VERTICAL);
+            createdView.setBackgroundColor(Color.WHITE);
+            createdView.addView(createHeaderLabelView(getContext(), key.substring(key.indexOf(':') + 1)));
+            return createdView;
+        }
+        return type == CHILD_GRADIENT ? createGradientView(getContext()) : createDividerView(getContext());
+    }
+
+
+    // ---
+    // Section parts, also used by the virtualized list
+    // ---
+
+    public static View createDividerView(Context context)
+    {
+        View lineView = new View(context);
+        lineView.setLayoutParams(new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 1));
+        lineView.setBackgroundColor(AppConfigResourceHelper.getColor(context, "app_config_section_divider_line"));
+        return lineView;
+    }
+
+    public static TextView createHeaderLabelView(Context context, String headerText)
+    {
+        TextView labelView = new TextView(context);
+        labelView.setPadding(dp(12), dp(12), dp(12), dp(12));
+        labelView.setTypeface(Typeface.DEFAULT_BOLD);
+        labelView.setTextColor(AppConfigResourceHelper.getAccentColor(context));
+        labelView.setText(headerText);
+        return labelView;
+    }
+
+    public static View createGradientView(Context context)
+    {
+        View gradientView = new View(context);
+        int colors[] = new int[]
+        {
+            AppConfigResourceHelper.getColor(context, "app_config_section_gradient_start"),
+            AppConfigResourceHelper.getColor(context, "app_config_section_gradient_end"),
+            AppConfigResourceHelper.getColor(context, "app_config_background")
+        };
+        GradientDrawable drawable = new GradientDrawable(GradientDrawable.Orientation.TOP_BOTTOM, colors);
+        gradientView.setLayoutParams(new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, dp(8)));
+        AppConfigViewHelper.setBackgroundDrawable(gradientView, drawable);
+        return gradientView;
+    }
+
 
     // ---
     // Helper
     // ---
 
-    private int dp(int dp)
+    private static int dp(int dp)
     {
         return AppConfigViewHelper.dp(dp);
     }
+
+
+    // ---
+    // Child of the list while updating
+    // ---
+
+    private static class Entry
+    {
+        final String key;
+        final View view;
+        final int type;
+
+        Entry(String key, View view, int type)
+        {
+            this.key = key;
+            this.view = view;
+            this.type = type;
+        }
+    }
 }
@@ -0,0 +1,98 @@
+package com.crescentflare.appconfig.view;
+
+
+import android.content.Context;
+import android.graphics.Color;
+import android.support.annotation.Nullable;
+import android.support.v7.widget.AppCompatEditText;
+import android.text.InputType;
+import android.text.TextWatcher;
+import android.util.AttributeSet;
+import android.view.ViewGroup;
+import android.view.inputmethod.EditorInfo;
+import android.widget.FrameLayout;
+
+import com.crescentflare.appconfig.helper.AppConfigViewHelper;
+
+/**
+ * Library view: search bar
+ * A single line text field to type a search query in, placed above a cell list
+ */
+public class AppConfigSearchBar extends FrameLayout
+{
+    // ---
+    // Members
+    // ---
+
+    private AppCompatEditText editableView;
+
+
+    // ---
+    // Initialization
+    // ---
+
+    public AppConfigSearchBar(Context context)
+    {
+        super(context);
+        init(context, null);
+    }
+
+    public AppConfigSearchBar(Context context, @Nullable AttributeSet attrs)
+    {
+        super(context, attrs);
+        init(context, attrs);
+    }
+
+    public AppConfigSearchBar(Context context, @Nullable AttributeSet attrs, int defStyleAttr)
+    {
+        super(context, attrs);
+        init(context, attrs);
+    }
+
+    public AppConfigSearchBar(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes)
+    {
+        super(context, attrs);
+        init(context, attrs);
+    }
+
+    private void init(Context context, AttributeSet attrs)
+    {
+        setBackgroundColor(Color.WHITE);
+        setPadding(dp(10), dp(4), dp(10), dp(4));
+        addView(editableView = new AppCompatEditText(context));
+        editableView.setLayoutParams(new LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        editableView.setSingleLine(true);
+        editableView.setInputType(InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_FLAG_NO_SUGGESTIONS);
+        editableView.setImeOptions(EditorInfo.IME_ACTION_SEARCH);
+    }
+
+
+    // ---
+    // Modify view
+    // ---
+
+    public void setHint(String hint)
+    {
+        editableView.setHint(hint);
+    }
+
+    public String getQuery()
+    {
+        return editableView.getText().toString();
+    }
+
+    public void addTextChangedListener(TextWatcher textWatcher)
+    {
+        editableView.addTextChangedListener(textWatcher);
+    }
+
+
+    // ---
+    // Helper
+    // ---
+
+    private int dp(int dp)
+    {
+        return AppConfigViewHelper.dp(dp);
+    }
+}
@@ -0,0 +1,73 @@
+package com.crescentflare.appconfig.manager;
+
+import com.crescentflare.appconfig.model.AppConfigBaseModel;
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit test: base manager
+ */
+public class AppConfigBaseManagerTest
+{
+    // ---
+    // Test cases
+    // ---
+
+    @Test
+    public void testApplyCurrentConfig()
+    {
+        TestManager manager = new TestManager();
+        AppConfigBaseModel defaultModel = manager.getCurrentConfigInstance();
+        Assert.assertEquals(0, manager.getConfigVersion());
+        Assert.assertEquals("", ((TestModel)defaultModel).apiUrl);
+        manager.applyCurrentConfig("Test", createItem("apiUrl", "https://test"), createItem("timeout", "10"));
+        TestModel model = (TestModel)manager.getCurrentConfigInstance();
+        Assert.assertEquals(1, manager.getConfigVersion());
+        Assert.assertEquals("https://test", model.apiUrl);
+        Assert.assertEquals(10, model.timeout);
+    }
+
+    @Test
+    public void testPublishNewModel()
+    {
+        TestManager manager = new TestManager();
+        manager.applyCurrentConfig("First", createItem("apiUrl", "https://first"), new AppConfigStorageItem());
+        TestModel firstModel = (TestModel)manager.getCurrentConfigInstance();
+        manager.applyCurrentConfig("Second", createItem("apiUrl", "https://second"), new AppConfigStorageItem());
+        Assert.assertEquals(2, manager.getConfigVersion());
+        Assert.assertEquals("https://first", firstModel.apiUrl);
+        Assert.assertEquals("https://second", ((TestModel)manager.getCurrentConfigInstance()).apiUrl);
+        AppConfigBaseManager.AppliedConfig appliedConfig = manager.getAppliedConfig();
+        Assert.assertEquals(2, appliedConfig.getVersion());
+        Assert.assertSame(manager.getCurrentConfigInstance(), appliedConfig.getModel());
+    }
+
+
+    // ---
+    // Helpers
+    // ---
+
+    private AppConfigStorageItem createItem(String key, String value)
+    {
+        AppConfigStorageItem item = new AppConfigStorageItem();
+        item.putString(key, value);
+        return item;
+    }
+
+    public static class TestModel extends AppConfigBaseModel
+    {
+        public String apiUrl = "";
+        public int timeout = 0;
+    }
+
+    private static class TestManager extends AppConfigBaseManager
+    {
+        @Override
+        public AppConfigBaseModel getBaseModelInstance()
+        {
+            return new TestModel();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.crescentflare.appconfig.manager;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+
+import com.crescentflare.appconfig.model.AppConfigBaseModel;
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+import com.crescentflare.appconfig.persistence.AppConfigMemoryPersistence;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit test: storage initialization
+ */
+public class AppConfigStorageTest
+{
+    // ---
+    // Members
+    // ---
+
+    private final Context context = new ContextWrapper(null);
+    private AppConfigStorage storage;
+
+
+    // ---
+    // Setup
+    // ---
+
+    @Before
+    public void setUp()
+    {
+        storage = new AppConfigStorage();
+        AppConfigExecutors.setBackgroundExecutor(AppConfigExecutors.DIRECT);
+    }
+
+    @After
+    public void tearDown()
+    {
+        AppConfigExecutors.setBackgroundExecutor(null);
+    }
+
+
+    // ---
+    // Test cases
+    // ---
+
+    @Test
+    public void testInitAsync() throws Exception
+    {
+        AppConfigMemoryPersistence persistence = new AppConfigMemoryPersistence();
+        persistence.storeSelectedConfig("Test", createItem("apiUrl", "https://test"));
+        persistence.storeGlobalConfig(createItem("timeout", "10"));
+        TestManager manager = new TestManager();
+        AppConfigFuture<AppConfigBaseManager> future = storage.initAsync(context, manager, persistence);
+        Assert.assertTrue(future.isDone());
+        Assert.assertSame(manager, future.get());
+        Assert.assertTrue(storage.awaitInitialized(0, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(storage.isInitialized());
+        Assert.assertEquals("Test", storage.getSelectedConfigName());
+        Assert.assertEquals("https://test", ((TestModel)manager.getCurrentConfigInstance()).apiUrl);
+        Assert.assertEquals(10, ((TestModel)manager.getCurrentConfigInstance()).timeout);
+    }
+
+    @Test
+    public void testInitAsyncFailure()
+    {
+        AppConfigMemoryPersistence persistence = new AppConfigMemoryPersistence()
+        {
+            @Override
+            public synchronized AppConfigStorageItem loadGlobalConfig()
+            {
+                throw new IllegalStateException("Unreadable");
+            }
+        };
+        AppConfigFuture<AppConfigBaseManager> future = storage.initAsync(context, new TestManager(), persistence);
+        Assert.assertTrue(future.isDone());
+        Assert.assertFalse(storage.awaitInitialized(0, TimeUnit.MILLISECONDS));
+        Assert.assertFalse(storage.isInitialized());
+        try
+        {
+            storage.whenInitialized().get();
+            Assert.fail("Expected initialization to fail");
+        }
+        catch (ExecutionException exception)
+        {
+            Assert.assertTrue(exception.getCause() instanceof IllegalStateException);
+        }
+        catch (InterruptedException exception)
+        {
+            Assert.fail("Interrupted");
+        }
+    }
+
+    @Test
+    public void testAwaitInitializedTimeout()
+    {
+        // Hold back the background task until after the timeout
+        final ArrayList<Runnable> pendingTasks = new ArrayList<>();
+        AppConfigExecutors.setBackgroundExecutor(new Executor()
+        {
+            @Override
+            public void execute(Runnable runnable)
+            {
+                pendingTasks.add(runnable);
+            }
+        });
+        storage.initAsync(context, new TestManager(), new AppConfigMemoryPersistence());
+        Assert.assertFalse(storage.awaitInitialized(10, TimeUnit.MILLISECONDS));
+        Assert.assertFalse(storage.isInitialized());
+        Assert.assertEquals(1, pendingTasks.size());
+        pendingTasks.get(0).run();
+        Assert.assertTrue(storage.awaitInitialized(0, TimeUnit.MILLISECONDS));
+    }
+
+
+    // ---
+    // Helpers
+    // ---
+
+    private AppConfigStorageItem createItem(String key, String value)
+    {
+        AppConfigStorageItem item = new AppConfigStorageItem();
+        item.putString(key, value);
+        return item;
+    }
+
+    public static class TestModel extends AppConfigBaseModel
+    {
+        public String apiUrl = "";
+        public int timeout = 0;
+    }
+
+    private static class TestManager extends AppConfigBaseManager
+    {
+        @Override
+        public AppConfigBaseModel getBaseModelInstance()
+        {
+            return new TestModel();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.crescentflare.appconfig.persistence;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Unit test: preferences index
+ */
+public class AppConfigPreferencesIndexTest
+{
+    // ---
+    // Test cases
+    // ---
+
+    @Test
+    public void testLoad()
+    {
+        AppConfigPreferencesIndex index = createIndex();
+        Assert.assertEquals("Test", index.getValues("selected.", "").get("name"));
+        Assert.assertEquals(true, index.getValues("global.", "").get("flag"));
+        Assert.assertEquals(Arrays.asList("First", "Second"), index.getConfigs("custom."));
+        Assert.assertEquals(5L, index.getValues("custom.", "First").get("number"));
+        Assert.assertEquals("second", index.getValues("custom.", "Second").get("text"));
+        Assert.assertEquals(0, index.getValues("custom.", "Missing").size());
+    }
+
+    @Test
+    public void testReplaceValues()
+    {
+        AppConfigPreferencesIndex index = createIndex();
+        Map<String, Object> values = new HashMap<>();
+        values.put("text", "changed");
+        Assert.assertEquals(Collections.singletonList("custom.First.number"), index.replaceValues("custom.", "First", values));
+        Assert.assertEquals(values, index.getValues("custom.", "First"));
+        Assert.assertEquals(Collections.singletonList("custom.Second.text"), index.replaceValues("custom.", "Second", new HashMap<String, Object>()));
+        Assert.assertEquals(Collections.singletonList("First"), index.getConfigs("custom."));
+        Assert.assertEquals(Arrays.asList("selected.name", "selected.value"), index.replaceValues("selected.", "", new HashMap<String, Object>()));
+        Assert.assertEquals("global.flag", index.preferenceKey("global.", "", "flag"));
+    }
+
+
+    // ---
+    // Helper
+    // ---
+
+    private AppConfigPreferencesIndex createIndex()
+    {
+        LinkedHashMap<String, Object> preferences = new LinkedHashMap<>();
+        preferences.put("selected.name", "Test");
+        preferences.put("selected.value", 3L);
+        preferences.put("custom.First.number", 5L);
+        preferences.put("custom.First.text", "first");
+        preferences.put("custom.Second.text", "second");
+        preferences.put("custom.invalid", "ignored");
+        preferences.put("global.flag", true);
+        preferences.put("other", "ignored");
+        AppConfigPreferencesIndex index = new AppConfigPreferencesIndex(Arrays.asList("selected.", "global."), Collections.singletonList("custom."));
+        index.load(preferences);
+        return index;
+    }
+}
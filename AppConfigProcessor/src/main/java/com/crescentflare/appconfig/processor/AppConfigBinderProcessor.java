@@ -0,0 +1,553 @@
+package com.crescentflare.appconfig.processor;
+
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+/**
+ * Library processor: model binder generator
+ * Generates a <model>_AppConfigBinder class for each model which uses the app config annotations
+ * The binder provides typed getters, setters and static value tables, so no reflection is needed at runtime
+ */
+@SupportedAnnotationTypes({
+        AppConfigBinderProcessor.SORT_ANNOTATION,
+        AppConfigBinderProcessor.CATEGORY_ANNOTATION,
+        AppConfigBinderProcessor.GLOBAL_ANNOTATION
+})
+public class AppConfigBinderProcessor extends AbstractProcessor
+{
+    // ---
+    // Constants
+    // ---
+
+    static final String SORT_ANNOTATION = "com.crescentflare.appconfig.model.AppConfigModelSort";
+    static final String CATEGORY_ANNOTATION = "com.crescentflare.appconfig.model.AppConfigModelCategory";
+    static final String GLOBAL_ANNOTATION = "com.crescentflare.appconfig.model.AppConfigModelGlobal";
+    private static final String BASE_MODEL_CLASS = "com.crescentflare.appconfig.model.AppConfigBaseModel";
+    private static final String BINDER_SUFFIX = "_AppConfigBinder";
+
+
+    // ---
+    // Processing
+    // ---
+
+    @Override
+    public SourceVersion getSupportedSourceVersion()
+    {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv)
+    {
+        // Find all models containing annotated fields
+        Set<TypeElement> models = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations)
+        {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation))
+            {
+                if (element.getKind() == ElementKind.FIELD && element.getEnclosingElement() instanceof TypeElement)
+                {
+                    models.add((TypeElement)element.getEnclosingElement());
+                }
+            }
+        }
+
+        // Generate a binder for each of them
+        for (TypeElement model : models)
+        {
+            if (isAccessibleModel(model))
+            {
+                List<ModelValue> values = new ArrayList<>();
+                List<ModelWriter> writers = new ArrayList<>();
+                if (collectValues(model, values, writers))
+                {
+                    writeBinder(model, values, writers);
+                }
+            }
+        }
+        return true;
+    }
+
+
+    // ---
+    // Model inspection
+    // ---
+
+    private boolean isAccessibleModel(TypeElement model)
+    {
+        // The binder needs to construct calls to the model, it should be reachable from within the package
+        boolean isModel = false;
+        TypeMirror superType = model.getSuperclass();
+        while (superType.getKind() == TypeKind.DECLARED)
+        {
+            TypeElement superElement = (TypeElement)((DeclaredType)superType).asElement();
+            if (superElement.getQualifiedName().contentEquals(BASE_MODEL_CLASS))
+            {
+                isModel = true;
+                break;
+            }
+            superType = superElement.getSuperclass();
+        }
+        if (!isModel || model.getModifiers().contains(Modifier.ABSTRACT) || !model.getTypeParameters().isEmpty())
+        {
+            return false;
+        }
+        Element element = model;
+        while (element instanceof TypeElement)
+        {
+            if (element.getModifiers().contains(Modifier.PRIVATE))
+            {
+                note(model, "not accessible for a generated binder, falling back to reflection");
+                return false;
+            }
+            element = element.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private boolean collectValues(TypeElement model, List<ModelValue> values, List<ModelWriter> writers)
+    {
+        // Index methods by name, any setter means that fields are never written directly (like the reflection based implementation)
+        String modelName = model.getQualifiedName().toString();
+        Set<String> methodNames = new HashSet<>();
+        Map<String, ExecutableElement> getters = new HashMap<>();
+        List<ExecutableElement> setters = new ArrayList<>();
+        for (Element element : model.getEnclosedElements())
+        {
+            if (element.getKind() == ElementKind.METHOD)
+            {
+                ExecutableElement method = (ExecutableElement)element;
+                String methodName = method.getSimpleName().toString();
+                methodNames.add(methodName);
+                if (method.getParameters().isEmpty() && (methodName.startsWith("get") || methodName.startsWith("is")))
+                {
+                    getters.put(methodName, method);
+                }
+                else if (method.getParameters().size() == 1 && methodName.startsWith("set") && methodName.length() > 3)
+                {
+                    setters.add(method);
+                }
+            }
+        }
+
+        // Determine how values are written, fields are used when there are no setters
+        if (setters.size() > 0)
+        {
+            for (ExecutableElement setter : setters)
+            {
+                String methodName = setter.getSimpleName().toString();
+                ModelWriter writer = new ModelWriter();
+                writer.name = methodName.substring(3, 4).toLowerCase() + methodName.substring(4);
+                writer.type = setter.getParameters().get(0).asType();
+                writer.writeFormat = (setter.getModifiers().contains(Modifier.STATIC) ? modelName : "typedModel") + "." + methodName + "(%s)";
+                writer.setter = true;
+                if (isApplicable(writer))
+                {
+                    if (setter.getModifiers().contains(Modifier.PRIVATE))
+                    {
+                        note(model, "setter '" + methodName + "' is not accessible for a generated binder, falling back to reflection");
+                        return false;
+                    }
+                    writers.add(writer);
+                }
+            }
+        }
+        else
+        {
+            for (Element element : model.getEnclosedElements())
+            {
+                Set<Modifier> modifiers = element.getModifiers();
+                if (element.getKind() != ElementKind.FIELD || element.getSimpleName().toString().startsWith("$") || (modifiers.contains(Modifier.STATIC) && modifiers.contains(Modifier.FINAL)))
+                {
+                    continue;
+                }
+                ModelWriter writer = new ModelWriter();
+                writer.name = element.getSimpleName().toString();
+                writer.type = element.asType();
+                writer.writeFormat = (modifiers.contains(Modifier.STATIC) ? modelName : "typedModel") + "." + writer.name + " = %s";
+                if (isApplicable(writer))
+                {
+                    if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL))
+                    {
+                        note(model, "field '" + writer.name + "' is not writable for a generated binder, falling back to reflection");
+                        return false;
+                    }
+                    writers.add(writer);
+                }
+            }
+        }
+
+        // Determine the values, using the same rules as the reflection based implementation
+        for (Element element : model.getEnclosedElements())
+        {
+            if (element.getKind() != ElementKind.FIELD || element.getSimpleName().toString().startsWith("$"))
+            {
+                continue;
+            }
+            VariableElement field = (VariableElement)element;
+            String name = field.getSimpleName().toString();
+            String capitalized = name.substring(0, 1).toUpperCase() + name.substring(1);
+            boolean hasGetter = methodNames.contains("get" + capitalized) || methodNames.contains("is" + capitalized);
+            if (!field.getModifiers().contains(Modifier.PUBLIC) && !(hasGetter && methodNames.contains("set" + capitalized)))
+            {
+                continue;
+            }
+
+            // Determine how to read it, reflection can't call private getters
+            ModelValue value = new ModelValue();
+            value.name = name;
+            ExecutableElement getter = getters.get("get" + capitalized);
+            if (getter == null)
+            {
+                getter = getters.get("is" + capitalized);
+            }
+            if (getter != null && getter.getModifiers().contains(Modifier.PRIVATE))
+            {
+                value.readExpression = "null";
+            }
+            else if (getter != null)
+            {
+                value.readExpression = (getter.getModifiers().contains(Modifier.STATIC) ? modelName : "typedModel") + "." + getter.getSimpleName() + "()";
+            }
+            else
+            {
+                value.readExpression = (field.getModifiers().contains(Modifier.STATIC) ? modelName : "typedModel") + "." + name;
+            }
+
+            // Add annotation information
+            for (AnnotationMirror annotation : field.getAnnotationMirrors())
+            {
+                String annotationName = ((TypeElement)annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+                if (annotationName.equals(SORT_ANNOTATION))
+                {
+                    Object sortIndex = annotationValue(annotation);
+                    value.sortIndex = sortIndex instanceof Integer ? (Integer)sortIndex : 0;
+                }
+                else if (annotationName.equals(CATEGORY_ANNOTATION))
+                {
+                    Object category = annotationValue(annotation);
+                    value.category = category instanceof String ? (String)category : "";
+                }
+                else if (annotationName.equals(GLOBAL_ANNOTATION))
+                {
+                    value.global = true;
+                }
+            }
+            values.add(value);
+        }
+        return true;
+    }
+
+    private boolean isApplicable(ModelWriter writer)
+    {
+        // Only writers for supported types are used, the name is also set with a string from the configuration
+        return conversion(writer.type, "") != null || enumElement(writer.type) != null || (writer.name.equals("name") && typeName(writer.type).equals("java.lang.String"));
+    }
+
+    private Object annotationValue(AnnotationMirror annotation)
+    {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet())
+        {
+            if (entry.getKey().getSimpleName().contentEquals("value"))
+            {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+
+    // ---
+    // Code generation
+    // ---
+
+    private void writeBinder(TypeElement model, List<ModelValue> values, List<ModelWriter> writers)
+    {
+        // Determine names
+        String packageName = "";
+        Element packageElement = model;
+        while (!(packageElement instanceof PackageElement))
+        {
+            packageElement = packageElement.getEnclosingElement();
+        }
+        if (!((PackageElement)packageElement).isUnnamed())
+        {
+            packageName = ((PackageElement)packageElement).getQualifiedName().toString();
+        }
+        String modelName = model.getQualifiedName().toString();
+        String binderName = processingEnv.getElementUtils().getBinaryName(model).toString();
+        binderName = binderName.substring(packageName.length() > 0 ? packageName.length() + 1 : 0).replace('$', '_') + BINDER_SUFFIX;
+
+        // Determine enum lookup tables, enum settings are stored by their string representation
+        Map<String, String> enumTables = new LinkedHashMap<>();
+        for (ModelWriter writer : writers)
+        {
+            TypeElement enumElement = enumElement(writer.type);
+            if (enumElement != null && !enumTables.containsKey(enumElement.getQualifiedName().toString()))
+            {
+                enumTables.put(enumElement.getQualifiedName().toString(), "ENUM_CONSTANTS_" + enumTables.size());
+            }
+        }
+
+        // Generate source
+        StringBuilder code = new StringBuilder();
+        if (packageName.length() > 0)
+        {
+            code.append("package ").append(packageName).append(";\n\n");
+        }
+        code.append("import com.crescentflare.appconfig.model.AppConfigBaseModel;\n");
+        code.append("import com.crescentflare.appconfig.model.AppConfigModelBinder;\n");
+        code.append("import com.crescentflare.appconfig.model.AppConfigStorageItem;\n\n");
+        code.append("import java.util.Arrays;\n");
+        code.append("import java.util.Collections;\n");
+        code.append("import java.util.HashMap;\n");
+        code.append("import java.util.List;\n");
+        code.append("import java.util.Map;\n\n");
+        code.append("/**\n");
+        code.append(" * Generated by AppConfigBinderProcessor, do not edit\n");
+        code.append(" * Reflection-free binder for ").append(modelName).append("\n");
+        code.append(" */\n");
+        code.append("public final class ").append(binderName).append(" implements AppConfigModelBinder\n");
+        code.append("{\n");
+
+        // Static tables
+        code.append("    private static final List<Value> VALUES = Collections.unmodifiableList(Arrays.asList(\n");
+        for (int i = 0; i < values.size(); i++)
+        {
+            ModelValue value = values.get(i);
+            code.append("            new Value(").append(stringLiteral(value.name)).append(", ").append(value.sortIndex).append(", ").append(stringLiteral(value.category)).append(", ").append(value.global).append(")");
+            code.append(i < values.size() - 1 ? ",\n" : "\n");
+        }
+        code.append("    ));\n");
+        for (Map.Entry<String, String> entry : enumTables.entrySet())
+        {
+            code.append("    private static final Map<String, ").append(entry.getKey()).append("> ").append(entry.getValue()).append(" = enumConstants(").append(entry.getKey()).append(".values());\n");
+        }
+        code.append("\n");
+
+        // Value list
+        code.append("    @Override\n");
+        code.append("    public List<Value> values()\n");
+        code.append("    {\n");
+        code.append("        return VALUES;\n");
+        code.append("    }\n\n");
+
+        // Getter
+        code.append("    @Override\n");
+        code.append("    public Object getCurrentValue(AppConfigBaseModel model, String value)\n");
+        code.append("    {\n");
+        code.append("        ").append(modelName).append(" typedModel = (").append(modelName).append(")model;\n");
+        code.append("        switch (value)\n");
+        code.append("        {\n");
+        for (ModelValue value : values)
+        {
+            code.append("            case ").append(stringLiteral(value.name)).append(":\n");
+            code.append("                return ").append(value.readExpression).append(";\n");
+        }
+        code.append("        }\n");
+        code.append("        return null;\n");
+        code.append("    }\n\n");
+
+        // Setter
+        code.append("    @Override\n");
+        code.append("    public void applyCustomSettings(AppConfigBaseModel model, String configName, AppConfigStorageItem item)\n");
+        code.append("    {\n");
+        code.append("        ").append(modelName).append(" typedModel = (").append(modelName).append(")model;\n");
+        for (ModelWriter writer : writers)
+        {
+            appendApplyValue(code, writer, enumTables);
+        }
+        code.append("    }\n");
+
+        // Enum helper
+        if (enumTables.size() > 0)
+        {
+            code.append("\n");
+            code.append("    private static <T> Map<String, T> enumConstants(T[] constants)\n");
+            code.append("    {\n");
+            code.append("        Map<String, T> result = new HashMap<>();\n");
+            code.append("        for (T constant : constants)\n");
+            code.append("        {\n");
+            code.append("            if (!result.containsKey(constant.toString()))\n");
+            code.append("            {\n");
+            code.append("                result.put(constant.toString(), constant);\n");
+            code.append("            }\n");
+            code.append("        }\n");
+            code.append("        return result;\n");
+            code.append("    }\n");
+        }
+        code.append("}\n");
+
+        // Write file
+        try
+        {
+            String qualifiedBinderName = packageName.length() > 0 ? packageName + "." + binderName : binderName;
+            Writer writer = processingEnv.getFiler().createSourceFile(qualifiedBinderName, model).openWriter();
+            writer.write(code.toString());
+            writer.close();
+        }
+        catch (IOException e)
+        {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write model binder: " + e.getMessage(), model);
+        }
+    }
+
+    private void appendApplyValue(StringBuilder code, ModelWriter writer, Map<String, String> enumTables)
+    {
+        // The name is taken from the configuration, a name setter doesn't use the stored settings
+        String key = stringLiteral(writer.name);
+        if (writer.name.equals("name"))
+        {
+            if (typeName(writer.type).equals("java.lang.String"))
+            {
+                code.append("        if (configName.length() > 0)\n");
+                code.append("        {\n");
+                code.append("            ").append(String.format(writer.writeFormat, "configName")).append(";\n");
+                code.append("        }\n");
+            }
+            if (writer.setter)
+            {
+                return;
+            }
+        }
+
+        // Convert and apply the stored setting
+        String conversion = conversion(writer.type, key);
+        TypeElement enumElement = enumElement(writer.type);
+        if (conversion != null)
+        {
+            code.append("        if (item.get(").append(key).append(") != null)\n");
+            code.append("        {\n");
+            code.append("            ").append(String.format(writer.writeFormat, conversion)).append(";\n");
+            code.append("        }\n");
+        }
+        else if (enumElement != null)
+        {
+            String enumTable = enumTables.get(enumElement.getQualifiedName().toString());
+            code.append("        if (item.get(").append(key).append(") != null && ").append(enumTable).append(".containsKey(item.getStringNotNull(").append(key).append(")))\n");
+            code.append("        {\n");
+            code.append("            ").append(String.format(writer.writeFormat, enumTable + ".get(item.getStringNotNull(" + key + "))")).append(";\n");
+            code.append("        }\n");
+        }
+    }
+
+
+    // ---
+    // Helpers
+    // ---
+
+    private TypeElement enumElement(TypeMirror type)
+    {
+        if (type != null && type.getKind() == TypeKind.DECLARED)
+        {
+            Element element = ((DeclaredType)type).asElement();
+            if (element.getKind() == ElementKind.ENUM)
+            {
+                return (TypeElement)element;
+            }
+        }
+        return null;
+    }
+
+    private String typeName(TypeMirror type)
+    {
+        return type.getKind().isPrimitive() ? type.getKind().name().toLowerCase() : type.toString();
+    }
+
+    private String conversion(TypeMirror type, String key)
+    {
+        String typeName = typeName(type);
+        if (typeName.equals("boolean") || typeName.equals("java.lang.Boolean"))
+        {
+            return "item.getBoolean(" + key + ")";
+        }
+        else if (typeName.equals("int") || typeName.equals("java.lang.Integer"))
+        {
+            return "item.getInt(" + key + ")";
+        }
+        else if (typeName.equals("long") || typeName.equals("java.lang.Long"))
+        {
+            return "item.getLong(" + key + ")";
+        }
+        else if (typeName.equals("java.lang.String"))
+        {
+            return "item.getStringNotNull(" + key + ")";
+        }
+        return null;
+    }
+
+    private String stringLiteral(String value)
+    {
+        StringBuilder result = new StringBuilder("\"");
+        for (char c : value.toCharArray())
+        {
+            if (c == '"' || c == '\\')
+            {
+                result.append('\\').append(c);
+            }
+            else if (c < 0x20 || c > 0x7e)
+            {
+                result.append(String.format("\\u%04x", (int)c));
+            }
+            else
+            {
+                result.append(c);
+            }
+        }
+        return result.append('"').toString();
+    }
+
+    private void note(Element element, String message)
+    {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, element.getSimpleName() + ": " + message, element);
+    }
+
+
+    // ---
+    // Helper object
+    // ---
+
+    private static class ModelValue
+    {
+        String name = "";
+        String readExpression = null;
+        String category = "";
+        int sortIndex = 0;
+        boolean global = false;
+    }
+
+    private static class ModelWriter
+    {
+        String name = "";
+        String writeFormat = null;
+        TypeMirror type = null;
+        boolean setter = false;
+    }
+}
@@ -0,0 +1,252 @@
+package com.crescentflare.appconfig.processor;
+
+import com.crescentflare.appconfig.model.AppConfigBaseModel;
+import com.crescentflare.appconfig.model.AppConfigModelDescriptor;
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Unit test: model binder processor
+ * Compiles the test models with and without the processor, the generated binder should behave the same as reflection
+ */
+public class AppConfigBinderProcessorTest
+{
+    // ---
+    // Test models
+    // ---
+
+    private static final String PACKAGE = "com.crescentflare.appconfig.processortest";
+
+    private static final String ENUMS_SOURCE = "package " + PACKAGE + ";\n" +
+            "public class Enums\n" +
+            "{\n" +
+            "    public enum SimpleEnum { Simple, Value, Name }\n" +
+            "    public enum ComplexEnum\n" +
+            "    {\n" +
+            "        Unknown(\"\"), Test(\"test\"), Application(\"application\");\n" +
+            "        private String text;\n" +
+            "        ComplexEnum(String text) { this.text = text; }\n" +
+            "        public String toString() { return text; }\n" +
+            "    }\n" +
+            "    public enum BodyEnum\n" +
+            "    {\n" +
+            "        Plain, Custom { public String toString() { return \"custom\"; } }\n" +
+            "    }\n" +
+            "}\n";
+
+    private static final String FIELDS_SOURCE = "package " + PACKAGE + ";\n" +
+            "import com.crescentflare.appconfig.model.*;\n" +
+            "public class FieldsModel extends AppConfigBaseModel\n" +
+            "{\n" +
+            "    public static final String CONSTANT = \"constant\";\n" +
+            "    public static int staticField = 0;\n" +
+            "    public String name = \"\";\n" +
+            "    @AppConfigModelCategory(\"Enums\") public Enums.SimpleEnum simpleEnumField = Enums.SimpleEnum.Simple;\n" +
+            "    @AppConfigModelCategory(\"Enums\") public Enums.ComplexEnum complexEnumField = Enums.ComplexEnum.Unknown;\n" +
+            "    @AppConfigModelCategory(\"Enums\") public Enums.BodyEnum bodyEnumField = Enums.BodyEnum.Plain;\n" +
+            "    @AppConfigModelSort(1) @AppConfigModelCategory(\"Strings\") public String stringField = \"\";\n" +
+            "    @AppConfigModelSort(2) public long longField = 0;\n" +
+            "    public int intField = 0;\n" +
+            "    public Boolean boolField = false;\n" +
+            "    @AppConfigModelGlobal public String globalStringField = \"\";\n" +
+            "}\n";
+
+    private static final String METHODS_SOURCE = "package " + PACKAGE + ";\n" +
+            "import com.crescentflare.appconfig.model.*;\n" +
+            "public class MethodsModel extends AppConfigBaseModel\n" +
+            "{\n" +
+            "    public String publicField = \"\";\n" +
+            "    private String name = \"\";\n" +
+            "    @AppConfigModelCategory(\"Enums\") private Enums.BodyEnum bodyEnumField = Enums.BodyEnum.Plain;\n" +
+            "    @AppConfigModelCategory(\"Strings\") private String stringField = \"\";\n" +
+            "    private boolean boolField = false;\n" +
+            "    @AppConfigModelGlobal private int globalIntField = 0;\n" +
+            "    public String getName() { return name; }\n" +
+            "    public void setName(String name) { this.name = name; }\n" +
+            "    public Enums.BodyEnum getBodyEnumField() { return bodyEnumField; }\n" +
+            "    public void setBodyEnumField(Enums.BodyEnum bodyEnumField) { this.bodyEnumField = bodyEnumField; }\n" +
+            "    public String getStringField() { return stringField; }\n" +
+            "    public void setStringField(String stringField) { this.stringField = stringField; }\n" +
+            "    public boolean isBoolField() { return boolField; }\n" +
+            "    public void setBoolField(boolean boolField) { this.boolField = boolField; }\n" +
+            "    public int getGlobalIntField() { return globalIntField; }\n" +
+            "    public void setGlobalIntField(int globalIntField) { this.globalIntField = globalIntField; }\n" +
+            "    public void setShouldSkip() { }\n" +
+            "}\n";
+
+
+    // ---
+    // Members
+    // ---
+
+    private File directory;
+
+
+    // ---
+    // Setup
+    // ---
+
+    @Before
+    public void setUp() throws IOException
+    {
+        directory = File.createTempFile("appconfig", "processor");
+        directory.delete();
+        directory.mkdirs();
+    }
+
+    @After
+    public void tearDown()
+    {
+        delete(directory);
+    }
+
+
+    // ---
+    // Test cases
+    // ---
+
+    @Test
+    public void testGeneratesBinder() throws Exception
+    {
+        ClassLoader processed = compile("processed", true);
+        ClassLoader reflected = compile("reflected", false);
+        Assert.assertNotNull(AppConfigModelDescriptor.forClass(processed.loadClass(PACKAGE + ".FieldsModel")).getBinder());
+        Assert.assertNotNull(AppConfigModelDescriptor.forClass(processed.loadClass(PACKAGE + ".MethodsModel")).getBinder());
+        Assert.assertNull(AppConfigModelDescriptor.forClass(reflected.loadClass(PACKAGE + ".FieldsModel")).getBinder());
+    }
+
+    @Test
+    public void testFieldsParity() throws Exception
+    {
+        AppConfigStorageItem item = createItem();
+        item.putInt("staticField", 5);
+        item.putString("CONSTANT", "changed");
+        item.putString("name", "Stored name");
+        assertParity("FieldsModel", item);
+    }
+
+    @Test
+    public void testMethodsParity() throws Exception
+    {
+        AppConfigStorageItem item = createItem();
+        item.putString("publicField", "Not applied");
+        item.putString("name", "Not applied");
+        item.putInt("globalIntField", 12);
+        assertParity("MethodsModel", item);
+    }
+
+
+    // ---
+    // Helpers
+    // ---
+
+    private void assertParity(String modelName, AppConfigStorageItem item) throws Exception
+    {
+        // Compare the static tables
+        AppConfigBaseModel binderModel = (AppConfigBaseModel)compile("processed", true).loadClass(PACKAGE + "." + modelName).newInstance();
+        AppConfigBaseModel reflectionModel = (AppConfigBaseModel)compile("reflected", false).loadClass(PACKAGE + "." + modelName).newInstance();
+        Assert.assertNotNull(binderModel.getDescriptor().getBinder());
+        Assert.assertNull(reflectionModel.getDescriptor().getBinder());
+        Assert.assertEquals(reflectionModel.configurationValueList(), binderModel.configurationValueList());
+        Assert.assertEquals(reflectionModel.globalValueList(), binderModel.globalValueList());
+        Assert.assertEquals(reflectionModel.getConfigurationCategories(), binderModel.getConfigurationCategories());
+        Assert.assertEquals(reflectionModel.getGlobalCategories(), binderModel.getGlobalCategories());
+
+        // Compare values before and after applying settings (classes differ between loaders, compare as text)
+        List<String> values = new ArrayList<>(reflectionModel.configurationValueList());
+        values.addAll(reflectionModel.globalValueList());
+        for (int i = 0; i < 2; i++)
+        {
+            for (String value : values)
+            {
+                Assert.assertEquals(value, String.valueOf(reflectionModel.getCurrentValue(value)), String.valueOf(binderModel.getCurrentValue(value)));
+            }
+            reflectionModel.applyCustomSettings("Config", item);
+            binderModel.applyCustomSettings("Config", item);
+        }
+    }
+
+    private AppConfigStorageItem createItem()
+    {
+        AppConfigStorageItem item = new AppConfigStorageItem();
+        item.putString("simpleEnumField", "Value");
+        item.putString("complexEnumField", "application");
+        item.putString("bodyEnumField", "custom");
+        item.putString("stringField", "Applied");
+        item.putLong("longField", 83480);
+        item.putInt("intField", -234);
+        item.putBoolean("boolField", true);
+        item.putString("globalStringField", "Global");
+        return item;
+    }
+
+    private ClassLoader compile(String name, boolean process) throws IOException
+    {
+        // Write the sources and compile them with the test classpath
+        File sourceDirectory = new File(directory, name + "-src");
+        File classDirectory = new File(directory, name);
+        List<File> sources = new ArrayList<>();
+        sourceDirectory.mkdirs();
+        classDirectory.mkdirs();
+        for (String source : Arrays.asList(ENUMS_SOURCE, FIELDS_SOURCE, METHODS_SOURCE))
+        {
+            String className = source.substring(source.indexOf("public class ") + 13, source.indexOf('\n', source.indexOf("public class ")));
+            File file = new File(sourceDirectory, className.split(" ")[0] + ".java");
+            Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+            writer.write(source);
+            writer.close();
+            sources.add(file);
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        Assert.assertNotNull("Tests need to run on a JDK", compiler);
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+        Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjectsFromFiles(sources);
+        List<String> options = new ArrayList<>(Arrays.asList("-classpath", System.getProperty("java.class.path"), "-d", classDirectory.getPath(), "-s", classDirectory.getPath()));
+        if (!process)
+        {
+            options.add("-proc:none");
+        }
+        JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null, units);
+        if (process)
+        {
+            task.setProcessors(Collections.singletonList(new AppConfigBinderProcessor()));
+        }
+        Assert.assertTrue(task.call());
+        fileManager.close();
+        return new URLClassLoader(new URL[] { classDirectory.toURI().toURL() }, getClass().getClassLoader());
+    }
+
+    private void delete(File file)
+    {
+        File[] children = file.listFiles();
+        if (children != null)
+        {
+            for (File child : children)
+            {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
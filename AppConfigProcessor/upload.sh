@@ -0,0 +1 @@
+../gradlew clean bintrayUpload
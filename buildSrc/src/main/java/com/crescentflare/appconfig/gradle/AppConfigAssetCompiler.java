@@ -0,0 +1,66 @@
+package com.crescentflare.appconfig.gradle;
+
+
+import com.crescentflare.appconfig.manager.AppConfigBinaryFormat;
+import com.crescentflare.appconfig.manager.AppConfigJsonLoader;
+import com.crescentflare.appconfig.model.AppConfigStorageItem;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+
+/**
+ * Build tool: configuration asset compiler
+ * Converts the JSON configuration asset into the binary format during the build, called from the merge assets task of the app
+ */
+public class AppConfigAssetCompiler
+{
+    // ---
+    // Compiling
+    // ---
+
+    public static File compileAsset(File assetsDir, String jsonAssetFile) throws IOException
+    {
+        File jsonFile = new File(assetsDir, jsonAssetFile);
+        if (!jsonFile.isFile())
+        {
+            return null;
+        }
+        String baseName = jsonAssetFile.endsWith(".json") ? jsonAssetFile.substring(0, jsonAssetFile.length() - 5) : jsonAssetFile;
+        File binaryFile = new File(assetsDir, baseName + AppConfigBinaryFormat.FILE_EXTENSION);
+        compile(jsonFile, binaryFile);
+        return binaryFile;
+    }
+
+    public static void compile(File jsonFile, File binaryFile) throws IOException
+    {
+        // Resolve the configurations (without model defaults, these are added when loading)
+        LinkedHashMap<String, AppConfigStorageItem> configs;
+        Reader reader = new InputStreamReader(new FileInputStream(jsonFile), "UTF-8");
+        try
+        {
+            configs = AppConfigJsonLoader.load(reader, null);
+        }
+        finally
+        {
+            reader.close();
+        }
+
+        // Write the binary version
+        OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(binaryFile));
+        try
+        {
+            AppConfigBinaryFormat.write(configs, outputStream);
+        }
+        finally
+        {
+            outputStream.close();
+        }
+    }
+}